@@ -0,0 +1,84 @@
+package com.feng.calendar.benchmark;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.feng.calendar.model.dto.BulkDateRequest;
+import com.feng.calendar.model.dto.BulkDateResponse;
+import com.feng.calendar.service.CalendarService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Bulk date checks of 1k to 1M random dates over ten years, as the bulk-check
+ * endpoint receives them (ISO strings), with and without next work dates. Batches from
+ * calendar-service.performance.bulk-parallel-threshold (10k) on run in parallel, as
+ * they do in the service. Divide gc.alloc.rate.norm by the batch size for bytes per
+ * date.
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar BulkDatesBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BulkDatesBenchmark {
+
+	@Param({"1000", "10000", "100000", "1000000"})
+	public int batchSize;
+
+	private CalendarService calendarService;
+
+	private BulkDateRequest dateTypes;
+
+	private BulkDateRequest dateTypesAndNextWorkDates;
+
+	@Setup
+	public void setUp(CalendarFixture fixture) {
+		calendarService = fixture.calendarService();
+
+		Random random = new Random(42);
+		LocalDate first = LocalDate.of(2020, 1, 1);
+		int days = (int) (LocalDate.of(2030, 1, 1).toEpochDay() - first.toEpochDay());
+		List<String> dates = new ArrayList<>(batchSize);
+		for (int i = 0; i < batchSize; i++) {
+			dates.add(first.plusDays(random.nextInt(days)).toString());
+		}
+
+		dateTypes = BulkDateRequest.builder()
+				.dates(dates)
+				.country("US")
+				.build();
+		dateTypesAndNextWorkDates = BulkDateRequest.builder()
+				.dates(dates)
+				.country("US")
+				.operations(List.of("DATE_TYPE", "NEXT_WORK_DATE"))
+				.build();
+	}
+
+	@Benchmark
+	public BulkDateResponse dateTypes() {
+		return calendarService.processBulkDates(dateTypes);
+	}
+
+	@Benchmark
+	public BulkDateResponse dateTypesAndNextWorkDates() {
+		return calendarService.processBulkDates(dateTypesAndNextWorkDates);
+	}
+}
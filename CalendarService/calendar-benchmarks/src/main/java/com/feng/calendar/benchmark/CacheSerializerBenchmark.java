@@ -0,0 +1,124 @@
+package com.feng.calendar.benchmark;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.feng.calendar.cache.CalendarBinarySerializer;
+import com.feng.calendar.model.cache.HolidayYear;
+import com.feng.calendar.model.entity.Holiday;
+import com.feng.calendar.model.enums.HolidayType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * Decode cost of cached holiday years, binary against the typed JSON serializer used
+ * before.
+ *
+ * main prints the payload size of both formats before running the benchmarks.
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar CacheSerializerBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheSerializerBenchmark {
+
+	private RedisSerializer<HolidayYear> jsonHolidayYears;
+
+	private CalendarBinarySerializer binary;
+
+	private byte[] holidayYearJson;
+
+	private byte[] holidayYearBinary;
+
+	@Setup
+	public void setUp() {
+		ObjectMapper objectMapper = new ObjectMapper()
+				.registerModule(new JavaTimeModule())
+				.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+				.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+		jsonHolidayYears =
+				new Jackson2JsonRedisSerializer<>(objectMapper, HolidayYear.class);
+		binary = new CalendarBinarySerializer();
+
+		HolidayYear holidayYear = holidayYear();
+		holidayYearJson = jsonHolidayYears.serialize(holidayYear);
+		holidayYearBinary = binary.serialize(holidayYear);
+	}
+
+	@Benchmark
+	public HolidayYear decodeHolidayYearJson() {
+		return jsonHolidayYears.deserialize(holidayYearJson);
+	}
+
+	@Benchmark
+	public Object decodeHolidayYearBinary() {
+		return binary.deserialize(holidayYearBinary);
+	}
+
+	/**
+	 * A typical country-year: eleven holidays
+	 */
+	private static HolidayYear holidayYear() {
+		String[] names = {"New Year's Day", "Martin Luther King Jr. Day",
+				"Presidents' Day", "Memorial Day", "Juneteenth", "Independence Day",
+				"Labor Day", "Columbus Day", "Veterans Day", "Thanksgiving Day",
+				"Christmas Day"};
+		LocalDate[] dates = {LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 15),
+				LocalDate.of(2024, 2, 19), LocalDate.of(2024, 5, 27),
+				LocalDate.of(2024, 6, 19), LocalDate.of(2024, 7, 4),
+				LocalDate.of(2024, 9, 2), LocalDate.of(2024, 10, 14),
+				LocalDate.of(2024, 11, 11), LocalDate.of(2024, 11, 28),
+				LocalDate.of(2024, 12, 25)};
+
+		List<Holiday> holidays = new ArrayList<>();
+		for (int i = 0; i < names.length; i++) {
+			Holiday holiday = new Holiday();
+			holiday.setId(1000L + i);
+			holiday.setName(names[i]);
+			holiday.setDate(dates[i]);
+			holiday.setHolidayType(HolidayType.NATIONAL);
+			holidays.add(holiday);
+		}
+		return HolidayYear.of("US", 2024, holidays);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		CacheSerializerBenchmark payloads = new CacheSerializerBenchmark();
+		payloads.setUp();
+		System.out.printf("Holiday year: %d bytes JSON, %d bytes binary%n",
+				payloads.holidayYearJson.length, payloads.holidayYearBinary.length);
+
+		Options options = new OptionsBuilder()
+				.include(CacheSerializerBenchmark.class.getSimpleName())
+				.addProfiler("gc")
+				.build();
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,44 @@
+package com.feng.calendar.benchmark;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar: the regular JMH command line, with the GC profiler
+ * always on so allocation rates (gc.alloc.rate and gc.alloc.rate.norm) are reported
+ * next to the scores.
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar [JMH options] [regexp]
+ * </pre>
+ */
+public final class CalendarBenchmarks {
+
+	private CalendarBenchmarks() {
+	}
+
+	public static void main(String[] args)
+			throws CommandLineOptionException, IOException, RunnerException {
+		CommandLineOptions commandLine = new CommandLineOptions(args);
+		if (commandLine.shouldHelp()) {
+			commandLine.showHelp();
+			return;
+		}
+		if (commandLine.shouldList()) {
+			new Runner(commandLine).list();
+			return;
+		}
+
+		new Runner(new OptionsBuilder()
+				.parent(commandLine)
+				.addProfiler(GCProfiler.class)
+				.build())
+				.run();
+	}
+}
@@ -0,0 +1,266 @@
+package com.feng.calendar.benchmark;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.feng.calendar.engine.CalendarEngine;
+import com.feng.calendar.engine.RecurrenceExpander;
+import com.feng.calendar.engine.WorkDayIndex;
+import com.feng.calendar.model.cache.HolidayYear;
+import com.feng.calendar.model.entity.BusinessCalendar;
+import com.feng.calendar.model.entity.BusinessCalendarRule;
+import com.feng.calendar.model.entity.Country;
+import com.feng.calendar.model.entity.Holiday;
+import com.feng.calendar.model.entity.WeekendDefinition;
+import com.feng.calendar.model.enums.BusinessRuleType;
+import com.feng.calendar.model.enums.HolidayType;
+import com.feng.calendar.repository.BusinessCalendarRepository;
+import com.feng.calendar.repository.BusinessCalendarRuleRepository;
+import com.feng.calendar.repository.CountryRepository;
+import com.feng.calendar.repository.HolidayRepository;
+import com.feng.calendar.service.BusinessCalendarService;
+import com.feng.calendar.service.BusinessDateClock;
+import com.feng.calendar.service.CalendarService;
+import com.feng.calendar.service.CountryRegistry;
+import com.feng.calendar.service.DateTypeChecker;
+import com.feng.calendar.service.ExternalHolidayClient;
+import com.feng.calendar.service.HolidayResolver;
+import com.feng.calendar.service.PipelineMetrics;
+import com.feng.calendar.service.WeekendChecker;
+import com.feng.calendar.service.WorkDateFinder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * The calendar services wired as in the application, on in-memory repositories and
+ * an in-memory Redis, with holidays stored for every year from {@link #FIRST_YEAR} to
+ * {@link #LAST_YEAR} so every year compiles and nothing reaches the external APIs.
+ *
+ * <ul>
+ * <li>US: Saturday/Sunday weekends and a handful of single-day holidays</li>
+ * <li>CN: Saturday/Sunday weekends, a Spring Festival week and a National Day golden
+ * week, which with the weekends around them make long non-work stretches</li>
+ * <li>business calendar {@value #SHUTDOWN_CALENDAR} on US: an active calendar closing
+ * from December 20 to January 3 every year</li>
+ * </ul>
+ *
+ * Transactions, caching proxies and scheduling are not applied, so the numbers are
+ * those of the calendar code itself.
+ */
+@State(Scope.Benchmark)
+public class CalendarFixture {
+
+	public static final int FIRST_YEAR = 2000;
+
+	public static final int LAST_YEAR = 2099;
+
+	public static final String SHUTDOWN_CALENDAR = "1";
+
+	private AnnotationConfigApplicationContext context;
+
+	private CalendarService calendarService;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = new AnnotationConfigApplicationContext();
+		// Resolves @Value defaults such as PT10M the way the application does
+		context.getBeanFactory()
+				.setConversionService(ApplicationConversionService.getSharedInstance());
+		context.register(InMemoryBackend.class, CountryRegistry.class,
+				WeekendChecker.class, RecurrenceExpander.class,
+				ExternalHolidayClient.class, HolidayResolver.class,
+				BusinessCalendarService.class, CalendarEngine.class, WorkDayIndex.class,
+				PipelineMetrics.class, DateTypeChecker.class, WorkDateFinder.class,
+				BusinessDateClock.class, CalendarService.class);
+		context.refresh();
+
+		calendarService = context.getBean(CalendarService.class);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	public CalendarService calendarService() {
+		return calendarService;
+	}
+
+	/**
+	 * Every day of a range of years, in order
+	 */
+	public static List<LocalDate> datesOf(int fromYear, int toYear) {
+		List<LocalDate> dates = new ArrayList<>();
+		for (LocalDate date = LocalDate.of(fromYear, 1, 1);
+				date.getYear() <= toYear; date = date.plusDays(1)) {
+			dates.add(date);
+		}
+		return dates;
+	}
+
+	static InMemoryRepositories calendarData() {
+		InMemoryRepositories repositories = new InMemoryRepositories();
+
+		Country us = country(1L, "US", "United States", "America/New_York");
+		Country cn = country(2L, "CN", "China", "Asia/Shanghai");
+		repositories.addCountry(us);
+		repositories.addCountry(cn);
+
+		for (int year = FIRST_YEAR; year <= LAST_YEAR; year++) {
+			holiday(repositories, us, LocalDate.of(year, 1, 1), "New Year's Day");
+			holiday(repositories, us, LocalDate.of(year, 7, 4), "Independence Day");
+			holiday(repositories, us, LocalDate.of(year, 11, 1).plusDays(
+					(11 - LocalDate.of(year, 11, 1).getDayOfWeek().getValue()) % 7 + 21),
+					"Thanksgiving Day");
+			holiday(repositories, us, LocalDate.of(year, 12, 25), "Christmas Day");
+
+			holiday(repositories, cn, LocalDate.of(year, 1, 1), "New Year's Day");
+			for (int day = 0; day < 7; day++) {
+				holiday(repositories, cn, LocalDate.of(year, 2, 10).plusDays(day),
+						"Spring Festival");
+				holiday(repositories, cn, LocalDate.of(year, 10, 1).plusDays(day),
+						"National Day");
+			}
+		}
+
+		BusinessCalendar shutdown = new BusinessCalendar();
+		shutdown.setId(Long.valueOf(SHUTDOWN_CALENDAR));
+		shutdown.setName("Year-end shutdown");
+		shutdown.setOrganizationId("benchmark");
+		shutdown.setCountry(us);
+		shutdown.setIsActive(true);
+		repositories.addBusinessCalendar(shutdown);
+		long ruleId = 1;
+		for (int year = FIRST_YEAR; year <= LAST_YEAR; year++) {
+			LocalDate end = LocalDate.of(year + 1, 1, 3);
+			for (LocalDate date = LocalDate.of(year, 12, 20); !date.isAfter(end);
+					date = date.plusDays(1)) {
+				BusinessCalendarRule rule = new BusinessCalendarRule();
+				rule.setId(ruleId++);
+				rule.setBusinessCalendar(shutdown);
+				rule.setRuleType(BusinessRuleType.NON_WORK_DAY);
+				rule.setDate(date);
+				rule.setDescription("Year-end shutdown");
+				repositories.addRule(rule);
+			}
+		}
+		return repositories;
+	}
+
+	private static Country country(Long id, String code, String name, String timezone) {
+		Country country = new Country();
+		country.setId(id);
+		country.setCode(code);
+		country.setName(name);
+		country.setTimezoneDefault(timezone);
+		List<WeekendDefinition> weekendDefinitions = new ArrayList<>();
+		for (int dayOfWeek = 6; dayOfWeek <= 7; dayOfWeek++) {
+			WeekendDefinition definition = new WeekendDefinition();
+			definition.setCountry(country);
+			definition.setDayOfWeek(dayOfWeek);
+			definition.setIsWeekend(true);
+			weekendDefinitions.add(definition);
+		}
+		country.setWeekendDefinitions(weekendDefinitions);
+		return country;
+	}
+
+	private static void holiday(InMemoryRepositories repositories, Country country,
+			LocalDate date, String name) {
+		Holiday holiday = new Holiday();
+		holiday.setCountry(country);
+		holiday.setDate(date);
+		holiday.setName(name);
+		holiday.setHolidayType(HolidayType.NATIONAL);
+		repositories.addHoliday(holiday);
+	}
+
+	/**
+	 * The beans the services expect from infrastructure, backed by memory
+	 */
+	@Configuration
+	static class InMemoryBackend {
+
+		private final InMemoryRepositories repositories = calendarData();
+
+		private final InMemoryRedis redis = new InMemoryRedis();
+
+		@Bean
+		CountryRepository countryRepository() {
+			return repositories.countryRepository();
+		}
+
+		@Bean
+		HolidayRepository holidayRepository() {
+			return repositories.holidayRepository();
+		}
+
+		@Bean
+		BusinessCalendarRepository businessCalendarRepository() {
+			return repositories.businessCalendarRepository();
+		}
+
+		@Bean
+		BusinessCalendarRuleRepository businessCalendarRuleRepository() {
+			return repositories.businessCalendarRuleRepository();
+		}
+
+		@Bean
+		RedisTemplate<String, HolidayYear> holidayYearRedisTemplate() {
+			return redis.holidayYearRedisTemplate();
+		}
+
+		@Bean
+		StringRedisTemplate stringRedisTemplate() {
+			return redis.stringRedisTemplate();
+		}
+
+		@Bean
+		MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+
+		// Only needed to construct ExternalHolidayClient, which is never called
+		@Bean
+		WebClient.Builder webClientBuilder() {
+			return WebClient.builder();
+		}
+
+		@Bean
+		PlatformTransactionManager transactionManager() {
+			return new PlatformTransactionManager() {
+				@Override
+				public TransactionStatus getTransaction(
+						TransactionDefinition definition) {
+					return new SimpleTransactionStatus();
+				}
+
+				@Override
+				public void commit(TransactionStatus status) {
+				}
+
+				@Override
+				public void rollback(TransactionStatus status) {
+				}
+			};
+		}
+	}
+}
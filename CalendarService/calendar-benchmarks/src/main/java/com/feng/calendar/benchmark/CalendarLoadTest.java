@@ -0,0 +1,241 @@
+package com.feng.calendar.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Closed-loop HTTP load test of running calendar services, to compare execution modes
+ * at high concurrency. Each target is loaded in turn by the same number of client
+ * threads, each sending its next request as soon as the previous one is answered, first
+ * for a warm-up and then for the measured duration:
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.feng.calendar.benchmark.CalendarLoadTest \
+ *     --concurrency 2000 --duration PT60S \
+ *     platform=http://localhost:8080 virtual=http://localhost:8081
+ * </pre>
+ *
+ * Requests cycle through date-type, next-work-date and business-days-between for
+ * random dates of the configured years and countries, without If-None-Match, so every
+ * one is computed. Throughput counts answered requests; 503s from the concurrency limit
+ * and failures are reported apart. Latencies are measured from send to response, so a
+ * closed loop hides the time requests would have queued behind a stall: compare the
+ * modes at the same concurrency.
+ */
+public final class CalendarLoadTest {
+
+	private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+	private final int concurrency;
+
+	private final Duration warmUp;
+
+	private final Duration duration;
+
+	private final int fromYear;
+
+	private final int toYear;
+
+	private final List<String> countries;
+
+	private CalendarLoadTest(int concurrency, Duration warmUp, Duration duration,
+			int fromYear, int toYear, List<String> countries) {
+		this.concurrency = concurrency;
+		this.warmUp = warmUp;
+		this.duration = duration;
+		this.fromYear = fromYear;
+		this.toYear = toYear;
+		this.countries = countries;
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		Map<String, String> options = new LinkedHashMap<>(Map.of(
+				"concurrency", "1000",
+				"warm-up", "PT15S",
+				"duration", "PT60S",
+				"years", "2015-2035",
+				"countries", "US"));
+		Map<String, URI> targets = new LinkedHashMap<>();
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].startsWith("--") && i + 1 < args.length) {
+				options.put(args[i].substring(2), args[++i]);
+			}
+			else if (args[i].contains("=")) {
+				String[] target = args[i].split("=", 2);
+				targets.put(target[0], URI.create(target[1]));
+			}
+			else {
+				usage();
+			}
+		}
+		if (targets.isEmpty()) {
+			usage();
+		}
+
+		String[] years = options.get("years").split("-");
+		CalendarLoadTest loadTest = new CalendarLoadTest(
+				Integer.parseInt(options.get("concurrency")),
+				Duration.parse(options.get("warm-up")),
+				Duration.parse(options.get("duration")),
+				Integer.parseInt(years[0]), Integer.parseInt(years[years.length - 1]),
+				List.of(options.get("countries").split(",")));
+
+		List<String> report = new ArrayList<>();
+		report.add(String.format("%-12s %10s %12s %9s %9s %9s %9s %8s %8s", "target",
+				"requests", "requests/s", "p50 ms", "p90 ms", "p99 ms", "max ms",
+				"503s", "errors"));
+		for (Map.Entry<String, URI> target : targets.entrySet()) {
+			System.out.printf("Loading %s (%s) with %d clients%n", target.getKey(),
+					target.getValue(), loadTest.concurrency);
+			report.add(loadTest.run(target.getKey(), target.getValue()));
+		}
+		System.out.println();
+		report.forEach(System.out::println);
+	}
+
+	private static void usage() {
+		System.err.println("Usage: CalendarLoadTest [--concurrency N] " +
+				"[--warm-up PT15S] [--duration PT60S] [--years 2015-2035] " +
+				"[--countries US,GB] label=baseUrl...");
+		System.exit(1);
+	}
+
+	private String run(String label, URI baseUrl) throws InterruptedException {
+		HttpClient client = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_1_1)
+				.connectTimeout(Duration.ofSeconds(10))
+				.build();
+
+		load(client, baseUrl, warmUp);
+		long start = System.nanoTime();
+		List<Worker> workers = load(client, baseUrl, duration);
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		long[] latencies = workers.stream()
+				.flatMapToLong(worker ->
+						Arrays.stream(worker.latencies, 0, worker.answered))
+				.sorted()
+				.toArray();
+		long rejected = workers.stream().mapToLong(worker -> worker.rejected).sum();
+		long errors = workers.stream().mapToLong(worker -> worker.errors).sum();
+		return String.format("%-12s %10d %12.0f %9.1f %9.1f %9.1f %9.1f %8d %8d", label,
+				latencies.length, latencies.length / seconds, percentile(latencies, 0.50),
+				percentile(latencies, 0.90), percentile(latencies, 0.99),
+				percentile(latencies, 1.0), rejected, errors);
+	}
+
+	private List<Worker> load(HttpClient client, URI baseUrl, Duration period)
+			throws InterruptedException {
+		long deadline = System.nanoTime() + period.toNanos();
+		List<Worker> workers = new ArrayList<>(concurrency);
+		List<Thread> threads = new ArrayList<>(concurrency);
+		for (int i = 0; i < concurrency; i++) {
+			Worker worker = new Worker(client, baseUrl, deadline);
+			Thread thread = new Thread(worker, "load-" + i);
+			thread.setDaemon(true);
+			thread.start();
+			workers.add(worker);
+			threads.add(thread);
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		return workers;
+	}
+
+	private URI nextRequest(URI baseUrl, ThreadLocalRandom random) {
+		LocalDate date = LocalDate.of(random.nextInt(fromYear, toYear + 1), 1, 1)
+				.plusDays(random.nextInt(365));
+		String country = countries.get(random.nextInt(countries.size()));
+		String path = switch (random.nextInt(3)) {
+			case 0 -> "/api/v1/calendar/date-type?date=" + date;
+			case 1 -> "/api/v1/calendar/next-work-date?fromDate=" + date;
+			default -> "/api/v1/calendar/business-days-between?fromDate=" + date +
+					"&toDate=" + date.plusDays(random.nextInt(1, 60));
+		};
+		return baseUrl.resolve(path + "&country=" + country);
+	}
+
+	private static double percentile(long[] sortedNanos, double percentile) {
+		if (sortedNanos.length == 0) {
+			return Double.NaN;
+		}
+		int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+		return sortedNanos[Math.max(index, 0)] / 1e6;
+	}
+
+	/**
+	 * One client thread, sending requests back to back until the deadline
+	 */
+	private final class Worker implements Runnable {
+
+		private final HttpClient client;
+
+		private final URI baseUrl;
+
+		private final long deadline;
+
+		private long[] latencies = new long[1024];
+
+		private int answered;
+
+		private long rejected;
+
+		private long errors;
+
+		private Worker(HttpClient client, URI baseUrl, long deadline) {
+			this.client = client;
+			this.baseUrl = baseUrl;
+			this.deadline = deadline;
+		}
+
+		@Override
+		public void run() {
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			while (System.nanoTime() < deadline) {
+				HttpRequest request = HttpRequest.newBuilder(nextRequest(baseUrl, random))
+						.timeout(REQUEST_TIMEOUT)
+						.GET()
+						.build();
+				long start = System.nanoTime();
+				try {
+					int status = client.send(request,
+							HttpResponse.BodyHandlers.discarding()).statusCode();
+					if (status == 503) {
+						rejected++;
+					}
+					else if (status >= 400) {
+						errors++;
+					}
+					else {
+						record(System.nanoTime() - start);
+					}
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+				catch (Exception e) {
+					errors++;
+				}
+			}
+		}
+
+		private void record(long nanos) {
+			if (answered == latencies.length) {
+				latencies = Arrays.copyOf(latencies, answered * 2);
+			}
+			latencies[answered++] = nanos;
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package com.feng.calendar.benchmark;
+
+import java.time.LocalDate;
+import java.time.format.TextStyle;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import com.feng.calendar.engine.CalendarYear;
+import com.feng.calendar.model.dto.DateTypeResponse;
+import com.feng.calendar.service.DateTypeChecker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Per-date cost of assembling a DateTypeResponse.
+ *
+ * Run with the GC profiler and compare gc.alloc.rate.norm (bytes per date):
+ * legacyMetadata is the metadata assembly the checker used before, resolving the
+ * day name per call; the other two use the compiled calendar with and without
+ * metadata. The second weekend lookup the old path made through the cache proxy
+ * (and Redis) is not reproduced here, so the real saving is larger.
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar DateTypeCheckerBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateTypeCheckerBenchmark {
+
+	private DateTypeChecker dateTypeChecker;
+
+	private CalendarYear calendarYear;
+
+	private LocalDate[] dates;
+
+	private int next;
+
+	@Setup
+	public void setUp() {
+		// The compiled path never touches the lookup chain
+		dateTypeChecker = new DateTypeChecker(null, null, null, null, null);
+		calendarYear = CalendarYear.builder(2024, CalendarYear.weekendMask(6, 7))
+				.holiday(LocalDate.of(2024, 1, 1), "New Year's Day")
+				.holiday(LocalDate.of(2024, 7, 4), "Independence Day")
+				.holiday(LocalDate.of(2024, 12, 25), "Christmas Day")
+				.build();
+		dates = new LocalDate[calendarYear.length()];
+		for (int i = 0; i < dates.length; i++) {
+			dates[i] = LocalDate.ofYearDay(2024, i + 1);
+		}
+	}
+
+	private LocalDate nextDate() {
+		LocalDate date = dates[next];
+		next = next + 1 == dates.length ? 0 : next + 1;
+		return date;
+	}
+
+	@Benchmark
+	public DateTypeResponse.DateMetadata legacyMetadata() {
+		LocalDate date = nextDate();
+		return DateTypeResponse.DateMetadata.builder()
+				.dayOfWeek(date.getDayOfWeek().getDisplayName(TextStyle.FULL,
+						Locale.ENGLISH))
+				.weekNumber(date.getDayOfYear() / 7 + 1)
+				.isWeekend(calendarYear.isWeekend(date))
+				.build();
+	}
+
+	@Benchmark
+	public DateTypeResponse checkWithMetadata() {
+		return dateTypeChecker.checkDateType(nextDate(), calendarYear, "US", true);
+	}
+
+	@Benchmark
+	public DateTypeResponse checkWithoutMetadata() {
+		return dateTypeChecker.checkDateType(nextDate(), calendarYear, "US", false);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(DateTypeCheckerBenchmark.class.getSimpleName())
+				.addProfiler("gc")
+				.build();
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,127 @@
+package com.feng.calendar.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.feng.calendar.model.cache.HolidayYear;
+
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+/**
+ * In-memory stand-in for Redis, covering the key and value operations the holiday
+ * cache uses: GET, MGET, SET, SETNX, GETSET, GETDEL, MSET, INCR/DECR, DEL and
+ * pipelined writes. Expiry is ignored, as no benchmark outlives the cache TTL. Values
+ * are kept as objects, so the wire format is not measured here; CacheSerializerBenchmark
+ * covers that. The templates have no connection factory: nothing ever reaches a server.
+ */
+final class InMemoryRedis {
+
+	private final Map<String, Object> values = new ConcurrentHashMap<>();
+
+	RedisTemplate<String, HolidayYear> holidayYearRedisTemplate() {
+		ValueOperations<String, HolidayYear> operations = valueOperations();
+		return new RedisTemplate<>() {
+			@Override
+			public void afterPropertiesSet() {
+				// No connection factory to check
+			}
+
+			@Override
+			public ValueOperations<String, HolidayYear> opsForValue() {
+				return operations;
+			}
+
+			@Override
+			public List<Object> executePipelined(SessionCallback<?> session) {
+				session.execute(this);
+				return List.of();
+			}
+
+			@Override
+			public Boolean delete(String key) {
+				return values.remove(key) != null;
+			}
+
+			@Override
+			public Long delete(Collection<String> keys) {
+				return keys.stream().filter(key -> values.remove(key) != null).count();
+			}
+		};
+	}
+
+	StringRedisTemplate stringRedisTemplate() {
+		ValueOperations<String, String> operations = valueOperations();
+		return new StringRedisTemplate() {
+			@Override
+			public void afterPropertiesSet() {
+				// No connection factory to check
+			}
+
+			@Override
+			public ValueOperations<String, String> opsForValue() {
+				return operations;
+			}
+		};
+	}
+
+	@SuppressWarnings("unchecked")
+	private <V> ValueOperations<String, V> valueOperations() {
+		return (ValueOperations<String, V>) Proxy.newProxyInstance(
+				ValueOperations.class.getClassLoader(),
+				new Class<?>[]{ValueOperations.class},
+				(proxy, method, args) -> switch (method.getName()) {
+					case "get" -> values.get(args[0]);
+					case "multiGet" -> ((Collection<?>) args[0]).stream()
+							.map(values::get)
+							.toList();
+					case "set" -> {
+						values.put((String) args[0], args[1]);
+						yield null;
+					}
+					case "setIfAbsent" ->
+							values.putIfAbsent((String) args[0], args[1]) == null;
+					case "setIfPresent" ->
+							values.replace((String) args[0], args[1]) != null;
+					case "getAndSet" -> values.put((String) args[0], args[1]);
+					case "getAndDelete" -> values.remove(args[0]);
+					case "multiSet" -> {
+						values.putAll((Map<String, ?>) args[0]);
+						yield null;
+					}
+					case "increment" -> add((String) args[0], delta(args, 1));
+					case "decrement" -> add((String) args[0], -delta(args, 1));
+					case "size" -> {
+						Object value = values.get(args[0]);
+						yield value instanceof String string ?
+								(long) string.length() : 0L;
+					}
+					case "toString" -> "InMemoryValueOperations";
+					case "hashCode" -> System.identityHashCode(proxy);
+					case "equals" -> proxy == args[0];
+					// Bit, range and float operations: not used by the calendar services
+					default -> throw new IllegalStateException("ValueOperations." +
+							method.getName() + " is not modelled in memory");
+				});
+	}
+
+	private static long delta(Object[] args, long defaultDelta) {
+		if (args.length == 1) {
+			return defaultDelta;
+		}
+		if (!(args[1] instanceof Long delta)) {
+			throw new IllegalStateException("Floating point counters are not modelled");
+		}
+		return delta;
+	}
+
+	private Long add(String key, long delta) {
+		return Long.valueOf((String) values.compute(key, (k, value) -> String.valueOf(
+				(value == null ? 0 : Long.parseLong((String) value)) + delta)));
+	}
+}
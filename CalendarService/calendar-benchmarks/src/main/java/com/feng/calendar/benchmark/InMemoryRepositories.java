@@ -0,0 +1,124 @@
+package com.feng.calendar.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import com.feng.calendar.model.entity.BusinessCalendar;
+import com.feng.calendar.model.entity.BusinessCalendarRule;
+import com.feng.calendar.model.entity.Country;
+import com.feng.calendar.model.entity.Holiday;
+import com.feng.calendar.repository.BusinessCalendarRepository;
+import com.feng.calendar.repository.BusinessCalendarRuleRepository;
+import com.feng.calendar.repository.CountryRepository;
+import com.feng.calendar.repository.HolidayRepository;
+
+/**
+ * In-memory stand-ins for the JPA repositories, answering the queries the calendar
+ * hot paths make from plain lists. Any other repository method throws, so a benchmark
+ * that starts depending on one fails loudly instead of measuring a stub.
+ */
+final class InMemoryRepositories {
+
+	private final List<Country> countries = new ArrayList<>();
+
+	private final List<Holiday> holidays = new ArrayList<>();
+
+	private final List<BusinessCalendar> businessCalendars = new ArrayList<>();
+
+	private final List<BusinessCalendarRule> rules = new ArrayList<>();
+
+	void addCountry(Country country) {
+		countries.add(country);
+	}
+
+	void addHoliday(Holiday holiday) {
+		holidays.add(holiday);
+	}
+
+	void addBusinessCalendar(BusinessCalendar businessCalendar) {
+		businessCalendars.add(businessCalendar);
+	}
+
+	void addRule(BusinessCalendarRule rule) {
+		rules.add(rule);
+	}
+
+	CountryRepository countryRepository() {
+		return repository(CountryRepository.class, Map.of(
+				"findAll", args -> List.copyOf(countries),
+				"findAllWithWeekendDefinitions", args -> List.copyOf(countries),
+				"findByCode", args -> countries.stream()
+						.filter(country -> country.getCode().equals(args[0]))
+						.findFirst()));
+	}
+
+	HolidayRepository holidayRepository() {
+		return repository(HolidayRepository.class, Map.of(
+				"findByCountryCodeAndDateRange", args -> holidays.stream()
+						.filter(holiday -> holiday.getCountry().getCode().equals(args[0]))
+						.filter(between(Holiday::getDate, args[1], args[2]))
+						.toList(),
+				"findRecurringHolidaysByCountryCode", args -> holidays.stream()
+						.filter(holiday -> holiday.getCountry().getCode().equals(args[0]))
+						.filter(holiday -> Boolean.TRUE.equals(holiday.getIsRecurring()))
+						.toList()));
+	}
+
+	BusinessCalendarRepository businessCalendarRepository() {
+		Function<Object[], Object> findById = args -> businessCalendars.stream()
+				.filter(calendar -> calendar.getId().equals(args[0]))
+				.findFirst();
+		return repository(BusinessCalendarRepository.class, Map.of(
+				"findById", findById,
+				"findByIdWithRules", findById));
+	}
+
+	BusinessCalendarRuleRepository businessCalendarRuleRepository() {
+		return repository(BusinessCalendarRuleRepository.class, Map.of(
+				"findByCalendarIdAndDateRange", args -> activeRules(args[0])
+						.filter(rule -> rule.getDate() != null)
+						.filter(between(BusinessCalendarRule::getDate, args[1], args[2]))
+						.toList(),
+				"findActiveByCalendarId", args -> activeRules(args[0]).toList(),
+				"findRecurringByCalendarId", args -> activeRules(args[0])
+						.filter(rule -> rule.getRecurrenceRule() != null)
+						.toList()));
+	}
+
+	private Stream<BusinessCalendarRule> activeRules(Object calendarId) {
+		return rules.stream()
+				.filter(rule -> rule.getBusinessCalendar().getId().equals(calendarId))
+				.filter(rule -> Boolean.TRUE.equals(rule.getIsActive()));
+	}
+
+	private static <T> Predicate<T> between(Function<T, LocalDate> date, Object from,
+			Object to) {
+		return item -> !date.apply(item).isBefore((LocalDate) from) &&
+				!date.apply(item).isAfter((LocalDate) to);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T repository(Class<T> type,
+			Map<String, Function<Object[], Object>> queries) {
+		return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+				(proxy, method, args) -> {
+					Function<Object[], Object> query = queries.get(method.getName());
+					if (query != null) {
+						return query.apply(args);
+					}
+					return switch (method.getName()) {
+						case "toString" -> "InMemory" + type.getSimpleName();
+						case "hashCode" -> System.identityHashCode(proxy);
+						case "equals" -> proxy == args[0];
+						default -> throw new UnsupportedOperationException(
+								type.getSimpleName() + "." + method.getName());
+					};
+				});
+	}
+}
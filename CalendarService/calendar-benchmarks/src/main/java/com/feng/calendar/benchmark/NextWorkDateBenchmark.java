@@ -0,0 +1,80 @@
+package com.feng.calendar.benchmark;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import com.feng.calendar.model.dto.WorkDateResponse;
+import com.feng.calendar.service.CalendarService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Next work date from the day before a long non-work stretch: the CN holiday weeks
+ * with their weekends (a week and more), and the two-week year-end shutdown of a US
+ * business calendar. Listing the skipped dates costs a check per skipped day, so it is
+ * measured both ways.
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar NextWorkDateBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NextWorkDateBenchmark {
+
+	@Param({"true", "false"})
+	public boolean includeSkippedDates;
+
+	private CalendarService calendarService;
+
+	private LocalDate[] holidayWeeks;
+
+	private LocalDate[] shutdowns;
+
+	private int next;
+
+	@Setup
+	public void setUp(CalendarFixture fixture) {
+		calendarService = fixture.calendarService();
+		holidayWeeks = new LocalDate[20];
+		shutdowns = new LocalDate[20];
+		for (int i = 0; i < 10; i++) {
+			holidayWeeks[2 * i] = LocalDate.of(2020 + i, 2, 9);
+			holidayWeeks[2 * i + 1] = LocalDate.of(2020 + i, 9, 30);
+		}
+		for (int i = 0; i < 20; i++) {
+			shutdowns[i] = LocalDate.of(2010 + i, 12, 19);
+		}
+	}
+
+	private int nextIndex() {
+		int index = next;
+		next = next + 1 == holidayWeeks.length ? 0 : next + 1;
+		return index;
+	}
+
+	@Benchmark
+	public WorkDateResponse holidayWeeks() {
+		return calendarService.findNextWorkDate(holidayWeeks[nextIndex()], "CN", null,
+				true, includeSkippedDates);
+	}
+
+	@Benchmark
+	public WorkDateResponse yearEndShutdown() {
+		return calendarService.findNextWorkDate(shutdowns[nextIndex()], "US",
+				CalendarFixture.SHUTDOWN_CALENDAR, true, includeSkippedDates);
+	}
+}
@@ -0,0 +1,65 @@
+package com.feng.calendar.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import com.feng.calendar.service.PipelineMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of the date-type pipeline metrics per call: counting a compiled-path check,
+ * which every single-date request pays, and timing a lookup stage, which only the
+ * I/O-bound stages pay. "noop" denies every meter, the floor the instrumentation is
+ * compared with; run with several threads to see contention on shared meters.
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar PipelineMetricsBenchmark -t 4
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(1)
+public class PipelineMetricsBenchmark {
+
+	@Param({"simple", "noop"})
+	public String registry;
+
+	private PipelineMetrics pipelineMetrics;
+
+	@Setup
+	public void setUp() {
+		MeterRegistry meterRegistry = new SimpleMeterRegistry();
+		if (registry.equals("noop")) {
+			meterRegistry.config().meterFilter(MeterFilter.deny());
+		}
+		pipelineMetrics = new PipelineMetrics(meterRegistry);
+	}
+
+	@Benchmark
+	public void countCompiledCheck() {
+		pipelineMetrics.countCompiledCheck("US");
+	}
+
+	@Benchmark
+	public void recordStage() {
+		pipelineMetrics.recordStage("redis", "US", PipelineMetrics.HIT,
+				pipelineMetrics.start());
+	}
+}
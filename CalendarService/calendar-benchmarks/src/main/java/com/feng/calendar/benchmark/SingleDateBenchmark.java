@@ -0,0 +1,64 @@
+package com.feng.calendar.benchmark;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import com.feng.calendar.model.dto.DateTypeResponse;
+import com.feng.calendar.service.CalendarService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Single-date checks through CalendarService, cycling through every day of ten years:
+ * the country registry lookup, the compiled year (with and without a business calendar
+ * overlay) and the response with its metadata.
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar SingleDateBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SingleDateBenchmark {
+
+	private CalendarService calendarService;
+
+	private LocalDate[] dates;
+
+	private int next;
+
+	@Setup
+	public void setUp(CalendarFixture fixture) {
+		calendarService = fixture.calendarService();
+		dates = CalendarFixture.datesOf(2020, 2029).toArray(LocalDate[]::new);
+	}
+
+	private LocalDate nextDate() {
+		LocalDate date = dates[next];
+		next = next + 1 == dates.length ? 0 : next + 1;
+		return date;
+	}
+
+	@Benchmark
+	public DateTypeResponse countryCalendar() {
+		return calendarService.checkDateType(nextDate(), "US", null);
+	}
+
+	@Benchmark
+	public DateTypeResponse businessCalendar() {
+		return calendarService.checkDateType(nextDate(), "US",
+				CalendarFixture.SHUTDOWN_CALENDAR);
+	}
+}
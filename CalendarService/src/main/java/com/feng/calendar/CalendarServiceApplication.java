@@ -2,10 +2,8 @@ package com.feng.calendar;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.scheduling.annotation.EnableAsync;
-import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main application class for Calendar Service
@@ -15,10 +13,8 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
  * custom business calendars.
  */
 @SpringBootApplication
-@EnableJpaRepositories
-@EnableCaching
 @EnableAsync
-@EnableTransactionManagement
+@EnableScheduling
 public class CalendarServiceApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,86 @@
+package com.feng.calendar.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.feng.calendar.event.CalendarDataChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Keeps the in-process cache tiers of all replicas consistent.
+ *
+ * Calendar data changes are published on a Redis channel; when another replica's
+ * message arrives, its change is re-published as a remote
+ * {@link CalendarDataChangedEvent}, which is not broadcast again.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class CacheInvalidationBus implements MessageListener {
+
+	public static final String CHANNEL = "calendar:cache-invalidation";
+
+	private final String instanceId = UUID.randomUUID().toString();
+
+	private final StringRedisTemplate redisTemplate;
+
+	private final ObjectMapper objectMapper;
+
+	private final ApplicationEventPublisher eventPublisher;
+
+	/**
+	 * Tell the other replicas about a calendar data change made on this one
+	 */
+	@EventListener
+	public void onCalendarDataChanged(CalendarDataChangedEvent event) {
+		if (event.isRemote()) {
+			return;
+		}
+		publish(CacheInvalidationMessage.builder()
+				.origin(instanceId)
+				.countryCode(event.getCountryCode())
+				.businessCalendarId(event.getBusinessCalendarId())
+				.year(event.getYear())
+				.build());
+	}
+
+	@Override
+	public void onMessage(Message message, byte[] pattern) {
+		CacheInvalidationMessage invalidation;
+		try {
+			invalidation = objectMapper.readValue(message.getBody(),
+					CacheInvalidationMessage.class);
+		}
+		catch (Exception e) {
+			log.warn("Ignoring malformed cache invalidation message", e);
+			return;
+		}
+		if (instanceId.equals(invalidation.getOrigin())) {
+			return;
+		}
+
+		log.debug("Applying cache invalidation from another replica: {}", invalidation);
+		eventPublisher.publishEvent(CalendarDataChangedEvent.remote(
+				invalidation.getCountryCode(), invalidation.getBusinessCalendarId(),
+				invalidation.getYear()));
+	}
+
+	private void publish(CacheInvalidationMessage invalidation) {
+		try {
+			redisTemplate.convertAndSend(CHANNEL,
+					new String(objectMapper.writeValueAsBytes(invalidation),
+							StandardCharsets.UTF_8));
+		}
+		catch (Exception e) {
+			// Other replicas still converge through the local TTL
+			log.warn("Failed to broadcast cache invalidation {}", invalidation, e);
+		}
+	}
+}
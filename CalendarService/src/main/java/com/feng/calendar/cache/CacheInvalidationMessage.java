@@ -0,0 +1,25 @@
+package com.feng.calendar.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Invalidation broadcast between replicas over Redis pub/sub, carrying the scope of
+ * a calendar data change.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheInvalidationMessage {
+
+	private String origin;
+
+	private String countryCode;
+
+	private Long businessCalendarId;
+
+	private Integer year;
+}
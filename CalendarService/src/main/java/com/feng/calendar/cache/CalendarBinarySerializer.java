@@ -0,0 +1,182 @@
+package com.feng.calendar.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import com.feng.calendar.model.cache.HolidayYear;
+import com.feng.calendar.model.enums.HolidayType;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Compact binary serializer for calendar cache values.
+ *
+ * Every value starts with a marker byte, the schema version and a type tag, followed
+ * by the fields of the type with variable-length integers and length-prefixed UTF-8
+ * strings; enums are written as ordinals. Values written with another schema version,
+ * or in another format altogether, decode to null, so the cache reads them as misses
+ * and reloads them. Bump {@link #SCHEMA_VERSION} whenever a layout or an enum changes.
+ */
+@Slf4j
+public class CalendarBinarySerializer implements RedisSerializer<Object> {
+
+	static final byte MARKER = (byte) 0xCA;
+
+	static final byte SCHEMA_VERSION = 1;
+
+	private static final byte HOLIDAY_YEAR = 1;
+
+	private static final HolidayType[] HOLIDAY_TYPES = HolidayType.values();
+
+	/**
+	 * View of this serializer for a single value type; anything else decodes to null
+	 */
+	public <T> RedisSerializer<T> forType(Class<T> type) {
+		return new RedisSerializer<>() {
+			@Override
+			public byte[] serialize(T value) {
+				return CalendarBinarySerializer.this.serialize(value);
+			}
+
+			@Override
+			public T deserialize(byte[] bytes) {
+				Object value = CalendarBinarySerializer.this.deserialize(bytes);
+				return type.isInstance(value) ? type.cast(value) : null;
+			}
+		};
+	}
+
+	@Override
+	public byte[] serialize(Object value) {
+		if (value == null) {
+			return null;
+		}
+		if (!(value instanceof HolidayYear holidayYear)) {
+			throw new SerializationException(
+					"Cannot serialize " + value.getClass().getName());
+		}
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeByte(MARKER);
+			out.writeByte(SCHEMA_VERSION);
+			out.writeByte(HOLIDAY_YEAR);
+			writeHolidayYear(out, holidayYear);
+		}
+		catch (IOException e) {
+			throw new SerializationException("Cannot serialize " + value, e);
+		}
+		return bytes.toByteArray();
+	}
+
+	@Override
+	public Object deserialize(byte[] bytes) {
+		if (bytes == null || bytes.length == 0) {
+			return null;
+		}
+		if (bytes[0] != MARKER) {
+			return null;
+		}
+		if (bytes.length < 3 || bytes[1] != SCHEMA_VERSION) {
+			log.debug("Ignoring cache value of schema version {}",
+					bytes.length > 1 ? bytes[1] : null);
+			return null;
+		}
+
+		try (DataInputStream in = new DataInputStream(
+				new ByteArrayInputStream(bytes, 3, bytes.length - 3))) {
+			return bytes[2] == HOLIDAY_YEAR ? readHolidayYear(in) : null;
+		}
+		catch (IOException | RuntimeException e) {
+			log.warn("Ignoring unreadable cache value: {}", e.toString());
+			return null;
+		}
+	}
+
+	private static void writeHolidayYear(DataOutputStream out, HolidayYear holidayYear)
+			throws IOException {
+		writeString(out, holidayYear.getCountryCode());
+		writeVarLong(out, holidayYear.getYear());
+		int size = holidayYear.getDays().length;
+		writeVarLong(out, size);
+		for (int i = 0; i < size; i++) {
+			writeVarLong(out, holidayYear.getDays()[i]);
+			HolidayType type = holidayYear.getTypes()[i];
+			out.writeByte(type != null ? type.ordinal() : -1);
+			writeVarLong(out, holidayYear.getIds()[i]);
+			writeString(out, holidayYear.getNames()[i]);
+		}
+	}
+
+	private static HolidayYear readHolidayYear(DataInputStream in) throws IOException {
+		String countryCode = readString(in);
+		int year = (int) readVarLong(in);
+		int size = (int) readVarLong(in);
+		short[] days = new short[size];
+		String[] names = new String[size];
+		HolidayType[] types = new HolidayType[size];
+		long[] ids = new long[size];
+		for (int i = 0; i < size; i++) {
+			days[i] = (short) readVarLong(in);
+			byte type = in.readByte();
+			types[i] = type >= 0 ? HOLIDAY_TYPES[type] : null;
+			ids[i] = readVarLong(in);
+			names[i] = readString(in);
+		}
+		return new HolidayYear(countryCode, year, days, names, types, ids);
+	}
+
+	/**
+	 * Length-prefixed UTF-8, with length + 1 written so that zero means null
+	 */
+	private static void writeString(DataOutputStream out, String value)
+			throws IOException {
+		if (value == null) {
+			writeVarLong(out, 0);
+			return;
+		}
+		byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+		writeVarLong(out, utf8.length + 1L);
+		out.write(utf8);
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		int length = (int) readVarLong(in) - 1;
+		if (length < 0) {
+			return null;
+		}
+		byte[] utf8 = new byte[length];
+		in.readFully(utf8);
+		return new String(utf8, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Unsigned LEB128: seven bits per byte, high bit set on all but the last byte
+	 */
+	private static void writeVarLong(DataOutputStream out, long value)
+			throws IOException {
+		while ((value & ~0x7FL) != 0) {
+			out.writeByte((int) (value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte((int) value);
+	}
+
+	private static long readVarLong(DataInputStream in) throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			byte b = in.readByte();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Malformed variable-length integer");
+	}
+}
@@ -0,0 +1,164 @@
+package com.feng.calendar.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.feng.calendar.event.CalendarDataChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Versions of the calendar data, shared by all replicas through Redis counters: one
+ * global, one per country and one per business calendar.
+ *
+ * A change made on this replica bumps the counter it covers before the change is
+ * broadcast, so when another replica drops its local copy the new version is already
+ * readable. Versions are used as HTTP entity tags.
+ *
+ * A missing counter starts at the current epoch millisecond rather than at zero, so a
+ * counter lost in a Redis flush or failover never repeats a version handed out before.
+ * While a bump has failed, the answers it covers get no version at all, and every read
+ * retries the bump.
+ */
+@Slf4j
+public class CalendarDataVersions {
+
+	static final String VERSION_KEY = "calendar-version";
+
+	private final StringRedisTemplate redisTemplate;
+
+	// Versions by country, or country/calendar, until a change or the local TTL
+	private final Cache<String, String> versions;
+
+	// Counters whose bump failed, until a retry succeeds
+	private final Set<String> failedBumps = ConcurrentHashMap.newKeySet();
+
+	public CalendarDataVersions(StringRedisTemplate redisTemplate, long localMaxEntries,
+			Duration localTtl) {
+		this.redisTemplate = redisTemplate;
+		this.versions = Caffeine.newBuilder()
+				.maximumSize(localMaxEntries)
+				.expireAfterWrite(localTtl)
+				.build();
+	}
+
+	/**
+	 * Version of the data the answers for a country, and optionally a business
+	 * calendar, depend on; null when it cannot be read or a change to it could not be
+	 * counted
+	 */
+	public String version(String countryCode, String businessCalendarId) {
+		String scope = businessCalendarId != null ?
+				countryCode + "/" + businessCalendarId : countryCode;
+		List<String> keys = businessCalendarId != null ?
+				List.of(VERSION_KEY, countryKey(countryCode),
+						calendarKey(businessCalendarId)) :
+				List.of(VERSION_KEY, countryKey(countryCode));
+		for (String key : keys) {
+			if (failedBumps.contains(key) && !bump(key)) {
+				return null;
+			}
+		}
+
+		String version = versions.getIfPresent(scope);
+		if (version != null) {
+			return version;
+		}
+
+		try {
+			List<String> counters = redisTemplate.opsForValue().multiGet(keys);
+			if (counters == null) {
+				return null;
+			}
+			List<String> values = new ArrayList<>(counters.size());
+			for (int i = 0; i < keys.size(); i++) {
+				String counter =
+						counters.get(i) != null ? counters.get(i) : seed(keys.get(i));
+				if (counter == null) {
+					return null;
+				}
+				values.add(counter);
+			}
+			version = countryCode + "-" + String.join(".", values);
+		}
+		catch (Exception e) {
+			log.warn("Failed to read calendar data version of {}", scope, e);
+			return null;
+		}
+		versions.put(scope, version);
+		return version;
+	}
+
+	/**
+	 * Bump the version a change made on this replica covers, then drop the local
+	 * versions it affects
+	 */
+	@EventListener
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	public void onCalendarDataChanged(CalendarDataChangedEvent event) {
+		Long calendarId = event.getBusinessCalendarId();
+		String countryCode = event.getCountryCode();
+		if (!event.isRemote()) {
+			bump(calendarId != null ? calendarKey(calendarId.toString()) :
+					countryCode != null ? countryKey(countryCode) : VERSION_KEY);
+		}
+
+		if (calendarId != null) {
+			versions.asMap().keySet().removeIf(scope -> scope.endsWith("/" + calendarId));
+		}
+		else if (countryCode != null) {
+			versions.asMap().keySet().removeIf(scope -> scope.equals(countryCode) ||
+					scope.startsWith(countryCode + "/"));
+		}
+		else {
+			versions.invalidateAll();
+		}
+	}
+
+	/**
+	 * Move a counter to a new version, starting it if it is missing; a failure is
+	 * remembered until a later bump succeeds
+	 */
+	private boolean bump(String key) {
+		try {
+			if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key,
+					String.valueOf(System.currentTimeMillis())))) {
+				redisTemplate.opsForValue().increment(key);
+			}
+			failedBumps.remove(key);
+			return true;
+		}
+		catch (Exception e) {
+			log.warn("Failed to bump calendar data version {}", key, e);
+			failedBumps.add(key);
+			return false;
+		}
+	}
+
+	/**
+	 * Start a missing counter at the current time, or read the one another replica
+	 * started first
+	 */
+	private String seed(String key) {
+		String now = String.valueOf(System.currentTimeMillis());
+		return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, now)) ?
+				now : redisTemplate.opsForValue().get(key);
+	}
+
+	private static String countryKey(String countryCode) {
+		return VERSION_KEY + ":country:" + countryCode;
+	}
+
+	private static String calendarKey(String businessCalendarId) {
+		return VERSION_KEY + ":calendar:" + businessCalendarId;
+	}
+}
@@ -6,46 +6,56 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.feng.calendar.cache.CacheInvalidationBus;
+import com.feng.calendar.cache.CalendarBinarySerializer;
+import com.feng.calendar.cache.CalendarDataVersions;
+import com.feng.calendar.model.cache.HolidayYear;
 
-import org.springframework.cache.CacheManager;
-import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.data.redis.cache.RedisCacheConfiguration;
-import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
-import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 /**
- * Configuration for caching with Redis
+ * Configuration for caching: holiday years stored in Redis in a compact binary format,
+ * calendar data versions, and the invalidation channel between replicas
  */
 @Configuration
-@EnableCaching
 public class CacheConfig {
 
+	@Value("${calendar-service.cache.local.max-entries:10000}")
+	private long localMaxEntries;
+
+	@Value("${calendar-service.cache.local.ttl:PT10M}")
+	private Duration localTtl;
+
 	@Bean
-	public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
-		// Configure ObjectMapper to handle Java 8 date/time types
-		ObjectMapper objectMapper = new ObjectMapper()
-				.registerModule(new JavaTimeModule())
-				.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+	public CacheInvalidationBus cacheInvalidationBus(StringRedisTemplate redisTemplate,
+			ObjectMapper objectMapper, ApplicationEventPublisher eventPublisher) {
+		return new CacheInvalidationBus(redisTemplate, objectMapper, eventPublisher);
+	}
 
-		RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
-				.entryTtl(Duration.ofHours(24))
-				.serializeKeysWith(
-						RedisSerializationContext.SerializationPair.fromSerializer(
-								new StringRedisSerializer()))
-				.serializeValuesWith(
-						RedisSerializationContext.SerializationPair.fromSerializer(
-								new GenericJackson2JsonRedisSerializer(objectMapper)))
-				.disableCachingNullValues();
-
-		return RedisCacheManager.builder(connectionFactory)
-				.cacheDefaults(config)
-				.build();
+	@Bean
+	public CalendarDataVersions calendarDataVersions(StringRedisTemplate redisTemplate) {
+		return new CalendarDataVersions(redisTemplate, localMaxEntries, localTtl);
+	}
+
+	@Bean
+	public RedisMessageListenerContainer cacheInvalidationListenerContainer(
+			RedisConnectionFactory connectionFactory,
+			CacheInvalidationBus cacheInvalidationBus) {
+		RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+		container.setConnectionFactory(connectionFactory);
+		container.addMessageListener(cacheInvalidationBus,
+				new ChannelTopic(CacheInvalidationBus.CHANNEL));
+		return container;
 	}
 
 	@Bean
@@ -79,4 +89,19 @@ public class CacheConfig {
 
 		return template;
 	}
+
+	@Bean
+	public RedisTemplate<String, HolidayYear> holidayYearRedisTemplate(
+			RedisConnectionFactory connectionFactory) {
+		RedisTemplate<String, HolidayYear> template = new RedisTemplate<>();
+		template.setConnectionFactory(connectionFactory);
+
+		// Binary values; years cached in an older format read as misses and are reloaded
+		template.setKeySerializer(new StringRedisSerializer());
+		template.setValueSerializer(
+				new CalendarBinarySerializer().forType(HolidayYear.class));
+		template.afterPropertiesSet();
+
+		return template;
+	}
 }
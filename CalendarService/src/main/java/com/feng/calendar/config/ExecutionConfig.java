@@ -0,0 +1,52 @@
+package com.feng.calendar.config;
+
+import java.time.Duration;
+
+import com.feng.calendar.web.CalendarBulkhead;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Execution mode of the web layer.
+ *
+ * Requests are served on Tomcat's platform threads by default. The virtual-threads
+ * profile sets spring.threads.virtual.enabled, and Tomcat then serves every request on
+ * a virtual thread of its own; that needs a Java 21 runtime, and on an older one the
+ * service fails to start rather than silently serving the profile's concurrency limits
+ * on platform threads. In both modes calendar requests pass through the
+ * {@link CalendarBulkhead}.
+ */
+@Slf4j
+@Configuration
+public class ExecutionConfig implements WebMvcConfigurer {
+
+	private final CalendarBulkhead calendarBulkhead;
+
+	public ExecutionConfig(MeterRegistry meterRegistry,
+			@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+			@Value("${calendar-service.execution.max-concurrent-requests:200}")
+			int maxConcurrentRequests,
+			@Value("${calendar-service.execution.acquire-timeout:PT1S}")
+			Duration acquireTimeout) {
+		int javaVersion = Runtime.version().feature();
+		if (virtualThreads && javaVersion < 21) {
+			throw new IllegalStateException("Virtual threads need Java 21, running on " +
+					"Java " + javaVersion);
+		}
+
+		this.calendarBulkhead = new CalendarBulkhead(meterRegistry,
+				maxConcurrentRequests, acquireTimeout);
+		log.info("Serving requests on {} threads, at most {} calendar requests at once",
+				virtualThreads ? "virtual" : "platform", maxConcurrentRequests);
+	}
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		registry.addInterceptor(calendarBulkhead).addPathPatterns("/api/v1/calendar/**");
+	}
+}
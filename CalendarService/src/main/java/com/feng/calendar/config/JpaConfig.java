@@ -0,0 +1,15 @@
+package com.feng.calendar.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+
+/**
+ * Configuration for JPA repositories, kept off the application class so that web
+ * slice tests start without a database
+ */
+@Configuration
+@EnableJpaRepositories(basePackages = "com.feng.calendar.repository")
+@EnableTransactionManagement
+public class JpaConfig {
+}
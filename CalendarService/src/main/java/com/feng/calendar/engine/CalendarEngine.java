@@ -0,0 +1,419 @@
+package com.feng.calendar.engine;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.feng.calendar.event.CalendarDataChangedEvent;
+import com.feng.calendar.model.cache.HolidayYear;
+import com.feng.calendar.model.entity.BusinessCalendarRule;
+import com.feng.calendar.repository.BusinessCalendarRuleRepository;
+import com.feng.calendar.service.BusinessCalendarService;
+import com.feng.calendar.service.CountryRegistry;
+import com.feng.calendar.service.HolidayResolver;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * In-memory calendar engine.
+ *
+ * Compiles each country-year, and each active business calendar overlay on top of
+ * it, into a {@link CalendarYear} bitmap so date checks need no I/O. A country-year
+ * is only compiled once the database holds holidays for it; until then callers fall
+ * back to the regular lookup chain, which may still consult external sources.
+ * Recurring holidays and rules are expanded into every year they cover.
+ * Compiled years are rebuilt when a {@link CalendarDataChangedEvent} is published, and
+ * are bounded like the other local tiers, so a replica that misses a change broadcast
+ * by another one recompiles within the local TTL. Every change bumps a generation of
+ * what it covers before dropping compiled years, and a year compiled from data read
+ * before a bump is dropped again once it is cached, so it cannot outlive the change.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CalendarEngine {
+
+	private final HolidayResolver holidayResolver;
+
+	private final CountryRegistry countryRegistry;
+
+	private final BusinessCalendarService businessCalendarService;
+
+	private final BusinessCalendarRuleRepository businessCalendarRuleRepository;
+
+	private final RecurrenceExpander recurrenceExpander;
+
+	@Value("${calendar-service.cache.local.max-entries:10000}")
+	private long localMaxEntries;
+
+	@Value("${calendar-service.cache.local.ttl:PT10M}")
+	private Duration localTtl;
+
+	private Cache<YearKey, Optional<CalendarYear>> countryYears;
+
+	private Cache<OverlayKey, CalendarYear> overlayYears;
+
+	// Bumped by every change before it drops compiled years
+	private final AtomicLong globalGeneration = new AtomicLong();
+
+	private final Map<String, AtomicLong> countryGenerations = new ConcurrentHashMap<>();
+
+	private final Map<Long, AtomicLong> calendarGenerations = new ConcurrentHashMap<>();
+
+	@PostConstruct
+	void initCompiledYears() {
+		countryYears = Caffeine.newBuilder()
+				.maximumSize(localMaxEntries)
+				.expireAfterWrite(localTtl)
+				.build();
+		overlayYears = Caffeine.newBuilder()
+				.maximumSize(localMaxEntries)
+				.expireAfterWrite(localTtl)
+				.build();
+	}
+
+	/**
+	 * Find the compiled calendar for a country-year, with the business calendar
+	 * overlay applied when one is given and active
+	 */
+	public Optional<CalendarYear> findYear(String countryCode, String businessCalendarId,
+			int year) {
+		Long calendarId =
+				businessCalendarId != null ? parseCalendarId(businessCalendarId) : null;
+		long overlayGeneration = generation(countryCode, calendarId);
+		Optional<CalendarYear> base = findCountryYear(new YearKey(countryCode, year));
+		if (base.isEmpty() || calendarId == null) {
+			return base;
+		}
+
+		OverlayKey key = new OverlayKey(countryCode, calendarId, year);
+		CalendarYear overlay =
+				overlayYears.get(key, overlayKey -> compileOverlay(base.get(), calendarId));
+		dropIfChanged(overlayYears, key, overlay, overlayGeneration, countryCode,
+				calendarId);
+		return Optional.of(overlay);
+	}
+
+	/**
+	 * Find the base calendar of a country-year only if it is already compiled, without
+	 * any I/O
+	 */
+	public Optional<CalendarYear> findCompiledYear(String countryCode, int year) {
+		Optional<CalendarYear> compiled =
+				countryYears.getIfPresent(new YearKey(countryCode, year));
+		return compiled != null ? compiled : Optional.empty();
+	}
+
+	/**
+	 * Find the compiled calendars of consecutive years
+	 */
+	public Map<Integer, CalendarYear> findYears(String countryCode,
+			String businessCalendarId, int fromYear, int toYear) {
+		return findYears(countryCode, businessCalendarId,
+				IntStream.rangeClosed(fromYear, toYear).boxed().toList());
+	}
+
+	/**
+	 * Find the compiled calendars of some years, compiling the missing ones from a
+	 * single holiday query and, with a business calendar, a single rule query. Only
+	 * the given years are compiled; years that cannot be are left out of the result.
+	 */
+	public Map<Integer, CalendarYear> findYears(String countryCode,
+			String businessCalendarId, Collection<Integer> years) {
+		Long calendarId =
+				businessCalendarId != null ? parseCalendarId(businessCalendarId) : null;
+		long overlayGeneration = generation(countryCode, calendarId);
+		Map<Integer, CalendarYear> bases = findCountryYears(countryCode, years);
+		if (calendarId == null || bases.isEmpty()) {
+			return bases;
+		}
+
+		Map<Integer, CalendarYear> overlays = new TreeMap<>();
+		int firstMissing = Integer.MAX_VALUE;
+		int lastMissing = Integer.MIN_VALUE;
+		for (Map.Entry<Integer, CalendarYear> base : bases.entrySet()) {
+			CalendarYear overlay = overlayYears.getIfPresent(
+					new OverlayKey(countryCode, calendarId, base.getKey()));
+			if (overlay != null) {
+				overlays.put(base.getKey(), overlay);
+			}
+			else {
+				firstMissing = Math.min(firstMissing, base.getKey());
+				lastMissing = Math.max(lastMissing, base.getKey());
+			}
+		}
+		if (firstMissing > lastMissing) {
+			return overlays;
+		}
+
+		boolean active = isActive(calendarId);
+		Map<Integer, List<BusinessCalendarRule>> rules = !active ? Map.of() :
+				businessCalendarRuleRepository.findByCalendarIdAndDateRange(calendarId,
+								LocalDate.of(firstMissing, 1, 1),
+								LocalDate.of(lastMissing, 12, 31))
+						.stream()
+						.filter(rule -> rule.getDate() != null)
+						.collect(Collectors.groupingBy(rule -> rule.getDate().getYear()));
+		for (Map.Entry<Integer, CalendarYear> base : bases.entrySet()) {
+			int year = base.getKey();
+			if (!overlays.containsKey(year)) {
+				List<BusinessCalendarRule> yearRules = !active ? List.of() :
+						recurrenceExpander.withRecurrences(calendarId, year,
+								rules.getOrDefault(year, List.of()));
+				OverlayKey key = new OverlayKey(countryCode, calendarId, year);
+				CalendarYear overlay = overlayYears.get(key,
+						overlayKey -> applyRules(base.getValue(), yearRules));
+				dropIfChanged(overlayYears, key, overlay, overlayGeneration, countryCode,
+						calendarId);
+				overlays.put(year, overlay);
+			}
+		}
+		return overlays;
+	}
+
+	/**
+	 * Rebuild whatever a calendar data change affects
+	 */
+	@EventListener
+	public void onCalendarDataChanged(CalendarDataChangedEvent event) {
+		log.debug("Refreshing compiled calendars for {}", event);
+		if (event.getBusinessCalendarId() != null) {
+			if (event.getYear() != null) {
+				refreshBusinessCalendar(event.getBusinessCalendarId(), event.getYear());
+			}
+			else {
+				refreshBusinessCalendar(event.getBusinessCalendarId());
+			}
+		}
+		else if (event.getCountryCode() == null) {
+			refreshAll();
+		}
+		else if (event.getYear() != null) {
+			refreshCountryYear(event.getCountryCode(), event.getYear());
+		}
+		else {
+			refreshCountry(event.getCountryCode());
+		}
+	}
+
+	/**
+	 * Rebuild a single country-year after its holidays changed
+	 */
+	public void refreshCountryYear(String countryCode, int year) {
+		counter(countryGenerations, countryCode).incrementAndGet();
+		YearKey key = new YearKey(countryCode, year);
+		Optional<CalendarYear> previous = countryYears.asMap().remove(key);
+		overlayYears.asMap().keySet().removeIf(overlay -> overlay.countryCode()
+				.equals(countryCode) && overlay.year() == year);
+		if (previous != null) {
+			findCountryYear(key);
+		}
+	}
+
+	/**
+	 * Drop every compiled year of a country, e.g. after its weekend definitions changed
+	 */
+	public void refreshCountry(String countryCode) {
+		counter(countryGenerations, countryCode).incrementAndGet();
+		countryYears.asMap().keySet()
+				.removeIf(key -> key.countryCode().equals(countryCode));
+		overlayYears.asMap().keySet()
+				.removeIf(key -> key.countryCode().equals(countryCode));
+	}
+
+	/**
+	 * Rebuild the overlays of a business calendar for one year after its rules changed
+	 */
+	public void refreshBusinessCalendar(Long calendarId, int year) {
+		counter(calendarGenerations, calendarId).incrementAndGet();
+		overlayYears.asMap().keySet().removeIf(key -> key.calendarId().equals(calendarId) &&
+				key.year() == year);
+	}
+
+	/**
+	 * Drop every overlay of a business calendar
+	 */
+	public void refreshBusinessCalendar(Long calendarId) {
+		counter(calendarGenerations, calendarId).incrementAndGet();
+		overlayYears.asMap().keySet()
+				.removeIf(key -> key.calendarId().equals(calendarId));
+	}
+
+	/**
+	 * Drop everything that has been compiled
+	 */
+	public void refreshAll() {
+		globalGeneration.incrementAndGet();
+		countryYears.invalidateAll();
+		overlayYears.invalidateAll();
+	}
+
+	/**
+	 * Find the compiled base calendars of some years of a country
+	 */
+	private Map<Integer, CalendarYear> findCountryYears(String countryCode,
+			Collection<Integer> wantedYears) {
+		long generation = generation(countryCode, null);
+		Map<Integer, CalendarYear> years = new TreeMap<>();
+		List<Integer> missingYears = new ArrayList<>();
+		for (int year : new TreeSet<>(wantedYears)) {
+			Optional<CalendarYear> compiled =
+					countryYears.getIfPresent(new YearKey(countryCode, year));
+			if (compiled == null) {
+				missingYears.add(year);
+			}
+			else {
+				compiled.ifPresent(calendarYear -> years.put(calendarYear.getYear(),
+						calendarYear));
+			}
+		}
+		if (missingYears.isEmpty()) {
+			return years;
+		}
+
+		Map<Integer, HolidayYear> holidayYears =
+				holidayResolver.getHolidayYears(countryCode, missingYears);
+		int weekendMask = countryRegistry.weekendMask(countryCode);
+		for (HolidayYear holidays : holidayYears.values()) {
+			YearKey key = new YearKey(countryCode, holidays.getYear());
+			Optional<CalendarYear> compiled =
+					countryYears.get(key, yearKey -> compile(yearKey, holidays, weekendMask));
+			dropIfChanged(countryYears, key, compiled, generation, countryCode, null);
+			compiled.ifPresent(calendarYear -> years.put(calendarYear.getYear(),
+					calendarYear));
+		}
+		return years;
+	}
+
+	/**
+	 * Find the compiled base calendar of a country-year, compiling it on a miss
+	 */
+	private Optional<CalendarYear> findCountryYear(YearKey key) {
+		long generation = generation(key.countryCode(), null);
+		Optional<CalendarYear> compiled = countryYears.get(key, this::compileCountryYear);
+		dropIfChanged(countryYears, key, compiled, generation, key.countryCode(), null);
+		return compiled;
+	}
+
+	/**
+	 * Drop a year cached from data read before a change: the change may have dropped
+	 * compiled years before this one was cached
+	 */
+	private <K, V> void dropIfChanged(Cache<K, V> cache, K key, V compiled,
+			long generation, String countryCode, Long calendarId) {
+		if (generation(countryCode, calendarId) != generation) {
+			log.debug("Calendar data of {} changed while compiling, dropping {}",
+					countryCode, key);
+			cache.asMap().remove(key, compiled);
+		}
+	}
+
+	/**
+	 * Generation of the data a country, and optionally a business calendar overlay,
+	 * is compiled from. Counters only grow, so their sum changes with any of them.
+	 */
+	private long generation(String countryCode, Long calendarId) {
+		long generation = globalGeneration.get() +
+				counter(countryGenerations, countryCode).get();
+		return calendarId != null ?
+				generation + counter(calendarGenerations, calendarId).get() : generation;
+	}
+
+	private static <K> AtomicLong counter(Map<K, AtomicLong> counters, K key) {
+		return counters.computeIfAbsent(key, counterKey -> new AtomicLong());
+	}
+
+	/**
+	 * Compile the base calendar of a country for one year
+	 */
+	private Optional<CalendarYear> compileCountryYear(YearKey key) {
+		return compile(key, holidayResolver.getHolidayYear(key.countryCode(), key.year()),
+				countryRegistry.weekendMask(key.countryCode()));
+	}
+
+	private Optional<CalendarYear> compile(YearKey key, HolidayYear holidays,
+			int weekendMask) {
+		if (!holidays.hasHolidays()) {
+			log.debug("No holidays stored for {} in {}, not compiling", key.countryCode(),
+					key.year());
+			return Optional.empty();
+		}
+
+		CalendarYear.Builder builder = CalendarYear.builder(key.year(), weekendMask);
+		for (int i = 0; i < holidays.size(); i++) {
+			builder.holiday(holidays.dateAt(i), holidays.nameAt(i));
+		}
+
+		log.debug("Compiled calendar for {} in {} with {} holidays", key.countryCode(),
+				key.year(), holidays.size());
+		return Optional.of(builder.build());
+	}
+
+	/**
+	 * Apply the active rules of a business calendar on top of a country-year
+	 */
+	private CalendarYear compileOverlay(CalendarYear base, Long calendarId) {
+		if (!isActive(calendarId)) {
+			return base;
+		}
+
+		List<BusinessCalendarRule> rules =
+				businessCalendarRuleRepository.findByCalendarIdAndDateRange(calendarId,
+						LocalDate.of(base.getYear(), 1, 1),
+						LocalDate.of(base.getYear(), 12, 31));
+		return applyRules(base,
+				recurrenceExpander.withRecurrences(calendarId, base.getYear(), rules));
+	}
+
+	private CalendarYear applyRules(CalendarYear base, List<BusinessCalendarRule> rules) {
+		if (rules.isEmpty()) {
+			return base;
+		}
+
+		CalendarYear.Builder builder = base.toBuilder();
+		for (BusinessCalendarRule rule : rules) {
+			if (rule.getDate() != null && !rule.isWorkDay()) {
+				builder.customNonWorkDay(rule.getDate(), rule.getDescription());
+			}
+		}
+		return builder.build();
+	}
+
+	private boolean isActive(Long calendarId) {
+		return businessCalendarService.getCompiledCalendar(calendarId.toString())
+				.isActive();
+	}
+
+	private static Long parseCalendarId(String businessCalendarId) {
+		try {
+			return Long.parseLong(businessCalendarId);
+		}
+		catch (NumberFormatException e) {
+			log.warn("Invalid business calendar ID format: {}", businessCalendarId);
+			return null;
+		}
+	}
+
+	private record YearKey(String countryCode, int year) {
+	}
+
+	private record OverlayKey(String countryCode, Long calendarId, int year) {
+	}
+}
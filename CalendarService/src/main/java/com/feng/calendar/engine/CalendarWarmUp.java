@@ -0,0 +1,122 @@
+package com.feng.calendar.engine;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.feng.calendar.model.entity.BusinessCalendar;
+import com.feng.calendar.repository.BusinessCalendarRepository;
+import com.feng.calendar.service.CountryRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Startup warm-up of the in-process calendar structures.
+ *
+ * Runs as an application runner, so it finishes before the application is marked
+ * ready and the readiness probe reports UP. Countries and their weekend days are
+ * loaded into the registry first; then, in parallel per country, the holidays of a
+ * window of years around the current one are loaded and compiled, together with the
+ * overlays of the country's active business calendars. A country that fails to warm
+ * up is left to be loaded on demand.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CalendarWarmUp implements ApplicationRunner {
+
+	private final CountryRegistry countryRegistry;
+
+	private final CalendarEngine calendarEngine;
+
+	private final BusinessCalendarRepository businessCalendarRepository;
+
+	private final MeterRegistry meterRegistry;
+
+	@Value("${calendar-service.warm-up.enabled:true}")
+	private boolean enabled;
+
+	@Value("${calendar-service.warm-up.years-back:1}")
+	private int yearsBack;
+
+	@Value("${calendar-service.warm-up.years-ahead:1}")
+	private int yearsAhead;
+
+	@Value("${calendar-service.warm-up.parallelism:4}")
+	private int parallelism;
+
+	@Override
+	public void run(ApplicationArguments args) {
+		if (enabled) {
+			warmUp();
+		}
+	}
+
+	/**
+	 * Load and compile every country, and its active business calendars, for the
+	 * configured window of years
+	 */
+	public void warmUp() {
+		long start = System.nanoTime();
+		int thisYear = LocalDate.now().getYear();
+		int fromYear = thisYear - yearsBack;
+		int toYear = thisYear + yearsAhead;
+
+		countryRegistry.refresh();
+		Set<String> countryCodes = countryRegistry.countryCodes();
+
+		ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+		int calendars;
+		try {
+			List<CompletableFuture<Integer>> countries = countryCodes.stream()
+					.map(countryCode -> CompletableFuture.supplyAsync(
+							() -> warmUpCountry(countryCode, fromYear, toYear), executor))
+					.toList();
+			calendars = countries.stream().mapToInt(CompletableFuture::join).sum();
+		}
+		finally {
+			executor.shutdown();
+		}
+
+		Duration duration = Duration.ofNanos(System.nanoTime() - start);
+		Timer.builder("calendar.warmup.duration")
+				.description("Time taken to warm up calendars at startup")
+				.register(meterRegistry)
+				.record(duration);
+		log.info("Warmed up {} countries and {} business calendars for {}-{} in {} ms",
+				countryCodes.size(), calendars, fromYear, toYear, duration.toMillis());
+	}
+
+	/**
+	 * Compile a country and its active business calendars, returning how many
+	 * calendars were compiled
+	 */
+	private int warmUpCountry(String countryCode, int fromYear, int toYear) {
+		try {
+			calendarEngine.findYears(countryCode, null, fromYear, toYear);
+
+			List<BusinessCalendar> calendars =
+					businessCalendarRepository.findActiveByCountryCode(countryCode);
+			for (BusinessCalendar calendar : calendars) {
+				calendarEngine.findYears(countryCode, String.valueOf(calendar.getId()),
+						fromYear, toYear);
+			}
+			return calendars.size();
+		}
+		catch (RuntimeException e) {
+			log.warn("Failed to warm up calendars of {}", countryCode, e);
+			return 0;
+		}
+	}
+}
@@ -0,0 +1,323 @@
+package com.feng.calendar.engine;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.feng.calendar.model.enums.DateType;
+
+/**
+ * Compiled, immutable calendar for a single year.
+ *
+ * Every day of the year is one bit in a packed bitmap (bit 0 is January 1st), so
+ * classifying a date is a couple of shifts and masks. Holiday and custom rule names
+ * are kept in a small side table sorted by day of year. Prefix counts of work days
+ * per 64-day word give rank/select over the work days of the year.
+ */
+public final class CalendarYear {
+
+	private static final int WORDS = 6; // 6 * 64 bits >= 366 days
+
+	private final int year;
+
+	private final int length;
+
+	private final int weekendMask;
+
+	private final long[] weekendBits;
+
+	private final long[] holidayBits;
+
+	private final long[] customBits;
+
+	private final long[] workBits;
+
+	private final int[] workRank;
+
+	private final short[] namedDays;
+
+	private final String[] names;
+
+	private CalendarYear(Builder builder) {
+		this.year = builder.year;
+		this.length = builder.length;
+		this.weekendMask = builder.weekendMask;
+		this.weekendBits = builder.weekendBits.clone();
+		this.holidayBits = builder.holidayBits.clone();
+		this.customBits = builder.customBits.clone();
+		this.workBits = new long[WORDS];
+		for (int i = 0; i < WORDS; i++) {
+			workBits[i] = ~(weekendBits[i] | holidayBits[i] | customBits[i]);
+		}
+		// Clear the bits past the end of the year
+		int tail = length & 63;
+		workBits[length >>> 6] &= (1L << tail) - 1;
+		for (int i = (length >>> 6) + 1; i < WORDS; i++) {
+			workBits[i] = 0L;
+		}
+
+		// workRank[i] = number of work days in words 0..i-1
+		this.workRank = new int[WORDS + 1];
+		for (int i = 0; i < WORDS; i++) {
+			workRank[i + 1] = workRank[i] + Long.bitCount(workBits[i]);
+		}
+
+		this.namedDays = new short[builder.names.size()];
+		this.names = new String[builder.names.size()];
+		int i = 0;
+		for (Map.Entry<Integer, String> entry : builder.names.entrySet()) {
+			namedDays[i] = entry.getKey().shortValue();
+			names[i] = entry.getValue();
+			i++;
+		}
+	}
+
+	/**
+	 * Start building a year from a weekend mask (bit 0 = Monday ... bit 6 = Sunday)
+	 */
+	public static Builder builder(int year, int weekendMask) {
+		return new Builder(year, weekendMask);
+	}
+
+	/**
+	 * Start building a year on top of this one, e.g. to apply business calendar rules
+	 */
+	public Builder toBuilder() {
+		Builder builder = new Builder(year, weekendMask);
+		System.arraycopy(holidayBits, 0, builder.holidayBits, 0, WORDS);
+		System.arraycopy(customBits, 0, builder.customBits, 0, WORDS);
+		for (int i = 0; i < namedDays.length; i++) {
+			builder.names.put((int) namedDays[i], names[i]);
+		}
+		return builder;
+	}
+
+	/**
+	 * Build a weekend mask from ISO day-of-week values (1=Monday, 7=Sunday)
+	 */
+	public static int weekendMask(int... isoDaysOfWeek) {
+		int mask = 0;
+		for (int day : isoDaysOfWeek) {
+			mask |= 1 << (day - 1);
+		}
+		return mask;
+	}
+
+	public int getYear() {
+		return year;
+	}
+
+	public int getWeekendMask() {
+		return weekendMask;
+	}
+
+	/**
+	 * Number of days in this year (365 or 366)
+	 */
+	public int length() {
+		return length;
+	}
+
+	/**
+	 * Check whether a date belongs to this year
+	 */
+	public boolean contains(LocalDate date) {
+		return date.getYear() == year;
+	}
+
+	/**
+	 * Classify a date, using the same precedence as the request path:
+	 * weekend, then holiday, then custom non-work day
+	 */
+	public DateType typeOf(LocalDate date) {
+		int index = indexOf(date);
+		if (isSet(weekendBits, index)) {
+			return DateType.WEEKEND;
+		}
+		if (isSet(holidayBits, index)) {
+			return DateType.HOLIDAY;
+		}
+		if (isSet(customBits, index)) {
+			return DateType.CUSTOM_NON_WORK_DAY;
+		}
+		return DateType.WORK_DAY;
+	}
+
+	public boolean isWorkDay(LocalDate date) {
+		return isSet(workBits, indexOf(date));
+	}
+
+	public boolean isWeekend(LocalDate date) {
+		return isSet(weekendBits, indexOf(date));
+	}
+
+	/**
+	 * Holiday name or custom rule description for a date, or null if none
+	 */
+	public String nameOf(LocalDate date) {
+		int found = Arrays.binarySearch(namedDays, (short) date.getDayOfYear());
+		return found >= 0 ? names[found] : null;
+	}
+
+	/**
+	 * Total number of work days in this year
+	 */
+	public int workDayCount() {
+		return workRank[WORDS];
+	}
+
+	/**
+	 * Number of work days in this year strictly before a date (rank)
+	 */
+	public int workDaysBefore(LocalDate date) {
+		return rank(indexOf(date));
+	}
+
+	/**
+	 * Number of work days in this year up to and including a date
+	 */
+	public int workDaysThrough(LocalDate date) {
+		return rank(indexOf(date) + 1);
+	}
+
+	/**
+	 * The n-th work day of this year, counting from 0 (select), or null when the
+	 * year has fewer work days
+	 */
+	public LocalDate workDay(int n) {
+		if (n < 0 || n >= workDayCount()) {
+			return null;
+		}
+
+		// Find the word holding the n-th work day, then the bit inside it
+		int word = 0;
+		int high = WORDS - 1;
+		while (word < high) {
+			int mid = (word + high + 1) >>> 1;
+			if (workRank[mid] <= n) {
+				word = mid;
+			}
+			else {
+				high = mid - 1;
+			}
+		}
+
+		long bits = workBits[word];
+		for (int remaining = n - workRank[word]; remaining > 0; remaining--) {
+			bits &= bits - 1; // drop the lowest work day
+		}
+		int index = (word << 6) + Long.numberOfTrailingZeros(bits);
+		return LocalDate.ofYearDay(year, index + 1);
+	}
+
+	/**
+	 * First work day strictly after a date within this year, or null if none
+	 */
+	public LocalDate nextWorkDay(LocalDate date) {
+		return workDay(workDaysThrough(date));
+	}
+
+	/**
+	 * Last work day strictly before a date within this year, or null if none
+	 */
+	public LocalDate previousWorkDay(LocalDate date) {
+		return workDay(workDaysBefore(date) - 1);
+	}
+
+	private int rank(int index) {
+		int word = index >>> 6;
+		if (word == WORDS) {
+			return workRank[WORDS];
+		}
+		return workRank[word] + Long.bitCount(workBits[word] & ((1L << index) - 1));
+	}
+
+	private int indexOf(LocalDate date) {
+		if (date.getYear() != year) {
+			throw new IllegalArgumentException(
+					"Date " + date + " is outside calendar year " + year);
+		}
+		return date.getDayOfYear() - 1;
+	}
+
+	private static boolean isSet(long[] bits, int index) {
+		return (bits[index >>> 6] & (1L << index)) != 0;
+	}
+
+	private static void set(long[] bits, int index) {
+		bits[index >>> 6] |= 1L << index;
+	}
+
+	/**
+	 * Mutable builder for {@link CalendarYear}
+	 */
+	public static final class Builder {
+
+		private final int year;
+
+		private final int length;
+
+		private final int weekendMask;
+
+		private final long[] weekendBits = new long[WORDS];
+
+		private final long[] holidayBits = new long[WORDS];
+
+		private final long[] customBits = new long[WORDS];
+
+		private final Map<Integer, String> names = new TreeMap<>();
+
+		private Builder(int year, int weekendMask) {
+			this.year = year;
+			this.length = Year.of(year).length();
+			this.weekendMask = weekendMask;
+
+			int dayOfWeek = LocalDate.of(year, 1, 1).getDayOfWeek().getValue() - 1;
+			for (int index = 0; index < length; index++) {
+				if ((weekendMask & (1 << dayOfWeek)) != 0) {
+					set(weekendBits, index);
+				}
+				dayOfWeek = dayOfWeek == DayOfWeek.SUNDAY.ordinal() ? 0 : dayOfWeek + 1;
+			}
+		}
+
+		/**
+		 * Mark a public holiday; its name takes precedence over custom descriptions
+		 */
+		public Builder holiday(LocalDate date, String name) {
+			int index = indexOf(date);
+			set(holidayBits, index);
+			if (name != null) {
+				names.put(index + 1, name);
+			}
+			return this;
+		}
+
+		/**
+		 * Mark a custom non-work day from a business calendar rule
+		 */
+		public Builder customNonWorkDay(LocalDate date, String description) {
+			int index = indexOf(date);
+			set(customBits, index);
+			if (description != null && !isSet(holidayBits, index)) {
+				names.putIfAbsent(index + 1, description);
+			}
+			return this;
+		}
+
+		public CalendarYear build() {
+			return new CalendarYear(this);
+		}
+
+		private int indexOf(LocalDate date) {
+			if (date.getYear() != year) {
+				throw new IllegalArgumentException(
+						"Date " + date + " is outside calendar year " + year);
+			}
+			return date.getDayOfYear() - 1;
+		}
+	}
+}
@@ -0,0 +1,197 @@
+package com.feng.calendar.engine;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.feng.calendar.event.CalendarDataChangedEvent;
+import com.feng.calendar.model.entity.BusinessCalendarRule;
+import com.feng.calendar.model.entity.Holiday;
+import com.feng.calendar.repository.BusinessCalendarRuleRepository;
+import com.feng.calendar.repository.HolidayRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+/**
+ * Expands recurring holidays and business calendar rules into concrete dates.
+ *
+ * A recurring holiday without a rule repeats every year on the month and day of its
+ * stored date; one with a {@link RecurrenceRule} follows that rule from its stored
+ * date on. Parsed rules and the recurring rows of each country and calendar are
+ * memoized until a {@link CalendarDataChangedEvent} covers them; the expanded years
+ * themselves are cached by the holiday year cache and the calendar engine.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RecurrenceExpander {
+
+	private final HolidayRepository holidayRepository;
+
+	private final BusinessCalendarRuleRepository businessCalendarRuleRepository;
+
+	private final Map<String, Optional<RecurrenceRule>> parsedRules =
+			new ConcurrentHashMap<>();
+
+	private final Map<String, List<Holiday>> recurringHolidays =
+			new ConcurrentHashMap<>();
+
+	private final Map<Long, List<BusinessCalendarRule>> recurringRules =
+			new ConcurrentHashMap<>();
+
+	/**
+	 * Holidays of a country-year: the stored ones plus every recurring holiday expanded
+	 * into the year, ordered by date. A stored holiday wins over an occurrence of the
+	 * same name in the same year, so observed dates can still be stored explicitly.
+	 */
+	public List<Holiday> withRecurrences(String countryCode, int year,
+			List<Holiday> stored) {
+		List<Holiday> recurring = recurringHolidays(countryCode);
+		if (recurring.isEmpty()) {
+			return stored;
+		}
+
+		Set<String> storedNames = new HashSet<>();
+		Set<LocalDate> storedDates = new HashSet<>();
+		for (Holiday holiday : stored) {
+			storedNames.add(holiday.getName());
+			storedDates.add(holiday.getDate());
+		}
+
+		List<Holiday> holidays = new ArrayList<>(stored);
+		for (Holiday holiday : recurring) {
+			if (storedNames.contains(holiday.getName())) {
+				continue;
+			}
+			for (LocalDate date : expand(holiday.getRecurrenceRule(), holiday.getDate(),
+					year)) {
+				if (storedDates.add(date)) {
+					holidays.add(occurrence(holiday, date));
+				}
+			}
+		}
+		holidays.sort(Comparator.comparing(Holiday::getDate));
+		return holidays;
+	}
+
+	/**
+	 * Whether a recurring holiday of a country falls on a date
+	 */
+	public boolean recursOn(String countryCode, LocalDate date) {
+		for (Holiday holiday : recurringHolidays(countryCode)) {
+			if (expand(holiday.getRecurrenceRule(), holiday.getDate(), date.getYear())
+					.contains(date)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Rules of a business calendar for a year: the stored ones plus every recurring
+	 * rule expanded into the year, ordered by date
+	 */
+	public List<BusinessCalendarRule> withRecurrences(Long calendarId, int year,
+			List<BusinessCalendarRule> stored) {
+		List<BusinessCalendarRule> recurring = recurringRules.computeIfAbsent(calendarId,
+				businessCalendarRuleRepository::findRecurringByCalendarId);
+		if (recurring.isEmpty()) {
+			return stored;
+		}
+
+		List<BusinessCalendarRule> rules = new ArrayList<>(stored);
+		for (BusinessCalendarRule rule : recurring) {
+			List<LocalDate> dates =
+					expand(rule.getRecurrenceRule(), rule.getDate(), year);
+			for (LocalDate date : dates) {
+				if (!date.equals(rule.getDate())) {
+					rules.add(occurrence(rule, date));
+				}
+			}
+		}
+		rules.sort(Comparator.comparing(BusinessCalendarRule::getDate,
+				Comparator.nullsFirst(Comparator.naturalOrder())));
+		return rules;
+	}
+
+	/**
+	 * Occurrences of a rule within a year; a missing rule means every year on the
+	 * start date's month and day, an invalid one never recurs
+	 */
+	public List<LocalDate> expand(String recurrenceRule, LocalDate start, int year) {
+		if (recurrenceRule == null || recurrenceRule.isBlank()) {
+			return start != null ? RecurrenceRule.yearly().occurrencesIn(year, start) :
+					List.of();
+		}
+		return parsedRules.computeIfAbsent(recurrenceRule, RecurrenceExpander::parse)
+				.map(rule -> rule.occurrencesIn(year, start))
+				.orElse(List.of());
+	}
+
+	/**
+	 * Forget memoized recurring rows a calendar data change affects
+	 */
+	@EventListener
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	public void onCalendarDataChanged(CalendarDataChangedEvent event) {
+		if (event.getBusinessCalendarId() != null) {
+			recurringRules.remove(event.getBusinessCalendarId());
+		}
+		else if (event.getCountryCode() != null) {
+			recurringHolidays.remove(event.getCountryCode());
+		}
+		else {
+			recurringHolidays.clear();
+			recurringRules.clear();
+		}
+	}
+
+	private List<Holiday> recurringHolidays(String countryCode) {
+		return recurringHolidays.computeIfAbsent(countryCode,
+				holidayRepository::findRecurringHolidaysByCountryCode);
+	}
+
+	private static Optional<RecurrenceRule> parse(String recurrenceRule) {
+		try {
+			return Optional.of(RecurrenceRule.parse(recurrenceRule));
+		}
+		catch (IllegalArgumentException e) {
+			log.warn("Ignoring invalid recurrence rule: {}", e.getMessage());
+			return Optional.empty();
+		}
+	}
+
+	private static Holiday occurrence(Holiday recurring, LocalDate date) {
+		Holiday holiday = new Holiday();
+		holiday.setId(recurring.getId());
+		holiday.setName(recurring.getName());
+		holiday.setDate(date);
+		holiday.setHolidayType(recurring.getHolidayType());
+		holiday.setIsRecurring(true);
+		holiday.setRecurrenceRule(recurring.getRecurrenceRule());
+		return holiday;
+	}
+
+	private static BusinessCalendarRule occurrence(BusinessCalendarRule recurring,
+			LocalDate date) {
+		BusinessCalendarRule rule = new BusinessCalendarRule();
+		rule.setId(recurring.getId());
+		rule.setRuleType(recurring.getRuleType());
+		rule.setDate(date);
+		rule.setRecurrenceRule(recurring.getRecurrenceRule());
+		rule.setDescription(recurring.getDescription());
+		rule.setIsActive(recurring.getIsActive());
+		return rule;
+	}
+}
@@ -0,0 +1,361 @@
+package com.feng.calendar.engine;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeSet;
+
+/**
+ * Parsed, immutable recurrence rule in a subset of RFC 5545 RRULE syntax.
+ *
+ * Supports FREQ (YEARLY, MONTHLY, WEEKLY), INTERVAL, COUNT, UNTIL, BYMONTH,
+ * BYMONTHDAY (negative values count from the end of the month) and BYDAY with
+ * optional ordinals (3MO, -1MO), plus the non-standard BYEASTER=n for holidays that
+ * fall n days after Western Easter Sunday. The start date (DTSTART) is the date of
+ * the row the rule belongs to; it anchors INTERVAL and COUNT and supplies the month
+ * and day when BYMONTH or BYMONTHDAY are missing.
+ *
+ * Examples: {@code FREQ=YEARLY;BYMONTH=11;BYDAY=4TH} (Thanksgiving),
+ * {@code FREQ=YEARLY;BYEASTER=-2} (Good Friday).
+ */
+public final class RecurrenceRule {
+
+	private enum Frequency {
+		YEARLY, MONTHLY, WEEKLY
+	}
+
+	private final Frequency frequency;
+
+	private final int interval;
+
+	private final Integer count;
+
+	private final LocalDate until;
+
+	private final List<Integer> byMonth;
+
+	private final List<Integer> byMonthDay;
+
+	private final List<WeekdayNum> byDay;
+
+	private final Integer byEaster;
+
+	private RecurrenceRule(Frequency frequency, int interval, Integer count,
+			LocalDate until, List<Integer> byMonth, List<Integer> byMonthDay,
+			List<WeekdayNum> byDay, Integer byEaster) {
+		this.frequency = frequency;
+		this.interval = interval;
+		this.count = count;
+		this.until = until;
+		this.byMonth = byMonth;
+		this.byMonthDay = byMonthDay;
+		this.byDay = byDay;
+		this.byEaster = byEaster;
+	}
+
+	/**
+	 * Parse a rule such as {@code FREQ=YEARLY;BYMONTH=1;BYDAY=3MO}, with or without an
+	 * {@code RRULE:} prefix
+	 */
+	public static RecurrenceRule parse(String rule) {
+		if (rule == null || rule.isBlank()) {
+			throw new IllegalArgumentException("Empty recurrence rule");
+		}
+		String body = rule.strip();
+		if (body.regionMatches(true, 0, "RRULE:", 0, 6)) {
+			body = body.substring(6);
+		}
+
+		Frequency frequency = null;
+		int interval = 1;
+		Integer count = null;
+		LocalDate until = null;
+		List<Integer> byMonth = List.of();
+		List<Integer> byMonthDay = List.of();
+		List<WeekdayNum> byDay = List.of();
+		Integer byEaster = null;
+
+		for (String part : body.split(";")) {
+			if (part.isBlank()) {
+				continue;
+			}
+			int separator = part.indexOf('=');
+			if (separator < 0) {
+				throw new IllegalArgumentException("Malformed rule part '" + part + "'");
+			}
+			String name = part.substring(0, separator).strip().toUpperCase(Locale.ROOT);
+			String value = part.substring(separator + 1).strip().toUpperCase(Locale.ROOT);
+			try {
+				switch (name) {
+					case "FREQ" -> frequency = Frequency.valueOf(value);
+					case "INTERVAL" -> interval = positive(Integer.parseInt(value), name);
+					case "COUNT" -> count = positive(Integer.parseInt(value), name);
+					case "UNTIL" -> until = LocalDate.parse(value.substring(0, 8),
+							DateTimeFormatter.BASIC_ISO_DATE);
+					case "BYMONTH" -> byMonth = parseInts(value, 1, 12);
+					case "BYMONTHDAY" -> byMonthDay = parseInts(value, -31, 31);
+					case "BYDAY" -> byDay = parseWeekdays(value);
+					case "BYEASTER" -> byEaster = Integer.parseInt(value);
+					case "WKST" -> {
+						// Weeks always start on Monday here
+					}
+					default -> throw new IllegalArgumentException(
+							"Unsupported rule part " + name);
+				}
+			}
+			catch (RuntimeException e) {
+				throw new IllegalArgumentException(
+						"Invalid recurrence rule '" + rule + "': " + e.getMessage(), e);
+			}
+		}
+
+		if (frequency == null) {
+			throw new IllegalArgumentException(
+					"Recurrence rule '" + rule + "' has no FREQ");
+		}
+		if (byEaster != null && frequency != Frequency.YEARLY) {
+			throw new IllegalArgumentException("BYEASTER requires FREQ=YEARLY");
+		}
+		return new RecurrenceRule(frequency, interval, count, until, byMonth, byMonthDay,
+				byDay, byEaster);
+	}
+
+	/**
+	 * The default rule of a recurring row without an explicit one: every year on the
+	 * month and day of its start date
+	 */
+	public static RecurrenceRule yearly() {
+		return new RecurrenceRule(Frequency.YEARLY, 1, null, null, List.of(), List.of(),
+				List.of(), null);
+	}
+
+	/**
+	 * Occurrences within a year, in date order, for a rule starting on a date (which
+	 * may be null for rules that need no anchor)
+	 */
+	public List<LocalDate> occurrencesIn(int year, LocalDate start) {
+		if (start != null && year < start.getYear() ||
+				until != null && year > until.getYear()) {
+			return List.of();
+		}
+
+		List<LocalDate> occurrences = candidates(year, start);
+		if (count == null || start == null) {
+			return occurrences;
+		}
+
+		// COUNT includes every occurrence since the start year
+		long before = 0;
+		for (int y = start.getYear(); y < year && before < count; y++) {
+			before += candidates(y, start).size();
+		}
+		long remaining = count - before;
+		if (remaining <= 0) {
+			return List.of();
+		}
+		return remaining < occurrences.size() ?
+				occurrences.subList(0, (int) remaining) : occurrences;
+	}
+
+	private List<LocalDate> candidates(int year, LocalDate start) {
+		TreeSet<LocalDate> dates = new TreeSet<>();
+		switch (frequency) {
+			case YEARLY -> {
+				if (start != null && (year - start.getYear()) % interval != 0) {
+					break;
+				}
+				if (byEaster != null) {
+					dates.add(easterSunday(year).plusDays(byEaster));
+					break;
+				}
+				List<Integer> months = !byMonth.isEmpty() ? byMonth :
+						start != null ? List.of(start.getMonthValue()) : List.of();
+				for (int month : months) {
+					addMonthDates(dates, YearMonth.of(year, month), start);
+				}
+			}
+			case MONTHLY -> {
+				for (int month = 1; month <= 12; month++) {
+					if (!byMonth.isEmpty() && !byMonth.contains(month)) {
+						continue;
+					}
+					if (start != null) {
+						long monthsSince = ChronoUnit.MONTHS.between(
+								YearMonth.from(start), YearMonth.of(year, month));
+						if (monthsSince < 0 || monthsSince % interval != 0) {
+							continue;
+						}
+					}
+					addMonthDates(dates, YearMonth.of(year, month), start);
+				}
+			}
+			case WEEKLY -> {
+				List<DayOfWeek> days = new ArrayList<>();
+				byDay.forEach(weekday -> days.add(weekday.day()));
+				if (days.isEmpty() && start != null) {
+					days.add(start.getDayOfWeek());
+				}
+				LocalDate startWeek = start != null ?
+						start.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)) :
+						null;
+				for (LocalDate date = LocalDate.of(year, 1, 1); date.getYear() == year;
+						date = date.plusDays(1)) {
+					boolean monthExcluded = !byMonth.isEmpty() &&
+							!byMonth.contains(date.getMonthValue());
+					if (monthExcluded || !days.contains(date.getDayOfWeek())) {
+						continue;
+					}
+					if (startWeek != null &&
+							ChronoUnit.WEEKS.between(startWeek, date) % interval != 0) {
+						continue;
+					}
+					dates.add(date);
+				}
+			}
+		}
+
+		List<LocalDate> occurrences = new ArrayList<>(dates.size());
+		for (LocalDate date : dates) {
+			if (date.getYear() == year && (start == null || !date.isBefore(start)) &&
+					(until == null || !date.isAfter(until))) {
+				occurrences.add(date);
+			}
+		}
+		return occurrences;
+	}
+
+	/**
+	 * Add the dates of a month selected by BYDAY and/or BYMONTHDAY, or the start's day
+	 * of month when neither is given
+	 */
+	private void addMonthDates(TreeSet<LocalDate> dates, YearMonth month,
+			LocalDate start) {
+		int length = month.lengthOfMonth();
+		if (!byDay.isEmpty()) {
+			for (WeekdayNum weekday : byDay) {
+				for (LocalDate date : weekday.datesIn(month)) {
+					if (byMonthDay.isEmpty() ||
+							matchesMonthDay(date.getDayOfMonth(), length)) {
+						dates.add(date);
+					}
+				}
+			}
+			return;
+		}
+
+		List<Integer> days = !byMonthDay.isEmpty() ? byMonthDay :
+				start != null ? List.of(start.getDayOfMonth()) : List.of();
+		for (int day : days) {
+			int dayOfMonth = day > 0 ? day : length + day + 1;
+			if (dayOfMonth >= 1 && dayOfMonth <= length) {
+				dates.add(month.atDay(dayOfMonth));
+			}
+		}
+	}
+
+	private boolean matchesMonthDay(int dayOfMonth, int length) {
+		for (int day : byMonthDay) {
+			if (day == dayOfMonth || day < 0 && length + day + 1 == dayOfMonth) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Western (Gregorian) Easter Sunday, anonymous Gregorian algorithm
+	 */
+	static LocalDate easterSunday(int year) {
+		int a = year % 19;
+		int b = year / 100;
+		int c = year % 100;
+		int d = b / 4;
+		int e = b % 4;
+		int f = (b + 8) / 25;
+		int g = (b - f + 1) / 3;
+		int h = (19 * a + b - d - g + 15) % 30;
+		int i = c / 4;
+		int k = c % 4;
+		int l = (32 + 2 * e + 2 * i - h - k) % 7;
+		int m = (a + 11 * h + 22 * l) / 451;
+		int month = (h + l - 7 * m + 114) / 31;
+		int day = (h + l - 7 * m + 114) % 31 + 1;
+		return LocalDate.of(year, month, day);
+	}
+
+	private static int positive(int value, String name) {
+		if (value < 1) {
+			throw new IllegalArgumentException(name + " must be positive");
+		}
+		return value;
+	}
+
+	private static List<Integer> parseInts(String value, int min, int max) {
+		List<Integer> values = new ArrayList<>();
+		for (String item : value.split(",")) {
+			int parsed = Integer.parseInt(item.strip());
+			if (parsed < min || parsed > max || parsed == 0) {
+				throw new IllegalArgumentException("Value " + parsed + " out of range");
+			}
+			values.add(parsed);
+		}
+		return List.copyOf(values);
+	}
+
+	private static List<WeekdayNum> parseWeekdays(String value) {
+		List<WeekdayNum> weekdays = new ArrayList<>();
+		for (String item : value.split(",")) {
+			String token = item.strip();
+			String code = token.substring(token.length() - 2);
+			String ordinal = token.substring(0, token.length() - 2);
+			int n = ordinal.isEmpty() ? 0 : Integer.parseInt(ordinal);
+			if (n < -5 || n > 5) {
+				throw new IllegalArgumentException("Ordinal " + n + " out of range");
+			}
+			weekdays.add(new WeekdayNum(n, dayOf(code)));
+		}
+		return List.copyOf(weekdays);
+	}
+
+	private static DayOfWeek dayOf(String code) {
+		return switch (code) {
+			case "MO" -> DayOfWeek.MONDAY;
+			case "TU" -> DayOfWeek.TUESDAY;
+			case "WE" -> DayOfWeek.WEDNESDAY;
+			case "TH" -> DayOfWeek.THURSDAY;
+			case "FR" -> DayOfWeek.FRIDAY;
+			case "SA" -> DayOfWeek.SATURDAY;
+			case "SU" -> DayOfWeek.SUNDAY;
+			default -> throw new IllegalArgumentException("Unknown weekday " + code);
+		};
+	}
+
+	/**
+	 * A BYDAY entry: a weekday with an optional ordinal within the month (0 = every)
+	 */
+	private record WeekdayNum(int ordinal, DayOfWeek day) {
+
+		List<LocalDate> datesIn(YearMonth month) {
+			LocalDate first = month.atDay(1).with(TemporalAdjusters.nextOrSame(day));
+			if (ordinal == 0) {
+				List<LocalDate> dates = new ArrayList<>();
+				for (LocalDate date = first; date.getMonth() == month.getMonth();
+						date = date.plusWeeks(1)) {
+					dates.add(date);
+				}
+				return dates;
+			}
+
+			LocalDate date = ordinal > 0 ? first.plusWeeks(ordinal - 1L) :
+					month.atEndOfMonth().with(TemporalAdjusters.previousOrSame(day))
+							.plusWeeks(ordinal + 1L);
+			return YearMonth.from(date).equals(month) ? List.of(date) : List.of();
+		}
+	}
+}
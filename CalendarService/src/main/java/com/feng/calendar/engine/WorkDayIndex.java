@@ -0,0 +1,127 @@
+package com.feng.calendar.engine;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import com.feng.calendar.exception.CalendarServiceException;
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.stereotype.Service;
+
+/**
+ * Work-day navigation over compiled calendar years.
+ *
+ * Each {@link CalendarYear} carries prefix counts of its work days, so moving to the
+ * next, previous or n-th work day is a rank/select per year instead of a day-by-day
+ * walk. Results are empty whenever a year on the way has not been compiled; callers
+ * then fall back to the regular lookup chain.
+ */
+@Service
+@RequiredArgsConstructor
+public class WorkDayIndex {
+
+	/**
+	 * Give up after this many consecutive years without a single work day
+	 */
+	public static final int MAX_EMPTY_YEARS = 5;
+
+	private final CalendarEngine calendarEngine;
+
+	/**
+	 * First work day strictly after a date
+	 */
+	public Optional<LocalDate> nextWorkDate(LocalDate fromDate, String countryCode,
+			String businessCalendarId) {
+		return addWorkDays(fromDate, 1, countryCode, businessCalendarId);
+	}
+
+	/**
+	 * Last work day strictly before a date
+	 */
+	public Optional<LocalDate> previousWorkDate(LocalDate fromDate, String countryCode,
+			String businessCalendarId) {
+		return addWorkDays(fromDate, -1, countryCode, businessCalendarId);
+	}
+
+	/**
+	 * The n-th work day after a date (n &gt; 0), before it (n &lt; 0), or the date
+	 * itself (n = 0)
+	 */
+	public Optional<LocalDate> addWorkDays(LocalDate fromDate, int n, String countryCode,
+			String businessCalendarId) {
+		if (n == 0) {
+			return Optional.of(fromDate);
+		}
+
+		int year = fromDate.getYear();
+		Optional<CalendarYear> current =
+				calendarEngine.findYear(countryCode, businessCalendarId, year);
+		if (current.isEmpty()) {
+			return Optional.empty();
+		}
+
+		int emptyYears = 0;
+		if (n > 0) {
+			// 0-based position of the target among the work days of the current year
+			long target = (long) current.get().workDaysThrough(fromDate) + n - 1;
+			while (target >= current.get().workDayCount()) {
+				emptyYears = current.get().workDayCount() == 0 ? emptyYears + 1 : 0;
+				checkEmptyYears(emptyYears, fromDate);
+				target -= current.get().workDayCount();
+				current = calendarEngine.findYear(countryCode, businessCalendarId, ++year);
+				if (current.isEmpty()) {
+					return Optional.empty();
+				}
+			}
+			return Optional.of(current.get().workDay((int) target));
+		}
+
+		long target = (long) current.get().workDaysBefore(fromDate) + n;
+		while (target < 0) {
+			current = calendarEngine.findYear(countryCode, businessCalendarId, --year);
+			if (current.isEmpty()) {
+				return Optional.empty();
+			}
+			emptyYears = current.get().workDayCount() == 0 ? emptyYears + 1 : 0;
+			checkEmptyYears(emptyYears, fromDate);
+			target += current.get().workDayCount();
+		}
+		return Optional.of(current.get().workDay((int) target));
+	}
+
+	/**
+	 * Number of work days after one date up to and including another; negative when
+	 * the second date comes first
+	 */
+	public Optional<Integer> countWorkDays(LocalDate fromDate, LocalDate toDate,
+			String countryCode, String businessCalendarId) {
+		if (toDate.isBefore(fromDate)) {
+			return countWorkDays(toDate, fromDate, countryCode, businessCalendarId)
+					.map(count -> -count);
+		}
+
+		long count = 0;
+		for (int year = fromDate.getYear(); year <= toDate.getYear(); year++) {
+			Optional<CalendarYear> calendarYear =
+					calendarEngine.findYear(countryCode, businessCalendarId, year);
+			if (calendarYear.isEmpty()) {
+				return Optional.empty();
+			}
+			int start = year == fromDate.getYear() ?
+					calendarYear.get().workDaysThrough(fromDate) : 0;
+			int end = year == toDate.getYear() ?
+					calendarYear.get().workDaysThrough(toDate) :
+					calendarYear.get().workDayCount();
+			count += end - start;
+		}
+		return Optional.of(Math.toIntExact(count));
+	}
+
+	private static void checkEmptyYears(int emptyYears, LocalDate fromDate) {
+		if (emptyYears >= MAX_EMPTY_YEARS) {
+			throw new CalendarServiceException(
+					"No work days within " + MAX_EMPTY_YEARS + " consecutive years of " +
+							fromDate);
+		}
+	}
+}
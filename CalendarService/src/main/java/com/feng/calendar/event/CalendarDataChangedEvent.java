@@ -0,0 +1,66 @@
+package com.feng.calendar.event;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Application event published when calendar data (holidays, weekend definitions or
+ * business calendar rules) changes, so in-memory structures can be rebuilt.
+ *
+ * A null country code, business calendar ID or year widens the scope to all of them.
+ * Events received from other replicas are marked remote so they are not broadcast
+ * again.
+ */
+@Getter
+@ToString
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class CalendarDataChangedEvent {
+
+	private final String countryCode;
+
+	private final Long businessCalendarId;
+
+	private final Integer year;
+
+	private final boolean remote;
+
+	/**
+	 * Holidays of a country changed for one year (or every year when null)
+	 */
+	public static CalendarDataChangedEvent holidaysChanged(String countryCode,
+			Integer year) {
+		return new CalendarDataChangedEvent(countryCode, null, year, false);
+	}
+
+	/**
+	 * Country-wide settings such as weekend definitions changed
+	 */
+	public static CalendarDataChangedEvent countryChanged(String countryCode) {
+		return new CalendarDataChangedEvent(countryCode, null, null, false);
+	}
+
+	/**
+	 * Rules of a business calendar changed for one year (or every year when null)
+	 */
+	public static CalendarDataChangedEvent businessCalendarChanged(Long calendarId,
+			Integer year) {
+		return new CalendarDataChangedEvent(null, calendarId, year, false);
+	}
+
+	/**
+	 * Everything changed
+	 */
+	public static CalendarDataChangedEvent allChanged() {
+		return new CalendarDataChangedEvent(null, null, null, false);
+	}
+
+	/**
+	 * A change broadcast by another replica
+	 */
+	public static CalendarDataChangedEvent remote(String countryCode,
+			Long businessCalendarId, Integer year) {
+		return new CalendarDataChangedEvent(countryCode, businessCalendarId, year, true);
+	}
+}
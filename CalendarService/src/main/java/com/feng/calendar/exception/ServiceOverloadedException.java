@@ -0,0 +1,11 @@
+package com.feng.calendar.exception;
+
+/**
+ * Exception thrown when a request finds the service at its concurrency limit
+ */
+public class ServiceOverloadedException extends CalendarServiceException {
+
+	public ServiceOverloadedException(String message) {
+		super(message);
+	}
+}
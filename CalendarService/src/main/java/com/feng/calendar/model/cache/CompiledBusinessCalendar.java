@@ -0,0 +1,102 @@
+package com.feng.calendar.model.cache;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+
+import com.feng.calendar.model.entity.BusinessCalendarRule;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * Compiled state of one business calendar: whether it is active, and its active rules
+ * indexed by date. Recurring rules are also kept apart, to be expanded into years
+ * other than the one of their stored date; each year's occurrences are expanded once
+ * and kept with the compiled calendar.
+ */
+@Getter
+public class CompiledBusinessCalendar {
+
+	private final Long calendarId;
+
+	private final boolean active;
+
+	private final Map<LocalDate, BusinessCalendarRule> datedRules;
+
+	private final List<BusinessCalendarRule> recurringRules;
+
+	// Occurrences of the recurring rules by year, for at most MAX_EXPANDED_YEARS years
+	@Getter(AccessLevel.NONE)
+	private final Map<Integer, Map<LocalDate, BusinessCalendarRule>> occurrences =
+			new ConcurrentHashMap<>();
+
+	private static final int MAX_EXPANDED_YEARS = 200;
+
+	private CompiledBusinessCalendar(Long calendarId, boolean active,
+			Map<LocalDate, BusinessCalendarRule> datedRules,
+			List<BusinessCalendarRule> recurringRules) {
+		this.calendarId = calendarId;
+		this.active = active;
+		this.datedRules = datedRules;
+		this.recurringRules = recurringRules;
+	}
+
+	/**
+	 * A calendar that is missing or inactive, so none of its rules apply
+	 */
+	public static CompiledBusinessCalendar inactive(Long calendarId) {
+		return new CompiledBusinessCalendar(calendarId, false, Map.of(), List.of());
+	}
+
+	/**
+	 * Build from the active rules of an active calendar; the first rule of a date wins
+	 */
+	public static CompiledBusinessCalendar of(Long calendarId,
+			List<BusinessCalendarRule> rules) {
+		Map<LocalDate, BusinessCalendarRule> datedRules = new HashMap<>();
+		List<BusinessCalendarRule> recurringRules = new ArrayList<>();
+		for (BusinessCalendarRule rule : rules) {
+			if (rule.getDate() != null) {
+				datedRules.putIfAbsent(rule.getDate(), rule);
+			}
+			if (rule.getRecurrenceRule() != null) {
+				recurringRules.add(rule);
+			}
+		}
+		return new CompiledBusinessCalendar(calendarId, true, Map.copyOf(datedRules),
+				List.copyOf(recurringRules));
+	}
+
+	/**
+	 * Find the rule stored for a date
+	 */
+	public Optional<BusinessCalendarRule> ruleOn(LocalDate date) {
+		return Optional.ofNullable(datedRules.get(date));
+	}
+
+	/**
+	 * Find the recurring rule that occurs on a date, expanding the recurring rules into
+	 * its year on the first lookup of that year
+	 */
+	public Optional<BusinessCalendarRule> recurringRuleOn(LocalDate date,
+			IntFunction<Map<LocalDate, BusinessCalendarRule>> expandYear) {
+		if (recurringRules.isEmpty()) {
+			return Optional.empty();
+		}
+
+		int year = date.getYear();
+		Map<LocalDate, BusinessCalendarRule> yearOccurrences = occurrences.get(year);
+		if (yearOccurrences == null) {
+			yearOccurrences = expandYear.apply(year);
+			if (occurrences.size() < MAX_EXPANDED_YEARS) {
+				occurrences.putIfAbsent(year, yearOccurrences);
+			}
+		}
+		return Optional.ofNullable(yearOccurrences.get(date));
+	}
+}
@@ -0,0 +1,109 @@
+package com.feng.calendar.model.cache;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import com.feng.calendar.model.entity.Holiday;
+import com.feng.calendar.model.enums.HolidayType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Compact cache value holding every holiday of one country-year.
+ *
+ * Holidays are stored as parallel arrays sorted by day of year; a date missing from
+ * the arrays is simply not a holiday, so no negative markers are needed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HolidayYear {
+
+	private String countryCode;
+
+	private int year;
+
+	private short[] days;
+
+	private String[] names;
+
+	private HolidayType[] types;
+
+	private long[] ids;
+
+	/**
+	 * Build from holidays of the year, in any order; when several fall on one date the
+	 * first given wins. Holidays of other years are left out.
+	 */
+	public static HolidayYear of(String countryCode, int year, List<Holiday> holidays) {
+		// Stable, so ties keep their order
+		List<Holiday> sorted = holidays.stream()
+				.filter(holiday -> holiday.getDate().getYear() == year)
+				.sorted(Comparator.comparing(Holiday::getDate))
+				.toList();
+		short[] days = new short[sorted.size()];
+		String[] names = new String[sorted.size()];
+		HolidayType[] types = new HolidayType[sorted.size()];
+		long[] ids = new long[sorted.size()];
+
+		int size = 0;
+		for (Holiday holiday : sorted) {
+			short day = (short) holiday.getDate().getDayOfYear();
+			if (size > 0 && days[size - 1] == day) {
+				continue;
+			}
+			days[size] = day;
+			names[size] = holiday.getName();
+			types[size] = holiday.getHolidayType();
+			ids[size] = holiday.getId() != null ? holiday.getId() : 0L;
+			size++;
+		}
+
+		return new HolidayYear(countryCode, year, Arrays.copyOf(days, size),
+				Arrays.copyOf(names, size), Arrays.copyOf(types, size),
+				Arrays.copyOf(ids, size));
+	}
+
+	/**
+	 * Number of holidays in the year
+	 */
+	public int size() {
+		return days.length;
+	}
+
+	/**
+	 * Whether any holiday is known for the year
+	 */
+	public boolean hasHolidays() {
+		return days.length > 0;
+	}
+
+	public LocalDate dateAt(int index) {
+		return LocalDate.ofYearDay(year, days[index]);
+	}
+
+	public String nameAt(int index) {
+		return names[index];
+	}
+
+	/**
+	 * Find the holiday on a date of this year
+	 */
+	public Optional<Holiday> find(LocalDate date) {
+		int index = Arrays.binarySearch(days, (short) date.getDayOfYear());
+		if (index < 0 || date.getYear() != year) {
+			return Optional.empty();
+		}
+
+		Holiday holiday = new Holiday();
+		holiday.setId(ids[index]);
+		holiday.setName(names[index]);
+		holiday.setDate(date);
+		holiday.setHolidayType(types[index]);
+		return Optional.of(holiday);
+	}
+}
@@ -28,4 +28,6 @@ public class BulkDateRequest {
 	private String businessCalendar;
 
 	private List<String> operations; // DATE_TYPE, NEXT_WORK_DATE, etc.
+
+	private Boolean includeMetadata; // Defaults to true; false skips per-date metadata
 }
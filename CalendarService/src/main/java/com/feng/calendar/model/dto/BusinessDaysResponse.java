@@ -0,0 +1,26 @@
+package com.feng.calendar.model.dto;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response DTO for business day arithmetic (adding days, counting between dates)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BusinessDaysResponse {
+
+	private LocalDate fromDate;
+
+	private LocalDate toDate;
+
+	private Integer businessDays;
+
+	private String country;
+}
@@ -0,0 +1,52 @@
+package com.feng.calendar.model.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.feng.calendar.model.enums.DateType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response DTO for a compact calendar of a date range.
+ *
+ * Work days are a Base64 bitmask with one bit per day of the range: bit i, counted from
+ * the least significant bit of the first byte, is set when {@code from} plus i days is
+ * a work day. Holidays and custom non-work days are listed with their names; any other
+ * day that is not a work day is a weekend day.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CalendarRangeResponse {
+
+	private LocalDate from;
+
+	private LocalDate to;
+
+	private String country;
+
+	private String workDays;
+
+	private List<NamedDay> namedDays;
+
+	// Digest of the calendar data above
+	private String version;
+
+
+	@Data
+	@Builder
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class NamedDay {
+
+		private LocalDate date;
+
+		private DateType dateType;
+
+		private String name;
+	}
+}
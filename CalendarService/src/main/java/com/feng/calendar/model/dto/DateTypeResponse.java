@@ -2,6 +2,7 @@ package com.feng.calendar.model.dto;
 
 import java.time.LocalDate;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.feng.calendar.model.enums.DateType;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -27,6 +28,7 @@ public class DateTypeResponse {
 
 	private String country;
 
+	@JsonInclude(JsonInclude.Include.NON_NULL)
 	private DateMetadata metadata;
 
 
@@ -0,0 +1,28 @@
+package com.feng.calendar.model.dto;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotEmpty;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Request DTO for checking dates across many countries
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MultiCountryDateRequest {
+
+	@NotEmpty(message = "Dates list cannot be empty")
+	private List<String> dates; // ISO date strings
+
+	@NotEmpty(message = "Countries list cannot be empty")
+	private List<String> countries;
+
+	private Boolean includeMetadata; // Defaults to true; false skips per-date metadata
+}
@@ -0,0 +1,24 @@
+package com.feng.calendar.model.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response DTO for checking dates across many countries
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MultiCountryDateResponse {
+
+	private List<DateTypeResponse> results; // By date, then by country as requested
+
+	private Integer totalProcessed;
+
+	private Long processingTimeMs;
+}
@@ -0,0 +1,31 @@
+package com.feng.calendar.model.dto;
+
+import java.time.LocalDate;
+
+import com.feng.calendar.model.enums.DateType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response DTO for checking whether an instant falls on a work day in a country
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkMomentResponse {
+
+	private String country;
+
+	private String timezone;
+
+	private LocalDate localDate; // The country's date at the instant
+
+	private DateType dateType;
+
+	private Boolean isWorkDay;
+
+	private String holidayName;
+}
@@ -15,7 +15,6 @@ import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
-import jakarta.persistence.Transient;
 
 import com.feng.calendar.model.enums.HolidayType;
 import lombok.Data;
@@ -31,7 +30,9 @@ import org.hibernate.annotations.CreationTimestamp;
 		indexes = {
 				@Index(name = "idx_holidays_country_date",
 						columnList = "country_id, date"),
-				@Index(name = "idx_holidays_date", columnList = "date")
+				@Index(name = "idx_holidays_date", columnList = "date"),
+				@Index(name = "idx_holidays_country_date_name",
+						columnList = "country_id, date, name", unique = true)
 		})
 @Data
 @EqualsAndHashCode(exclude = "country")
@@ -65,29 +66,4 @@ public class Holiday {
 	@CreationTimestamp
 	@Column(name = "created_at", nullable = false, updatable = false)
 	private LocalDateTime createdAt;
-
-	/**
-	 * Transient field to support serialization/deserialization
-	 * Not persisted to database
-	 */
-	@Transient
-	private Boolean noHoliday;
-
-	/**
-	 * Static method to create a "no holiday" marker for caching
-	 */
-	public static Holiday noHoliday() {
-		Holiday holiday = new Holiday();
-		holiday.setId(-1L);
-		holiday.setName("NO_HOLIDAY");
-		holiday.setNoHoliday(true);
-		return holiday;
-	}
-
-	/**
-	 * Check if this is a "no holiday" marker
-	 */
-	public boolean isNoHoliday() {
-		return id != null && id.equals(-1L);
-	}
 }
@@ -1,5 +1,6 @@
 package com.feng.calendar.repository;
 
+import java.util.List;
 import java.util.Optional;
 
 import com.feng.calendar.model.entity.Country;
@@ -36,4 +37,10 @@ public interface CountryRepository extends JpaRepository<Country, Long> {
 	@Query("SELECT c FROM Country c LEFT JOIN FETCH c.weekendDefinitions WHERE c.code = " +
 			":code")
 	Optional<Country> findByCodeWithWeekendDefinitions(@Param("code") String code);
+
+	/**
+	 * Find all countries with their weekend definitions loaded
+	 */
+	@Query("SELECT DISTINCT c FROM Country c LEFT JOIN FETCH c.weekendDefinitions")
+	List<Country> findAllWithWeekendDefinitions();
 }
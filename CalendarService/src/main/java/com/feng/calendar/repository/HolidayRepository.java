@@ -55,8 +55,9 @@ public interface HolidayRepository extends JpaRepository<Holiday, Long> {
 			@Param("countryCode") String countryCode);
 
 	/**
-	 * Find holidays by date across all countries
+	 * Find holidays by date across all countries, with their country fetched
 	 */
-	@Query("SELECT h FROM Holiday h JOIN h.country c WHERE h.date = :date")
+	@Query("SELECT h FROM Holiday h JOIN FETCH h.country c WHERE h.date = :date " +
+			"ORDER BY h.id")
 	List<Holiday> findByDate(@Param("date") LocalDate date);
 }
@@ -1,21 +1,41 @@
 package com.feng.calendar.service;
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import com.feng.calendar.engine.RecurrenceExpander;
+import com.feng.calendar.event.CalendarDataChangedEvent;
 import com.feng.calendar.exception.BusinessCalendarNotFoundException;
+import com.feng.calendar.model.cache.CompiledBusinessCalendar;
 import com.feng.calendar.model.entity.BusinessCalendar;
 import com.feng.calendar.model.entity.BusinessCalendarRule;
 import com.feng.calendar.repository.BusinessCalendarRepository;
 import com.feng.calendar.repository.BusinessCalendarRuleRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Service;
 
 /**
- * Service for managing business calendar rules
+ * Service for managing business calendar rules.
+ *
+ * Each business calendar is compiled once into a {@link CompiledBusinessCalendar},
+ * its active flag together with all of its active rules, and kept in-process, so
+ * checking a date against a calendar needs no queries. A compiled calendar is dropped
+ * when a {@link CalendarDataChangedEvent} covers it, including ones broadcast by other
+ * replicas.
  */
 @Service
 @RequiredArgsConstructor
@@ -26,21 +46,54 @@ public class BusinessCalendarService {
 
 	private final BusinessCalendarRuleRepository businessCalendarRuleRepository;
 
+	private final RecurrenceExpander recurrenceExpander;
+
+	private final ApplicationEventPublisher eventPublisher;
+
+	@Value("${calendar-service.cache.local.max-entries:10000}")
+	private long localMaxEntries;
+
+	@Value("${calendar-service.cache.local.ttl:PT10M}")
+	private Duration localTtl;
+
+	private Cache<Long, CompiledBusinessCalendar> compiledCalendars;
+
+	@PostConstruct
+	void initCompiledCalendars() {
+		compiledCalendars = Caffeine.newBuilder()
+				.maximumSize(localMaxEntries)
+				.expireAfterWrite(localTtl)
+				.build();
+	}
+
 	/**
-	 * Get custom rule for a specific date and business calendar
+	 * Get the active custom rule of an active business calendar for a date: the rule
+	 * stored for that date, or else the recurring rule that occurs on it
 	 */
-	@Cacheable(value = "business-calendar-rules", key = "#p1 + '_' + #p0.toString()")
 	public Optional<BusinessCalendarRule> getCustomRule(LocalDate date,
 			String businessCalendarId) {
+		CompiledBusinessCalendar calendar = getCompiledCalendar(businessCalendarId);
+		Optional<BusinessCalendarRule> rule = calendar.ruleOn(date);
+		if (rule.isPresent()) {
+			return rule;
+		}
+		return calendar.recurringRuleOn(date, year -> expandRecurrences(calendar, year));
+	}
+
+	/**
+	 * Get the compiled state of a business calendar, compiling it with one calendar
+	 * and one rule query on a miss; unknown and malformed IDs compile as inactive
+	 */
+	public CompiledBusinessCalendar getCompiledCalendar(String businessCalendarId) {
+		Long calendarId;
 		try {
-			Long calendarId = Long.parseLong(businessCalendarId);
-			return businessCalendarRuleRepository.findByCalendarIdAndDate(calendarId,
-					date);
+			calendarId = Long.parseLong(businessCalendarId);
 		}
 		catch (NumberFormatException e) {
 			log.warn("Invalid business calendar ID format: {}", businessCalendarId);
-			return Optional.empty();
+			return CompiledBusinessCalendar.inactive(null);
 		}
+		return compiledCalendars.get(calendarId, this::compile);
 	}
 
 	/**
@@ -64,16 +117,7 @@ public class BusinessCalendarService {
 	 * Check if a business calendar exists and is active
 	 */
 	public boolean isBusinessCalendarActive(String businessCalendarId) {
-		try {
-			Long calendarId = Long.parseLong(businessCalendarId);
-			return businessCalendarRepository.findById(calendarId)
-					.map(BusinessCalendar::getIsActive)
-					.orElse(false);
-		}
-		catch (NumberFormatException e) {
-			log.warn("Invalid business calendar ID format: {}", businessCalendarId);
-			return false;
-		}
+		return getCompiledCalendar(businessCalendarId).isActive();
 	}
 
 	/**
@@ -89,15 +133,61 @@ public class BusinessCalendarService {
 	 * Clear business calendar cache for a specific calendar and date
 	 */
 	public void clearBusinessCalendarCache(Long calendarId, LocalDate date) {
-		// This would be implemented with cache eviction if using Spring Cache
-		// For now, we'll rely on TTL
+		// The compiled calendar is dropped on this event, on every replica
+		eventPublisher.publishEvent(CalendarDataChangedEvent.businessCalendarChanged(
+				calendarId, date.getYear()));
 	}
 
 	/**
 	 * Clear all business calendar cache for a calendar
 	 */
 	public void clearBusinessCalendarCache(Long calendarId) {
-		// This would be implemented with cache eviction if using Spring Cache
-		// For now, we'll rely on TTL
+		eventPublisher.publishEvent(
+				CalendarDataChangedEvent.businessCalendarChanged(calendarId, null));
+	}
+
+	/**
+	 * Drop the compiled calendars a calendar data change affects
+	 */
+	@EventListener
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	public void onCalendarDataChanged(CalendarDataChangedEvent event) {
+		if (event.getBusinessCalendarId() != null) {
+			compiledCalendars.invalidate(event.getBusinessCalendarId());
+		}
+		else if (event.getCountryCode() == null) {
+			compiledCalendars.invalidateAll();
+		}
+	}
+
+	/**
+	 * Occurrences of a calendar's recurring rules within a year; the first rule that
+	 * occurs on a date wins
+	 */
+	private Map<LocalDate, BusinessCalendarRule> expandRecurrences(
+			CompiledBusinessCalendar calendar, int year) {
+		Map<LocalDate, BusinessCalendarRule> occurrences = new HashMap<>();
+		for (BusinessCalendarRule recurring : calendar.getRecurringRules()) {
+			for (LocalDate date : recurrenceExpander.expand(recurring.getRecurrenceRule(),
+					recurring.getDate(), year)) {
+				occurrences.putIfAbsent(date, recurring);
+			}
+		}
+		return Map.copyOf(occurrences);
+	}
+
+	private CompiledBusinessCalendar compile(Long calendarId) {
+		boolean active = businessCalendarRepository.findById(calendarId)
+				.map(BusinessCalendar::getIsActive)
+				.orElse(false);
+		if (!active) {
+			return CompiledBusinessCalendar.inactive(calendarId);
+		}
+
+		List<BusinessCalendarRule> rules =
+				businessCalendarRuleRepository.findActiveByCalendarId(calendarId);
+		log.debug("Compiled business calendar {} with {} rules", calendarId,
+				rules.size());
+		return CompiledBusinessCalendar.of(calendarId, rules);
 	}
 }
\ No newline at end of file
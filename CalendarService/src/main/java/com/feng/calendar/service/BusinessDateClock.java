@@ -0,0 +1,99 @@
+package com.feng.calendar.service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.feng.calendar.event.CalendarDataChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Current business date of every country, in the country's own timezone.
+ *
+ * Dates are rolled over by a scheduler, and whenever country data changes, instead of
+ * being computed per request. Each date is kept with the instant of the country's next
+ * midnight, so a read past it that comes before the scheduler has run computes the new
+ * date instead of answering with the previous one.
+ */
+@Service
+@Slf4j
+public class BusinessDateClock {
+
+	private final CountryRegistry countryRegistry;
+
+	private final Clock clock;
+
+	private final Map<String, BusinessDate> businessDates = new ConcurrentHashMap<>();
+
+	@Autowired
+	public BusinessDateClock(CountryRegistry countryRegistry) {
+		this(countryRegistry, Clock.systemUTC());
+	}
+
+	BusinessDateClock(CountryRegistry countryRegistry, Clock clock) {
+		this.countryRegistry = countryRegistry;
+		this.clock = clock;
+	}
+
+	/**
+	 * Current business date of a country
+	 */
+	public LocalDate today(String countryCode) {
+		BusinessDate businessDate = businessDates.get(countryCode);
+		if (businessDate == null || clock.millis() >= businessDate.rolloverMillis()) {
+			businessDate = businessDate(countryCode);
+			businessDates.put(countryCode, businessDate);
+		}
+		return businessDate.date();
+	}
+
+	/**
+	 * Business date of a country at an instant
+	 */
+	public LocalDate dateAt(String countryCode, Instant instant) {
+		return LocalDate.ofInstant(instant, countryRegistry.zone(countryCode));
+	}
+
+	/**
+	 * Roll every country over to its current date
+	 */
+	@Scheduled(fixedDelayString = "${calendar-service.business-dates.roll-interval:PT1M}")
+	public void roll() {
+		Set<String> countryCodes = countryRegistry.countryCodes();
+		businessDates.keySet().retainAll(countryCodes);
+		for (String countryCode : countryCodes) {
+			businessDates.put(countryCode, businessDate(countryCode));
+		}
+		log.debug("Rolled business dates of {} countries", countryCodes.size());
+	}
+
+	/**
+	 * Roll over again after country data, and possibly a timezone, changed; runs after
+	 * the country registry has reloaded
+	 */
+	@EventListener
+	public void onCalendarDataChanged(CalendarDataChangedEvent event) {
+		if (event.getBusinessCalendarId() == null && event.getYear() == null) {
+			roll();
+		}
+	}
+
+	private BusinessDate businessDate(String countryCode) {
+		ZoneId zone = countryRegistry.zone(countryCode);
+		LocalDate date = LocalDate.now(clock.withZone(zone));
+		return new BusinessDate(date,
+				date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli());
+	}
+
+	private record BusinessDate(LocalDate date, long rolloverMillis) {
+	}
+}
@@ -1,22 +1,46 @@
 package com.feng.calendar.service;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import com.feng.calendar.engine.CalendarEngine;
+import com.feng.calendar.engine.CalendarYear;
+import com.feng.calendar.exception.CalendarServiceException;
 import com.feng.calendar.exception.CountryNotFoundException;
 import com.feng.calendar.model.dto.BulkDateRequest;
 import com.feng.calendar.model.dto.BulkDateResponse;
+import com.feng.calendar.model.dto.BusinessDaysResponse;
+import com.feng.calendar.model.dto.CalendarRangeResponse;
 import com.feng.calendar.model.dto.DateTypeResponse;
+import com.feng.calendar.model.dto.MultiCountryDateRequest;
+import com.feng.calendar.model.dto.MultiCountryDateResponse;
 import com.feng.calendar.model.dto.WorkDateResponse;
+import com.feng.calendar.model.dto.WorkMomentResponse;
+import com.feng.calendar.model.enums.DateType;
 import com.feng.calendar.repository.CountryRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
 
 /**
  * Main service for calendar operations
@@ -32,6 +56,27 @@ public class CalendarService {
 
 	private final CountryRepository countryRepository;
 
+	private final CalendarEngine calendarEngine;
+
+	private final CountryRegistry countryRegistry;
+
+	private final BusinessDateClock businessDateClock;
+
+	@Value("${calendar-service.performance.bulk-request-limit:1000}")
+	private int bulkRequestLimit;
+
+	@Value("${calendar-service.performance.bulk-parallel-threshold:10000}")
+	private int bulkParallelThreshold;
+
+	@Value("${calendar-service.performance.stream-chunk-size:1000}")
+	private int streamChunkSize;
+
+	@Value("${calendar-service.performance.range-max-days:3660}")
+	private int rangeMaxDays;
+
+	@Value("${calendar-service.performance.bulk-max-year-span:100}")
+	private int bulkMaxYearSpan;
+
 	private static final DateTimeFormatter ISO_DATE_FORMATTER =
 			DateTimeFormatter.ISO_LOCAL_DATE;
 
@@ -46,16 +91,43 @@ public class CalendarService {
 		return dateTypeChecker.checkDateType(date, country, businessCalendar);
 	}
 
+	/**
+	 * Check whether an instant, or now when none is given, falls on a work day in a
+	 * country. The instant is resolved to the country's local date in its timezone; now
+	 * is the country's current business date, kept by the {@link BusinessDateClock}.
+	 */
+	@Transactional(readOnly = true)
+	public WorkMomentResponse checkWorkMoment(Instant instant, String country,
+			String businessCalendar) {
+		validateCountry(country);
+
+		LocalDate localDate = instant != null ?
+				businessDateClock.dateAt(country, instant) :
+				businessDateClock.today(country);
+		DateTypeResponse dateType = dateTypeChecker.checkDateType(localDate, country,
+				businessCalendar, false);
+
+		return WorkMomentResponse.builder()
+				.country(country)
+				.timezone(countryRegistry.zone(country).getId())
+				.localDate(localDate)
+				.dateType(dateType.getDateType())
+				.isWorkDay(dateType.getIsWorkDay())
+				.holidayName(dateType.getHolidayName())
+				.build();
+	}
+
 	/**
 	 * Find the next work date
 	 */
 	@Transactional(readOnly = true)
 	public WorkDateResponse findNextWorkDate(LocalDate fromDate, String country,
-			String businessCalendar, boolean skipWeekends) {
+			String businessCalendar, boolean skipWeekends, boolean includeSkippedDates) {
 		validateCountry(country);
 
 		if (skipWeekends) {
-			return workDateFinder.findNextWorkDate(fromDate, country, businessCalendar);
+			return workDateFinder.findNextWorkDate(fromDate, country, businessCalendar,
+					includeSkippedDates);
 		}
 		else {
 			return workDateFinder.findNextWorkDateSkipWeekendsOnly(fromDate, country);
@@ -67,58 +139,321 @@ public class CalendarService {
 	 */
 	@Transactional(readOnly = true)
 	public WorkDateResponse findPreviousWorkDate(LocalDate fromDate, String country,
-			String businessCalendar) {
+			String businessCalendar, boolean includeSkippedDates) {
 		validateCountry(country);
 
-		return workDateFinder.findPreviousWorkDate(fromDate, country, businessCalendar);
+		return workDateFinder.findPreviousWorkDate(fromDate, country, businessCalendar,
+				includeSkippedDates);
 	}
 
 	/**
-	 * Process bulk date requests
+	 * Add (or subtract, when negative) business days to a date
+	 */
+	@Transactional(readOnly = true)
+	public BusinessDaysResponse addBusinessDays(LocalDate date, int businessDays,
+			String country, String businessCalendar) {
+		validateCountry(country);
+		if (Math.abs((long) businessDays) > rangeMaxDays) {
+			throw new CalendarServiceException("Cannot add " + businessDays +
+					" business days, at most " + rangeMaxDays + " are allowed");
+		}
+
+		LocalDate result = workDateFinder.findWorkDateAfter(date, businessDays, country,
+				businessCalendar);
+
+		return BusinessDaysResponse.builder()
+				.fromDate(date)
+				.toDate(result)
+				.businessDays(businessDays)
+				.country(country)
+				.build();
+	}
+
+	/**
+	 * Count business days after one date up to and including another
+	 */
+	@Transactional(readOnly = true)
+	public BusinessDaysResponse businessDaysBetween(LocalDate fromDate, LocalDate toDate,
+			String country, String businessCalendar) {
+		validateCountry(country);
+		if (Math.abs(ChronoUnit.DAYS.between(fromDate, toDate)) > rangeMaxDays) {
+			throw new CalendarServiceException("Invalid range from " + fromDate +
+					" to " + toDate + ", at most " + rangeMaxDays + " days are allowed");
+		}
+
+		int businessDays = workDateFinder.countWorkDatesBetween(fromDate, toDate, country,
+				businessCalendar);
+
+		return BusinessDaysResponse.builder()
+				.fromDate(fromDate)
+				.toDate(toDate)
+				.businessDays(businessDays)
+				.country(country)
+				.build();
+	}
+
+	/**
+	 * Process bulk date requests.
+	 *
+	 * Every year the batch's dates fall in is compiled up front with one holiday query
+	 * (and one rule query for a business calendar), then the dates are evaluated in
+	 * memory, in parallel for very large batches. Years between the dates are not
+	 * compiled, and a batch spanning too many years is rejected.
 	 */
 	@Transactional(readOnly = true)
 	public BulkDateResponse processBulkDates(BulkDateRequest request) {
 		long startTime = System.currentTimeMillis();
 
-		validateCountry(request.getCountry());
-
-		List<DateTypeResponse> dateTypeResults = new ArrayList<>();
-		List<WorkDateResponse> workDateResults = new ArrayList<>();
+		String country = request.getCountry();
+		String businessCalendar = request.getBusinessCalendar();
+		validateCountry(country);
 
 		// Parse dates
 		List<LocalDate> dates = parseDates(request.getDates());
+		boolean nextWorkDate = request.getOperations() != null &&
+				request.getOperations().contains("NEXT_WORK_DATE");
+		boolean includeMetadata = !Boolean.FALSE.equals(request.getIncludeMetadata());
 
-		// Process each date
-		for (LocalDate date : dates) {
-			// Check date type
-			DateTypeResponse dateTypeResponse = dateTypeChecker.checkDateType(
-					date, request.getCountry(), request.getBusinessCalendar());
-			dateTypeResults.add(dateTypeResponse);
-
-			// If requested, also find next work date
-			if (request.getOperations() != null &&
-					request.getOperations().contains("NEXT_WORK_DATE")) {
-				WorkDateResponse workDateResponse = workDateFinder.findNextWorkDate(
-						date, request.getCountry(), request.getBusinessCalendar());
-				workDateResults.add(workDateResponse);
-			}
+		// Compile the batch's years at once; next work dates may spill into next year
+		SortedSet<Integer> batchYears = batchYears(dates, nextWorkDate);
+		Map<Integer, CalendarYear> years = batchYears.isEmpty() ? Map.of() :
+				calendarEngine.findYears(country, businessCalendar, batchYears);
+
+		DateTypeResponse[] dateTypeResults = new DateTypeResponse[dates.size()];
+		WorkDateResponse[] workDateResults =
+				new WorkDateResponse[nextWorkDate ? dates.size() : 0];
+
+		// Only go parallel when no date needs the (I/O bound) lookup chain
+		IntStream indexes = IntStream.range(0, dates.size());
+		if (dates.size() >= bulkParallelThreshold &&
+				years.keySet().containsAll(batchYears)) {
+			indexes = indexes.parallel();
 		}
+		indexes.forEach(i -> {
+			LocalDate date = dates.get(i);
+			dateTypeResults[i] = checkDateType(date, years.get(date.getYear()), country,
+					businessCalendar, includeMetadata);
+
+			if (nextWorkDate) {
+				workDateResults[i] =
+						findNextWorkDate(date, years, country, businessCalendar);
+			}
+		});
 
 		long processingTime = System.currentTimeMillis() - startTime;
 
 		return BulkDateResponse.builder()
-				.dateTypeResults(dateTypeResults)
-				.workDateResults(workDateResults)
+				.dateTypeResults(Arrays.asList(dateTypeResults))
+				.workDateResults(Arrays.asList(workDateResults))
 				.totalProcessed(dates.size())
 				.processingTimeMs(processingTime)
 				.build();
 	}
 
+	/**
+	 * Check dates across many countries in one call. Each date is checked for every
+	 * country at once: countries with a compiled year cost no I/O, and the others share
+	 * one holiday query for the date.
+	 */
+	@Transactional(readOnly = true)
+	public MultiCountryDateResponse processMultiCountryDates(
+			MultiCountryDateRequest request) {
+		long startTime = System.currentTimeMillis();
+
+		List<String> countries = request.getCountries().stream().distinct().toList();
+		countries.forEach(this::validateCountry);
+		List<LocalDate> dates = parseDates(request.getDates());
+		if ((long) dates.size() * countries.size() > bulkRequestLimit) {
+			throw new CalendarServiceException("Too many checks: " + dates.size() +
+					" dates in " + countries.size() + " countries, at most " +
+					bulkRequestLimit + " are allowed");
+		}
+		boolean includeMetadata = !Boolean.FALSE.equals(request.getIncludeMetadata());
+
+		List<DateTypeResponse> results = new ArrayList<>(dates.size() * countries.size());
+		for (LocalDate date : dates) {
+			results.addAll(dateTypeChecker.checkDateTypes(date, countries,
+					includeMetadata));
+		}
+
+		return MultiCountryDateResponse.builder()
+				.results(results)
+				.totalProcessed(results.size())
+				.processingTimeMs(System.currentTimeMillis() - startTime)
+				.build();
+	}
+
+	/**
+	 * Compact calendar of a date range: a work-day bitmask and the named non-work days,
+	 * evaluated against years compiled for the whole range at once. The version is a
+	 * digest of that data, so it changes exactly when the calendar data does.
+	 */
+	@Transactional(readOnly = true)
+	public CalendarRangeResponse getCalendarRange(LocalDate from, LocalDate to,
+			String country, String businessCalendar) {
+		validateCountry(country);
+		if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) >= rangeMaxDays) {
+			throw new CalendarServiceException("Invalid range from " + from + " to " +
+					to + ", at most " + rangeMaxDays + " days are allowed");
+		}
+
+		Map<Integer, CalendarYear> years = calendarEngine.findYears(country,
+				businessCalendar, from.getYear(), to.getYear());
+
+		int days = (int) ChronoUnit.DAYS.between(from, to) + 1;
+		byte[] workDays = new byte[(days + 7) / 8];
+		List<CalendarRangeResponse.NamedDay> namedDays = new ArrayList<>();
+		StringBuilder names = new StringBuilder();
+		LocalDate date = from;
+		for (int i = 0; i < days; i++, date = date.plusDays(1)) {
+			DateTypeResponse dateType = checkDateType(date, years.get(date.getYear()),
+					country, businessCalendar, false);
+			if (dateType.getIsWorkDay()) {
+				workDays[i >>> 3] |= (byte) (1 << (i & 7));
+			}
+			else if (dateType.getDateType() != DateType.WEEKEND) {
+				namedDays.add(CalendarRangeResponse.NamedDay.builder()
+						.date(date)
+						.dateType(dateType.getDateType())
+						.name(dateType.getHolidayName())
+						.build());
+				names.append(date).append(dateType.getDateType())
+						.append(dateType.getHolidayName()).append('\n');
+			}
+		}
+
+		byte[] nameBytes = names.toString().getBytes(StandardCharsets.UTF_8);
+		byte[] content = Arrays.copyOf(workDays, workDays.length + nameBytes.length);
+		System.arraycopy(nameBytes, 0, content, workDays.length, nameBytes.length);
+
+		return CalendarRangeResponse.builder()
+				.from(from)
+				.to(to)
+				.country(country)
+				.workDays(Base64.getEncoder().encodeToString(workDays))
+				.namedDays(namedDays)
+				.version(DigestUtils.md5DigestAsHex(content))
+				.build();
+	}
+
+	/**
+	 * Check a stream of newline-delimited ISO dates, handing the results to a sink in
+	 * input order one chunk at a time, so memory stays bounded by the chunk size no
+	 * matter how many dates are streamed. Blank lines and invalid dates are skipped; a
+	 * chunk spanning too many years ends the stream with an error.
+	 *
+	 * Not transactional on purpose: a long stream must not pin a database connection.
+	 */
+	public long processBulkDateStream(BufferedReader reader, String country,
+			String businessCalendar, boolean includeMetadata,
+			Consumer<List<DateTypeResponse>> sink) throws IOException {
+		validateCountry(country);
+
+		long total = 0;
+		List<LocalDate> chunk = new ArrayList<>(streamChunkSize);
+		String line;
+		while ((line = reader.readLine()) != null) {
+			LocalDate date = parseStreamedDate(line);
+			if (date == null) {
+				continue;
+			}
+			chunk.add(date);
+			if (chunk.size() == streamChunkSize) {
+				sink.accept(checkDateTypes(chunk, country, businessCalendar,
+						includeMetadata));
+				total += chunk.size();
+				chunk.clear();
+			}
+		}
+		if (!chunk.isEmpty()) {
+			sink.accept(
+					checkDateTypes(chunk, country, businessCalendar, includeMetadata));
+			total += chunk.size();
+		}
+		return total;
+	}
+
+	/**
+	 * Check a chunk of dates against years compiled for the whole chunk at once
+	 */
+	private List<DateTypeResponse> checkDateTypes(List<LocalDate> dates, String country,
+			String businessCalendar, boolean includeMetadata) {
+		Map<Integer, CalendarYear> years = calendarEngine.findYears(country,
+				businessCalendar, batchYears(dates, false));
+
+		List<DateTypeResponse> results = new ArrayList<>(dates.size());
+		for (LocalDate date : dates) {
+			results.add(checkDateType(date, years.get(date.getYear()), country,
+					businessCalendar, includeMetadata));
+		}
+		return results;
+	}
+
+	/**
+	 * Distinct years of a batch of dates, with the year after each one when next work
+	 * dates may spill into it. A batch whose dates span more than the configured number
+	 * of years is rejected.
+	 */
+	private SortedSet<Integer> batchYears(List<LocalDate> dates, boolean followingYears) {
+		SortedSet<Integer> years = dates.stream()
+				.map(LocalDate::getYear)
+				.collect(Collectors.toCollection(TreeSet::new));
+		if (!years.isEmpty() && years.last() - years.first() >= bulkMaxYearSpan) {
+			throw new CalendarServiceException("Dates from " + years.first() + " to " +
+					years.last() + " span too many years, at most " + bulkMaxYearSpan +
+					" are allowed");
+		}
+		if (followingYears) {
+			years.addAll(years.stream().map(year -> year + 1).toList());
+		}
+		return years;
+	}
+
+	/**
+	 * Next work date within the batch's compiled years, or through the work-date finder
+	 * when it lies beyond them. Skipped dates are never listed in bulk.
+	 */
+	private WorkDateResponse findNextWorkDate(LocalDate date,
+			Map<Integer, CalendarYear> years, String country, String businessCalendar) {
+		CalendarYear calendarYear = years.get(date.getYear());
+		CalendarYear followingYear = years.get(date.getYear() + 1);
+		LocalDate next = null;
+		if (calendarYear != null) {
+			next = calendarYear.workDay(calendarYear.workDaysThrough(date));
+			if (next == null && followingYear != null) {
+				next = followingYear.workDay(0);
+			}
+		}
+		if (next == null) {
+			return workDateFinder.findNextWorkDate(date, country, businessCalendar,
+					false);
+		}
+		return WorkDateResponse.builder()
+				.fromDate(date)
+				.nextWorkDate(next)
+				.daysSkipped((int) ChronoUnit.DAYS.between(date, next) - 1)
+				.build();
+	}
+
+	/**
+	 * Check a date against its compiled year, or through the lookup chain when the year
+	 * could not be compiled
+	 */
+	private DateTypeResponse checkDateType(LocalDate date, CalendarYear calendarYear,
+			String country, String businessCalendar, boolean includeMetadata) {
+		if (calendarYear != null) {
+			return dateTypeChecker.checkDateType(date, calendarYear, country,
+					includeMetadata);
+		}
+		return dateTypeChecker.checkDateType(date, country, businessCalendar,
+				includeMetadata);
+	}
+
 	/**
 	 * Validate that a country exists
 	 */
 	private void validateCountry(String countryCode) {
-		if (!countryRepository.existsByCode(countryCode)) {
+		if (!countryRegistry.exists(countryCode)) {
 			throw new CountryNotFoundException(countryCode);
 		}
 	}
@@ -143,6 +478,28 @@ public class CalendarService {
 		return dates;
 	}
 
+	/**
+	 * Parse one line of a date stream, accepting a bare or JSON-quoted ISO date
+	 */
+	private LocalDate parseStreamedDate(String line) {
+		String dateString = line.strip();
+		if (dateString.length() > 1 && dateString.startsWith("\"") &&
+				dateString.endsWith("\"")) {
+			dateString = dateString.substring(1, dateString.length() - 1);
+		}
+		if (dateString.isEmpty()) {
+			return null;
+		}
+
+		try {
+			return LocalDate.parse(dateString, ISO_DATE_FORMATTER);
+		}
+		catch (DateTimeParseException e) {
+			log.warn("Invalid date format in stream: {}", dateString);
+			return null;
+		}
+	}
+
 	/**
 	 * Get available countries
 	 */
@@ -156,6 +513,6 @@ public class CalendarService {
 	 */
 	@Transactional(readOnly = true)
 	public boolean isCountrySupported(String countryCode) {
-		return countryRepository.existsByCode(countryCode);
+		return countryRegistry.exists(countryCode);
 	}
 }
\ No newline at end of file
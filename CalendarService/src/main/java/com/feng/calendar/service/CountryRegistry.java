@@ -0,0 +1,195 @@
+package com.feng.calendar.service;
+
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import com.feng.calendar.engine.CalendarYear;
+import com.feng.calendar.event.CalendarDataChangedEvent;
+import com.feng.calendar.model.entity.Country;
+import com.feng.calendar.model.entity.WeekendDefinition;
+import com.feng.calendar.repository.CountryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * In-memory registry of supported countries, their weekend days and timezones.
+ *
+ * The whole table is loaded in one query at startup and swapped atomically on
+ * refresh, so validating a country or checking a weekend never touches the database
+ * on the request path. It is refreshed when country data changes (on any replica)
+ * and periodically to pick up rows inserted directly into the database.
+ */
+@Service
+@Slf4j
+public class CountryRegistry {
+
+	/**
+	 * Saturday and Sunday, used for countries without a registry entry
+	 */
+	public static final int DEFAULT_WEEKEND_MASK = CalendarYear.weekendMask(6, 7);
+
+	private final CountryRepository countryRepository;
+
+	private final Counter hits;
+
+	private final Counter misses;
+
+	private volatile Map<String, CountryInfo> countries;
+
+	public CountryRegistry(CountryRepository countryRepository,
+			MeterRegistry meterRegistry) {
+		this.countryRepository = countryRepository;
+		this.hits = Counter.builder("calendar.country.registry.lookups")
+				.description("Country registry lookups")
+				.tag("result", "hit")
+				.register(meterRegistry);
+		this.misses = Counter.builder("calendar.country.registry.lookups")
+				.description("Country registry lookups")
+				.tag("result", "miss")
+				.register(meterRegistry);
+		Gauge.builder("calendar.country.registry.size", this,
+						registry -> registry.snapshot().size())
+				.description("Countries held by the country registry")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Whether a country is supported
+	 */
+	public boolean exists(String countryCode) {
+		return find(countryCode).isPresent();
+	}
+
+	/**
+	 * Look up a country, counting hits and misses
+	 */
+	public Optional<CountryInfo> find(String countryCode) {
+		CountryInfo country = countryCode != null ? snapshot().get(countryCode) : null;
+		if (country != null) {
+			hits.increment();
+		}
+		else {
+			misses.increment();
+		}
+		return Optional.ofNullable(country);
+	}
+
+	/**
+	 * Codes of every supported country
+	 */
+	public Set<String> countryCodes() {
+		return snapshot().keySet();
+	}
+
+	/**
+	 * Weekend days of a country as a bit mask (bit 0 = Monday ... bit 6 = Sunday),
+	 * Saturday and Sunday for unknown countries
+	 */
+	public int weekendMask(String countryCode) {
+		return find(countryCode)
+				.map(CountryInfo::weekendMask)
+				.orElse(DEFAULT_WEEKEND_MASK);
+	}
+
+	/**
+	 * Timezone of a country, UTC for unknown countries
+	 */
+	public ZoneId zone(String countryCode) {
+		return find(countryCode)
+				.map(CountryInfo::zone)
+				.orElse(ZoneOffset.UTC);
+	}
+
+	/**
+	 * Reload every country from the database
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	@Scheduled(fixedDelayString = "${calendar-service.countries.refresh-interval:PT5M}",
+			initialDelayString = "${calendar-service.countries.refresh-interval:PT5M}")
+	public synchronized void refresh() {
+		Map<String, CountryInfo> loaded = new HashMap<>();
+		for (Country country : countryRepository.findAllWithWeekendDefinitions()) {
+			loaded.put(country.getCode(), new CountryInfo(country.getCode(),
+					country.getName(), country.getTimezoneDefault(), toZone(country),
+					toWeekendMask(country.getWeekendDefinitions())));
+		}
+		countries = Map.copyOf(loaded);
+		log.debug("Loaded {} countries into the registry", loaded.size());
+	}
+
+	/**
+	 * Reload after country data changed, before compiled calendars are rebuilt. Any
+	 * change not limited to a year or a business calendar counts, so clearing a
+	 * country's or every holiday cache reloads weekends too.
+	 */
+	@EventListener
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	public void onCalendarDataChanged(CalendarDataChangedEvent event) {
+		if (event.getBusinessCalendarId() == null && event.getYear() == null) {
+			refresh();
+		}
+	}
+
+	private Map<String, CountryInfo> snapshot() {
+		Map<String, CountryInfo> current = countries;
+		if (current == null) {
+			synchronized (this) {
+				if (countries == null) {
+					refresh();
+				}
+				current = countries;
+			}
+		}
+		return current;
+	}
+
+	private static ZoneId toZone(Country country) {
+		String timezone = country.getTimezoneDefault();
+		if (timezone == null || timezone.isBlank()) {
+			return ZoneOffset.UTC;
+		}
+		try {
+			return ZoneId.of(timezone);
+		}
+		catch (DateTimeException e) {
+			log.warn("Invalid timezone {} for country {}, using UTC", timezone,
+					country.getCode());
+			return ZoneOffset.UTC;
+		}
+	}
+
+	private static int toWeekendMask(List<WeekendDefinition> definitions) {
+		int mask = 0;
+		if (definitions != null) {
+			for (WeekendDefinition definition : definitions) {
+				if (Boolean.TRUE.equals(definition.getIsWeekend())) {
+					mask |= CalendarYear.weekendMask(definition.getDayOfWeek());
+				}
+			}
+		}
+		return mask;
+	}
+
+	/**
+	 * Immutable snapshot of a country, its timezone parsed into a zone (UTC when it is
+	 * missing or invalid)
+	 */
+	public record CountryInfo(String code, String name, String timezone, ZoneId zone,
+			int weekendMask) {
+	}
+}
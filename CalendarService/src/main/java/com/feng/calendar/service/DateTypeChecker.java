@@ -1,10 +1,17 @@
 package com.feng.calendar.service;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 
+import com.feng.calendar.engine.CalendarEngine;
+import com.feng.calendar.engine.CalendarYear;
 import com.feng.calendar.model.dto.DateTypeResponse;
 import com.feng.calendar.model.entity.BusinessCalendarRule;
 import com.feng.calendar.model.entity.Holiday;
@@ -28,105 +35,173 @@ public class DateTypeChecker {
 
 	private final BusinessCalendarService businessCalendarService;
 
+	private final CalendarEngine calendarEngine;
+
+	private final PipelineMetrics pipelineMetrics;
+
+	// Day names indexed by DayOfWeek ordinal, resolved once instead of per response
+	private static final String[] DAY_NAMES = new String[DayOfWeek.values().length];
+
+	static {
+		for (DayOfWeek dayOfWeek : DayOfWeek.values()) {
+			DAY_NAMES[dayOfWeek.ordinal()] =
+					dayOfWeek.getDisplayName(TextStyle.FULL, Locale.ENGLISH).intern();
+		}
+	}
+
 	/**
 	 * Check the type of a date
 	 */
 	public DateTypeResponse checkDateType(LocalDate date, String countryCode,
 			String businessCalendarId) {
+		return checkDateType(date, countryCode, businessCalendarId, true);
+	}
+
+	/**
+	 * Check the type of a date, leaving out the metadata unless asked for
+	 */
+	public DateTypeResponse checkDateType(LocalDate date, String countryCode,
+			String businessCalendarId, boolean includeMetadata) {
+		// Serve from the compiled calendar when one is available (no I/O)
+		Optional<CalendarYear> compiled =
+				calendarEngine.findYear(countryCode, businessCalendarId, date.getYear());
+		if (compiled.isPresent()) {
+			pipelineMetrics.countCompiledCheck(countryCode);
+			return checkDateType(date, compiled.get(), countryCode, includeMetadata);
+		}
+		pipelineMetrics.countLookupCheck(countryCode);
+
 		// Check if it's a weekend first (fastest check)
-		if (weekendChecker.isWeekend(date, countryCode)) {
-			return createWeekendResponse(date, countryCode);
+		long start = pipelineMetrics.start();
+		boolean weekend = weekendChecker.isWeekend(date, countryCode);
+		pipelineMetrics.recordStage("weekend", countryCode,
+				weekend ? PipelineMetrics.HIT : PipelineMetrics.MISS, start);
+		if (weekend) {
+			return createResponse(date, DateType.WEEKEND, null, true, countryCode,
+					includeMetadata);
 		}
 
-		// Check for holidays
+		// Past this point the date is known not to be a weekend
+		start = pipelineMetrics.start();
 		Optional<Holiday> holiday = holidayResolver.findHoliday(date, countryCode);
+		pipelineMetrics.recordStage("holiday", countryCode,
+				holiday.isPresent() ? PipelineMetrics.HIT : PipelineMetrics.MISS, start);
 		if (holiday.isPresent()) {
-			return createHolidayResponse(date, holiday.get(), countryCode);
+			return createResponse(date, DateType.HOLIDAY, holiday.get().getName(), false,
+					countryCode, includeMetadata);
 		}
 
 		// Check custom business calendar rules
-		if (businessCalendarId != null &&
-				businessCalendarService.isBusinessCalendarActive(businessCalendarId)) {
-			Optional<BusinessCalendarRule> customRule =
-					businessCalendarService.getCustomRule(date, businessCalendarId);
-			if (customRule.isPresent() && !customRule.get().isWorkDay()) {
-				return createCustomNonWorkDayResponse(date, customRule.get(),
-						countryCode);
+		if (businessCalendarId != null) {
+			start = pipelineMetrics.start();
+			Optional<BusinessCalendarRule> customRule = Optional.empty();
+			if (businessCalendarService.isBusinessCalendarActive(businessCalendarId)) {
+				customRule =
+						businessCalendarService.getCustomRule(date, businessCalendarId);
+			}
+			boolean nonWorkDay = customRule.isPresent() && !customRule.get().isWorkDay();
+			pipelineMetrics.recordStage("business-rule", countryCode,
+					nonWorkDay ? PipelineMetrics.HIT : PipelineMetrics.MISS, start);
+			if (nonWorkDay) {
+				return createResponse(date, DateType.CUSTOM_NON_WORK_DAY,
+						customRule.get().getDescription(), false, countryCode,
+						includeMetadata);
 			}
 		}
 
 		// Default to work day
-		return createWorkDayResponse(date, countryCode);
+		return createResponse(date, DateType.WORK_DAY, null, false, countryCode,
+				includeMetadata);
 	}
 
 	/**
-	 * Create response for work day
+	 * Check one date across many countries, in the order given. Countries whose year is
+	 * compiled are answered in memory, as are weekends; the holidays of all the others
+	 * come from one query for the date instead of a lookup chain per country.
 	 */
-	private DateTypeResponse createWorkDayResponse(LocalDate date, String countryCode) {
-		return DateTypeResponse.builder()
-				.date(date)
-				.dateType(DateType.WORK_DAY)
-				.isWorkDay(true)
-				.country(countryCode)
-				.metadata(createMetadata(date, countryCode))
-				.build();
-	}
+	public List<DateTypeResponse> checkDateTypes(LocalDate date,
+			List<String> countryCodes, boolean includeMetadata) {
+		DateTypeResponse[] results = new DateTypeResponse[countryCodes.size()];
+		List<String> lookups = new ArrayList<>();
+		for (int i = 0; i < results.length; i++) {
+			String countryCode = countryCodes.get(i);
+			Optional<CalendarYear> compiled =
+					calendarEngine.findCompiledYear(countryCode, date.getYear());
+			if (compiled.isPresent()) {
+				pipelineMetrics.countCompiledCheck(countryCode);
+				results[i] = checkDateType(date, compiled.get(), countryCode,
+						includeMetadata);
+			}
+			else {
+				pipelineMetrics.countLookupCheck(countryCode);
+				if (weekendChecker.isWeekend(date, countryCode)) {
+					results[i] = createResponse(date, DateType.WEEKEND, null, true,
+							countryCode, includeMetadata);
+				}
+				else {
+					lookups.add(countryCode);
+				}
+			}
+		}
+		if (lookups.isEmpty()) {
+			return Arrays.asList(results);
+		}
 
-	/**
-	 * Create response for weekend
-	 */
-	private DateTypeResponse createWeekendResponse(LocalDate date, String countryCode) {
-		return DateTypeResponse.builder()
-				.date(date)
-				.dateType(DateType.WEEKEND)
-				.isWorkDay(false)
-				.country(countryCode)
-				.metadata(createMetadata(date, countryCode))
-				.build();
+		Map<String, Optional<Holiday>> holidays =
+				holidayResolver.findHolidays(date, lookups);
+		for (int i = 0; i < results.length; i++) {
+			if (results[i] != null) {
+				continue;
+			}
+			String countryCode = countryCodes.get(i);
+			Optional<Holiday> holiday = holidays.get(countryCode);
+			results[i] = holiday.isPresent() ?
+					createResponse(date, DateType.HOLIDAY, holiday.get().getName(), false,
+							countryCode, includeMetadata) :
+					createResponse(date, DateType.WORK_DAY, null, false, countryCode,
+							includeMetadata);
+		}
+		return Arrays.asList(results);
 	}
 
 	/**
-	 * Create response for holiday
+	 * Check the type of a date against an already compiled calendar year
 	 */
-	private DateTypeResponse createHolidayResponse(LocalDate date, Holiday holiday,
-			String countryCode) {
-		return DateTypeResponse.builder()
-				.date(date)
-				.dateType(DateType.HOLIDAY)
-				.isWorkDay(false)
-				.holidayName(holiday.getName())
-				.country(countryCode)
-				.metadata(createMetadata(date, countryCode))
-				.build();
+	public DateTypeResponse checkDateType(LocalDate date, CalendarYear calendarYear,
+			String countryCode, boolean includeMetadata) {
+		DateType dateType = calendarYear.typeOf(date);
+		String holidayName =
+				dateType == DateType.HOLIDAY || dateType == DateType.CUSTOM_NON_WORK_DAY ?
+						calendarYear.nameOf(date) : null;
+		return createResponse(date, dateType, holidayName, dateType == DateType.WEEKEND,
+				countryCode, includeMetadata);
 	}
 
 	/**
-	 * Create response for custom non-work day
+	 * Create a response from an already computed classification
 	 */
-	private DateTypeResponse createCustomNonWorkDayResponse(LocalDate date,
-			BusinessCalendarRule rule, String countryCode) {
+	private DateTypeResponse createResponse(LocalDate date, DateType dateType,
+			String holidayName, boolean isWeekend, String countryCode,
+			boolean includeMetadata) {
 		return DateTypeResponse.builder()
 				.date(date)
-				.dateType(DateType.CUSTOM_NON_WORK_DAY)
-				.isWorkDay(false)
-				.holidayName(rule.getDescription())
+				.dateType(dateType)
+				.isWorkDay(dateType == DateType.WORK_DAY)
+				.holidayName(holidayName)
 				.country(countryCode)
-				.metadata(createMetadata(date, countryCode))
+				.metadata(includeMetadata ? createMetadata(date, isWeekend) : null)
 				.build();
 	}
 
 	/**
-	 * Create metadata for a date
+	 * Create metadata for a date whose weekend flag is already known
 	 */
 	private DateTypeResponse.DateMetadata createMetadata(LocalDate date,
-			String countryCode) {
-		String dayOfWeek =
-				date.getDayOfWeek().getDisplayName(TextStyle.FULL, Locale.ENGLISH);
+			boolean isWeekend) {
 		return DateTypeResponse.DateMetadata.builder()
-				.dayOfWeek(dayOfWeek)
+				.dayOfWeek(DAY_NAMES[date.getDayOfWeek().ordinal()])
 				.weekNumber(date.getDayOfYear() / 7 + 1)
-				.isWeekend(weekendChecker.isWeekend(date,
-						countryCode)) // Default to US weekend check for metadata
+				.isWeekend(isWeekend)
 				.build();
 	}
-}
\ No newline at end of file
+}
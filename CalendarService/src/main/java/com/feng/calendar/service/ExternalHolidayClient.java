@@ -1,19 +1,59 @@
 package com.feng.calendar.service;
 
+import java.time.Duration;
 import java.time.LocalDate;
-import java.util.Optional;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.feng.calendar.model.entity.Country;
 import com.feng.calendar.model.entity.Holiday;
 import com.feng.calendar.model.enums.HolidayType;
 import com.feng.calendar.repository.CountryRepository;
+import com.feng.calendar.repository.HolidayRepository;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.circuitbreaker.event.CircuitBreakerOnStateTransitionEvent;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.reactive.function.client.WebClient;
 
 /**
- * Client for fetching holiday data from external APIs
+ * Client for fetching holiday data from external APIs.
+ *
+ * Providers are asked for a whole country-year at once, and the year is persisted in
+ * one batch, so a year missing from the database costs one request no matter how many
+ * of its dates are looked up. Concurrent misses for the same country-year share a
+ * single in-flight fetch. A year that another replica stored in the meantime is not
+ * saved again.
+ *
+ * Fetches never block the caller. Each provider has its own timeout and circuit
+ * breaker, and at most {@code max-concurrent-fetches} calls are in flight; a call that
+ * fails, times out, is rejected or is short-circuited yields no external data.
  */
 @Service
 @RequiredArgsConstructor
@@ -24,139 +64,321 @@ public class ExternalHolidayClient {
 
 	private final CountryRepository countryRepository;
 
-	private static final String HOLIDAY_API_URL = "https://api.holidayapi.com";
+	private final HolidayRepository holidayRepository;
 
-	private static final String GOVERNMENT_API_US = "https://api.usa.gov/holidays";
+	private final PlatformTransactionManager transactionManager;
 
-	private static final String GOVERNMENT_API_GB = "https://api.gov.uk/bank-holidays";
+	private final MeterRegistry meterRegistry;
+
+	@Value("${calendar-service.external-apis.holiday-api.url:https://api.holidayapi.com}")
+	private String holidayApiUrl;
+
+	@Value("${calendar-service.external-apis.holiday-api.key:}")
+	private String holidayApiKey;
+
+	@Value("${calendar-service.external-apis.holiday-api.timeout:5s}")
+	private Duration holidayApiTimeout;
+
+	@Value("${calendar-service.external-apis.government-sources.enabled:true}")
+	private boolean governmentSourcesEnabled;
+
+	@Value("${calendar-service.external-apis.government-sources.us-url:" +
+			"https://api.usa.gov/holidays}")
+	private String governmentApiUs;
+
+	@Value("${calendar-service.external-apis.government-sources.gb-url:" +
+			"https://api.gov.uk/bank-holidays}")
+	private String governmentApiGb;
+
+	@Value("${calendar-service.external-apis.government-sources.timeout:5s}")
+	private Duration governmentSourcesTimeout;
+
+	@Value("${calendar-service.external-apis.max-concurrent-fetches:4}")
+	private int maxConcurrentFetches;
+
+	@Value("${calendar-service.external-apis.circuit-breaker.failure-rate-threshold:50}")
+	private float failureRateThreshold;
+
+	@Value("${calendar-service.external-apis.circuit-breaker.minimum-calls:5}")
+	private int minimumCalls;
+
+	@Value("${calendar-service.external-apis.circuit-breaker.wait-in-open-state:PT30S}")
+	private Duration waitInOpenState;
+
+	private Provider usGovernment;
+
+	private Provider gbGovernment;
+
+	private Provider holidayApi;
+
+	private Semaphore fetchPermits;
+
+	// Country-years being fetched, shared by every concurrent miss for them
+	private final Map<String, CompletableFuture<List<Holiday>>> inFlightYears =
+			new ConcurrentHashMap<>();
+
+	@PostConstruct
+	void initProviders() {
+		CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.of(
+				CircuitBreakerConfig.custom()
+						.failureRateThreshold(failureRateThreshold)
+						.minimumNumberOfCalls(minimumCalls)
+						.waitDurationInOpenState(waitInOpenState)
+						.build());
+
+		usGovernment = provider("us-government", governmentApiUs,
+				governmentSourcesTimeout, circuitBreakers);
+		gbGovernment = provider("gb-government", governmentApiGb,
+				governmentSourcesTimeout, circuitBreakers);
+		holidayApi = provider("holiday-api", holidayApiUrl, holidayApiTimeout,
+				circuitBreakers);
+		fetchPermits = new Semaphore(maxConcurrentFetches);
+	}
 
 	/**
-	 * Fetch holiday from external API
+	 * Fetch the holidays of a country-year from its provider and persist them in one
+	 * batch. The fetch starts right away; concurrent calls for the same country-year
+	 * share the fetch already in flight. Emits the saved holidays, empty when the
+	 * provider has none or cannot be used.
 	 */
-	public Optional<Holiday> fetchHoliday(LocalDate date, String countryCode) {
+	public Mono<List<Holiday>> prefetchHolidayYear(String countryCode, int year) {
+		String key = countryCode.toUpperCase() + ":" + year;
+		CompletableFuture<List<Holiday>> flight = new CompletableFuture<>();
+		CompletableFuture<List<Holiday>> inFlight =
+				inFlightYears.putIfAbsent(key, flight);
+		if (inFlight != null) {
+			log.debug("Joining in-flight holiday fetch for {}", key);
+			return Mono.fromFuture(inFlight, true);
+		}
+
+		fetchHolidayYear(countryCode, year)
+				.publishOn(Schedulers.boundedElastic())
+				.map(holidays -> holidays.isEmpty() ? holidays :
+						save(countryCode, year, holidays))
+				.doOnNext(saved -> log.info("Fetched {} external holidays for {}",
+						saved.size(), key))
+				.doFinally(signal -> inFlightYears.remove(key, flight))
+				.subscribe(flight::complete, flight::completeExceptionally);
+		return Mono.fromFuture(flight, true);
+	}
+
+	/**
+	 * Save the fetched holidays of a country-year in a transaction of their own, as
+	 * lookups that miss run in read-only transactions. The year is saved only if it is
+	 * still empty; otherwise, or if a concurrent save wins, the stored holidays are
+	 * returned instead.
+	 */
+	private List<Holiday> save(String countryCode, int year, List<Holiday> holidays) {
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		transaction.setPropagationBehavior(
+				TransactionDefinition.PROPAGATION_REQUIRES_NEW);
 		try {
-			return switch (countryCode.toUpperCase()) {
-				case "US" -> fetchUSHoliday(date);
-				case "GB", "UK" -> fetchGBHoliday(date);
-				default -> fetchGenericHoliday(date, countryCode);
-			};
+			return transaction.execute(status -> {
+				List<Holiday> stored = findStored(countryCode, year);
+				if (!stored.isEmpty()) {
+					log.debug("Holidays for {}:{} already stored, skipping save",
+							countryCode, year);
+					return stored;
+				}
+				return holidayRepository.saveAll(holidays);
+			});
 		}
-		catch (Exception e) {
-			log.warn(
-					"Failed to fetch holiday from external API for date {} in country " +
-							"{}",
-					date, countryCode, e);
-			return Optional.empty();
+		catch (DataIntegrityViolationException e) {
+			log.debug("Holidays for {}:{} stored concurrently", countryCode, year);
+			return findStored(countryCode, year);
 		}
 	}
 
+	private List<Holiday> findStored(String countryCode, int year) {
+		return holidayRepository.findByCountryCodeAndDateRange(countryCode,
+				LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31));
+	}
+
 	/**
-	 * Fetch US holiday from government API
+	 * Fetch the holidays of a country-year from its provider without persisting them
 	 */
-	private Optional<Holiday> fetchUSHoliday(LocalDate date) {
-		try {
-			WebClient client = webClientBuilder.baseUrl(GOVERNMENT_API_US).build();
+	public Mono<List<Holiday>> fetchHolidayYear(String countryCode, int year) {
+		return Mono.fromCallable(() -> countryRepository.findByCode(countryCode))
+				.subscribeOn(Schedulers.boundedElastic())
+				.flatMap(country -> country
+						.map(found -> fetchEntries(countryCode, year)
+								.map(entries -> toHolidays(entries, found, year)))
+						.orElse(Mono.empty()))
+				.defaultIfEmpty(List.of());
+	}
 
-			String response = client.get()
+	/**
+	 * Fetch the raw entries of a country-year from the provider for the country
+	 */
+	private Mono<JsonNode> fetchEntries(String countryCode, int year) {
+		String code = countryCode.toUpperCase();
+		boolean gb = code.equals("GB") || code.equals("UK");
+
+		if (governmentSourcesEnabled && code.equals("US")) {
+			// A list of {"date", "name"} entries, possibly wrapped in "holidays"
+			return call(usGovernment, client -> client.get()
 					.uri(uriBuilder -> uriBuilder
-							.queryParam("year", date.getYear())
+							.queryParam("year", year)
 							.build())
 					.retrieve()
-					.bodyToMono(String.class)
-					.block();
-
-			// Parse response and find holiday for specific date
-			// This is a simplified implementation - in reality you'd parse JSON
-			if (response != null && response.contains("Independence Day") &&
-					date.getMonthValue() == 7 && date.getDayOfMonth() == 4) {
-				return createHoliday(date, "US", "Independence Day",
-						HolidayType.NATIONAL);
-			}
-
-			return Optional.empty();
+					.bodyToMono(JsonNode.class))
+					.map(response -> response.has("holidays") ?
+							response.get("holidays") : response);
 		}
-		catch (Exception e) {
-			log.warn("Failed to fetch US holiday for date {}", date, e);
-			return Optional.empty();
+		if (governmentSourcesEnabled && gb) {
+			// Every published year per division; England and Wales is used
+			return call(gbGovernment, client -> client.get()
+					.retrieve()
+					.bodyToMono(JsonNode.class))
+					.map(response -> response.path("england-and-wales").path("events"));
 		}
+		return call(holidayApi, client -> client.get()
+				.uri(uriBuilder -> {
+					uriBuilder.path("/v1/holidays")
+							.queryParam("country", code)
+							.queryParam("year", year);
+					if (!holidayApiKey.isBlank()) {
+						uriBuilder.queryParam("key", holidayApiKey);
+					}
+					return uriBuilder.build();
+				})
+				.retrieve()
+				.bodyToMono(JsonNode.class))
+				.map(response -> response.path("holidays"));
 	}
 
 	/**
-	 * Fetch GB holiday from government API
+	 * Call a provider within its timeout and circuit breaker and the shared concurrency
+	 * limit, recording latency by outcome. Completes empty whenever the call does not
+	 * succeed.
 	 */
-	private Optional<Holiday> fetchGBHoliday(LocalDate date) {
-		try {
-			WebClient client = webClientBuilder.baseUrl(GOVERNMENT_API_GB).build();
-
-			String response = client.get()
-					.retrieve()
-					.bodyToMono(String.class)
-					.block();
-
-			// Parse response and find holiday for specific date
-			// This is a simplified implementation - in reality you'd parse JSON
-			if (response != null && response.contains("Christmas Day") &&
-					date.getMonthValue() == 12 && date.getDayOfMonth() == 25) {
-				return createHoliday(date, "GB", "Christmas Day", HolidayType.NATIONAL);
+	private Mono<JsonNode> call(Provider provider,
+			Function<WebClient, Mono<JsonNode>> request) {
+		return Mono.defer(() -> {
+			if (!fetchPermits.tryAcquire()) {
+				log.debug("Too many external holiday fetches, skipping {}",
+						provider.name());
+				record(provider, "rejected", System.nanoTime());
+				return Mono.empty();
 			}
 
-			return Optional.empty();
+			long start = System.nanoTime();
+			return request.apply(provider.client())
+					.timeout(provider.timeout())
+					.transformDeferred(
+							CircuitBreakerOperator.of(provider.circuitBreaker()))
+					.doOnSuccess(response -> record(provider, "success", start))
+					.onErrorResume(e -> {
+						boolean open = e instanceof CallNotPermittedException;
+						record(provider, open ? "short-circuited" : "failure", start);
+						if (!open) {
+							log.warn("External holiday fetch from {} failed: {}",
+									provider.name(), e.toString());
+						}
+						return Mono.empty();
+					})
+					.doFinally(signal -> fetchPermits.release());
+		});
+	}
+
+	private void record(Provider provider, String outcome, long start) {
+		Timer.builder("calendar.external.fetch")
+				.description("Latency of external holiday fetches")
+				.tags("provider", provider.name(), "outcome", outcome)
+				.register(meterRegistry)
+				.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+	}
+
+	private Provider provider(String name, String url, Duration timeout,
+			CircuitBreakerRegistry circuitBreakers) {
+		Provider provider = new Provider(name,
+				webClientBuilder.clone().baseUrl(url).build(),
+				circuitBreakers.circuitBreaker(name), timeout, new AtomicLong());
+
+		provider.circuitBreaker().getEventPublisher()
+				.onStateTransition(event -> onStateTransition(provider, event));
+		meterRegistry.gauge("calendar.external.circuit.open", Tags.of("provider", name),
+				provider.circuitBreaker(),
+				circuitBreaker -> circuitBreaker.getState() == CircuitBreaker.State.OPEN ?
+						1 : 0);
+		return provider;
+	}
+
+	/**
+	 * Record how long a provider's circuit stayed open
+	 */
+	private void onStateTransition(Provider provider,
+			CircuitBreakerOnStateTransitionEvent event) {
+		CircuitBreaker.StateTransition transition = event.getStateTransition();
+		log.info("External holiday provider {} circuit: {}", provider.name(), transition);
+
+		if (transition.getToState() == CircuitBreaker.State.OPEN) {
+			provider.openedAt().set(System.nanoTime());
 		}
-		catch (Exception e) {
-			log.warn("Failed to fetch GB holiday for date {}", date, e);
-			return Optional.empty();
+		else if (transition.getFromState() == CircuitBreaker.State.OPEN) {
+			Timer.builder("calendar.external.circuit.open.time")
+					.description("Time external holiday providers spent short-circuited")
+					.tag("provider", provider.name())
+					.register(meterRegistry)
+					.record(System.nanoTime() - provider.openedAt().get(),
+							TimeUnit.NANOSECONDS);
 		}
 	}
 
 	/**
-	 * Fetch generic holiday from holiday API
+	 * Convert provider entries to holidays of a year, skipping entries of other years
+	 * and entries without a usable date or name
 	 */
-	private Optional<Holiday> fetchGenericHoliday(LocalDate date, String countryCode) {
-		try {
-			WebClient client = webClientBuilder.baseUrl(HOLIDAY_API_URL).build();
+	private List<Holiday> toHolidays(JsonNode entries, Country country, int year) {
+		if (entries == null || !entries.isArray()) {
+			return List.of();
+		}
 
-			String response = client.get()
-					.uri(uriBuilder -> uriBuilder
-							.path("/v1/holidays")
-							.queryParam("country", countryCode)
-							.queryParam("year", date.getYear())
-							.queryParam("month", date.getMonthValue())
-							.queryParam("day", date.getDayOfMonth())
-							.build())
-					.retrieve()
-					.bodyToMono(String.class)
-					.block();
-
-			// Parse response and create holiday
-			// This is a simplified implementation - in reality you'd parse JSON
-			if (response != null && !response.isEmpty()) {
-				return createHoliday(date, countryCode, "External Holiday",
-						HolidayType.NATIONAL);
+		List<Holiday> holidays = new ArrayList<>(entries.size());
+		for (JsonNode entry : entries) {
+			String name = entry.hasNonNull("name") ? entry.get("name").asText() :
+					entry.path("title").asText(null);
+			LocalDate date = parseDate(entry.path("date").asText(null));
+			if (name == null || name.isBlank() || date == null ||
+					date.getYear() != year) {
+				continue;
 			}
+			holidays.add(createHoliday(country, date, name, HolidayType.NATIONAL));
+		}
+		return holidays;
+	}
 
-			return Optional.empty();
+	private LocalDate parseDate(String value) {
+		if (value == null || value.length() < 10) {
+			return null;
+		}
+		try {
+			return LocalDate.parse(value.substring(0, 10));
 		}
-		catch (Exception e) {
-			log.warn("Failed to fetch generic holiday for date {} in country {}", date,
-					countryCode, e);
-			return Optional.empty();
+		catch (DateTimeParseException e) {
+			log.debug("Ignoring external holiday with invalid date {}", value);
+			return null;
 		}
 	}
 
 	/**
 	 * Create holiday entity from external data
 	 */
-	private Optional<Holiday> createHoliday(LocalDate date, String countryCode,
-			String name, HolidayType holidayType) {
-		return countryRepository.findByCode(countryCode)
-				.map(country -> {
-					Holiday holiday = new Holiday();
-					holiday.setCountry(country);
-					holiday.setName(name);
-					holiday.setDate(date);
-					holiday.setHolidayType(holidayType);
-					holiday.setIsRecurring(false);
-					return holiday;
-				});
+	private Holiday createHoliday(Country country, LocalDate date, String name,
+			HolidayType holidayType) {
+		Holiday holiday = new Holiday();
+		holiday.setCountry(country);
+		holiday.setName(name);
+		holiday.setDate(date);
+		holiday.setHolidayType(holidayType);
+		holiday.setIsRecurring(false);
+		return holiday;
+	}
+
+	/**
+	 * An external provider with its client, built once, and its circuit breaker
+	 */
+	private record Provider(String name, WebClient client, CircuitBreaker circuitBreaker,
+			Duration timeout, AtomicLong openedAt) {
 	}
-}
\ No newline at end of file
+}
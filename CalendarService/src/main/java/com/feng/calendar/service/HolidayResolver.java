@@ -2,20 +2,59 @@ package com.feng.calendar.service;
 
 import java.time.Duration;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import com.feng.calendar.engine.RecurrenceExpander;
+import com.feng.calendar.event.CalendarDataChangedEvent;
+import com.feng.calendar.model.cache.HolidayYear;
 import com.feng.calendar.model.entity.Holiday;
 import com.feng.calendar.repository.HolidayRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 /**
- * Service for resolving holidays with multi-level caching
+ * Service for resolving holidays with two-level caching.
+ *
+ * Holidays are loaded and cached one country-year at a time: a cold miss costs one
+ * range query, after which every date of that year is answered in-process. A bounded
+ * Caffeine tier sits in front of Redis; replicas drop their local copies when a
+ * {@link CalendarDataChangedEvent} arrives, including ones broadcast by other
+ * replicas.
+ *
+ * Redis keys embed a global and a per-country generation number, so clearing a
+ * country, or everything, is a single INCR: the old keys are no longer read and
+ * expire with their TTL. An optional sweeper deletes them earlier with SCAN.
  */
 @Service
 @RequiredArgsConstructor
@@ -24,156 +63,487 @@ public class HolidayResolver {
 
 	private final HolidayRepository holidayRepository;
 
-	private final RedisTemplate<String, Object> redisTemplate;
+	private final RedisTemplate<String, HolidayYear> holidayYearRedisTemplate;
+
+	private final StringRedisTemplate stringRedisTemplate;
 
 	private final ExternalHolidayClient externalHolidayClient;
 
-	private static final String HOLIDAY_CACHE_KEY = "holiday:%s:%s"; // country:date
+	private final ApplicationEventPublisher eventPublisher;
+
+	private final RecurrenceExpander recurrenceExpander;
+
+	private final PipelineMetrics pipelineMetrics;
+
+	private static final String HOLIDAY_CACHE_KEY = "holiday:%s:%d"; // country:year
+
+	// country:generation:year, with the generation being "global.country"
+	private static final String HOLIDAY_REDIS_KEY = "holiday:%s:%s:%d";
+
+	private static final String GENERATION_KEY = "holiday-generation";
 
 	private static final Duration CACHE_TTL = Duration.ofHours(24);
 
+	// Country tag of the stages shared by every country
+	private static final String ALL_COUNTRIES = "all";
+
+	@Value("${calendar-service.cache.local.max-entries:10000}")
+	private long localMaxEntries;
+
+	@Value("${calendar-service.cache.local.ttl:PT10M}")
+	private Duration localTtl;
+
+	@Value("${calendar-service.cache.sweeper.enabled:false}")
+	private boolean sweeperEnabled;
+
+	@Value("${calendar-service.cache.sweeper.batch-size:500}")
+	private int sweeperBatchSize;
+
+	// Current generation of each country's Redis keys, dropped on invalidation
+	private final Map<String, String> generations = new ConcurrentHashMap<>();
+
+	// In-process tier in front of Redis
+	private Cache<String, HolidayYear> localCache;
+
+	// Country-years already asked of the external APIs, retried after the local TTL
+	private Cache<String, Boolean> externalMisses;
+
+	@PostConstruct
+	void initLocalCache() {
+		localCache = Caffeine.newBuilder()
+				.maximumSize(localMaxEntries)
+				.expireAfterWrite(localTtl)
+				.build();
+		externalMisses = Caffeine.newBuilder()
+				.maximumSize(localMaxEntries)
+				.expireAfterWrite(localTtl)
+				.build();
+	}
+
 	/**
 	 * Find holiday for a specific date and country
 	 */
 	public Optional<Holiday> findHoliday(LocalDate date, String countryCode) {
-		String cacheKey = String.format(HOLIDAY_CACHE_KEY, countryCode, date.toString());
-
-		// Try L1 cache (Redis) first
-		Object cachedObject = getCachedObject(cacheKey);
-		if (cachedObject != null) {
-			// Handle both Holiday objects and LinkedHashMap (for backward compatibility)
-			Holiday cachedHoliday = convertToHoliday(cachedObject);
-			if (cachedHoliday != null) {
-				return cachedHoliday.isNoHoliday() ? Optional.empty() :
-						Optional.of(cachedHoliday);
+		HolidayYear holidayYear = getHolidayYear(countryCode, date.getYear());
+
+		Optional<Holiday> holiday = holidayYear.find(date);
+		if (holiday.isPresent() || holidayYear.hasHolidays()) {
+			return holiday;
+		}
+
+		// Nothing stored for this year: fetch the whole year from external APIs in the
+		// background and answer from what is known now
+		String missKey = countryCode + ":" + date.getYear();
+		if (externalMisses.asMap().putIfAbsent(missKey, Boolean.TRUE) == null) {
+			long start = pipelineMetrics.start();
+			externalHolidayClient.prefetchHolidayYear(countryCode, date.getYear())
+					.subscribe(fetched -> {
+						pipelineMetrics.recordStage("external", countryCode,
+								fetched.isEmpty() ? PipelineMetrics.MISS :
+										PipelineMetrics.HIT, start);
+						if (!fetched.isEmpty()) {
+							clearHolidayCache(date, countryCode);
+						}
+					}, e -> {
+						pipelineMetrics.recordStage("external", countryCode,
+								PipelineMetrics.ERROR, start);
+						log.warn("Failed to save external holidays for {}", missKey, e);
+					});
+		}
+		return Optional.empty();
+	}
+
+	/**
+	 * Find the holidays of many countries on one date. The stored ones come from a
+	 * single query across all countries; a country with a recurring holiday on the date
+	 * goes through its holiday year instead, where stored holidays override
+	 * occurrences. Unlike {@link #findHoliday}, a year without stored holidays is not
+	 * fetched from external sources.
+	 */
+	public Map<String, Optional<Holiday>> findHolidays(LocalDate date,
+			Collection<String> countryCodes) {
+		Map<String, Holiday> stored = new HashMap<>();
+		for (Holiday holiday : queryHolidays(date)) {
+			stored.putIfAbsent(holiday.getCountry().getCode(), holiday);
+		}
+
+		Map<String, Optional<Holiday>> holidays = new HashMap<>();
+		for (String countryCode : countryCodes) {
+			Holiday holiday = stored.get(countryCode);
+			if (holiday == null && recurrenceExpander.recursOn(countryCode, date)) {
+				holidays.put(countryCode,
+						getHolidayYear(countryCode, date.getYear()).find(date));
+			}
+			else {
+				holidays.put(countryCode, Optional.ofNullable(holiday));
 			}
 		}
+		return holidays;
+	}
 
-		// Check database
-		Optional<Holiday> holiday =
-				holidayRepository.findByCountryCodeAndDate(countryCode, date);
+	/**
+	 * Get all holidays of a country-year, loading the whole year on a miss
+	 */
+	public HolidayYear getHolidayYear(String countryCode, int year) {
+		String cacheKey = String.format(HOLIDAY_CACHE_KEY, countryCode, year);
 
-		if (holiday.isPresent()) {
-			cacheHoliday(cacheKey, holiday.get());
-			return holiday;
+		HolidayYear localYear = localCache.getIfPresent(cacheKey);
+		pipelineMetrics.countLocalCache(countryCode,
+				localYear != null ? PipelineMetrics.HIT : PipelineMetrics.MISS);
+		if (localYear != null) {
+			return localYear;
 		}
 
-		// Check external APIs for real-time data
-		try {
-			Optional<Holiday> externalHoliday =
-					externalHolidayClient.fetchHoliday(date, countryCode);
-
-			if (externalHoliday.isPresent()) {
-				// Save to database for future use
-				Holiday savedHoliday = holidayRepository.save(externalHoliday.get());
-				cacheHoliday(cacheKey, savedHoliday);
-				return Optional.of(savedHoliday);
+		String redisKey = redisKey(countryCode, year);
+		HolidayYear holidayYear = getCachedHolidayYear(countryCode, redisKey);
+		if (holidayYear == null) {
+			holidayYear = loadHolidayYear(countryCode, year);
+			cacheHolidayYear(redisKey, holidayYear);
+		}
+
+		localCache.put(cacheKey, holidayYear);
+		return holidayYear;
+	}
+
+	/**
+	 * Get the holidays of consecutive years of a country
+	 */
+	public Map<Integer, HolidayYear> getHolidayYears(String countryCode, int fromYear,
+			int toYear) {
+		return getHolidayYears(countryCode,
+				IntStream.rangeClosed(fromYear, toYear).boxed().toList());
+	}
+
+	/**
+	 * Get the holidays of some years of a country. Years not held locally are read from
+	 * Redis with one MGET; the ones missing there are loaded with a single range query
+	 * and written back in one pipeline. Only the given years are loaded and cached.
+	 */
+	public Map<Integer, HolidayYear> getHolidayYears(String countryCode,
+			Collection<Integer> years) {
+		Map<Integer, HolidayYear> holidayYears = new TreeMap<>();
+		List<Integer> remoteYears = new ArrayList<>();
+		List<String> remoteKeys = new ArrayList<>();
+		for (int year : new TreeSet<>(years)) {
+			String cacheKey = String.format(HOLIDAY_CACHE_KEY, countryCode, year);
+			HolidayYear holidayYear = localCache.getIfPresent(cacheKey);
+			pipelineMetrics.countLocalCache(countryCode,
+					holidayYear != null ? PipelineMetrics.HIT : PipelineMetrics.MISS);
+			if (holidayYear != null) {
+				holidayYears.put(year, holidayYear);
+			}
+			else {
+				remoteYears.add(year);
+				remoteKeys.add(redisKey(countryCode, year));
 			}
 		}
-		catch (Exception e) {
-			log.warn(
-					"Failed to fetch holiday from external API for date {} in country " +
-							"{}",
-					date, countryCode, e);
+		if (remoteKeys.isEmpty()) {
+			return holidayYears;
 		}
 
-		// Cache negative result
-		Holiday noHoliday = Holiday.noHoliday();
-		cacheHoliday(cacheKey, noHoliday);
+		List<HolidayYear> cached = getCachedHolidayYears(countryCode, remoteKeys);
+		List<Integer> missingYears = new ArrayList<>();
+		for (int i = 0; i < remoteKeys.size(); i++) {
+			HolidayYear holidayYear = cached.get(i);
+			if (holidayYear != null) {
+				localCache.put(String.format(HOLIDAY_CACHE_KEY, countryCode,
+						remoteYears.get(i)), holidayYear);
+				holidayYears.put(remoteYears.get(i), holidayYear);
+			}
+			else {
+				missingYears.add(remoteYears.get(i));
+			}
+		}
+		if (missingYears.isEmpty()) {
+			return holidayYears;
+		}
 
-		return Optional.empty();
+		int firstMissing = missingYears.get(0);
+		int lastMissing = missingYears.get(missingYears.size() - 1);
+
+		Map<Integer, List<Holiday>> loaded = queryHolidays(countryCode,
+						LocalDate.of(firstMissing, 1, 1),
+						LocalDate.of(lastMissing, 12, 31))
+				.stream()
+				.collect(Collectors.groupingBy(holiday -> holiday.getDate().getYear()));
+		log.debug("Loaded holidays for {} from {} to {} in one query", countryCode,
+				firstMissing, lastMissing);
+
+		Map<String, HolidayYear> loadedYears = new LinkedHashMap<>();
+		for (int year : missingYears) {
+			String cacheKey = String.format(HOLIDAY_CACHE_KEY, countryCode, year);
+			HolidayYear holidayYear = HolidayYear.of(countryCode, year,
+					recurrenceExpander.withRecurrences(countryCode, year,
+							loaded.getOrDefault(year, List.of())));
+			loadedYears.put(redisKey(countryCode, year), holidayYear);
+			localCache.put(cacheKey, holidayYear);
+			holidayYears.put(year, holidayYear);
+		}
+		cacheHolidayYears(loadedYears);
+		return holidayYears;
+	}
+
+	/**
+	 * Load a country-year from the database in one range query, with recurring
+	 * holidays expanded into it
+	 */
+	private HolidayYear loadHolidayYear(String countryCode, int year) {
+		List<Holiday> holidays = queryHolidays(countryCode, LocalDate.of(year, 1, 1),
+				LocalDate.of(year, 12, 31));
+		log.debug("Loaded {} holidays for {} in {}", holidays.size(), countryCode, year);
+		return HolidayYear.of(countryCode, year,
+				recurrenceExpander.withRecurrences(countryCode, year, holidays));
 	}
 
 	/**
-	 * Cache holiday result
+	 * Query the holidays of a country in a date range, timing the database stage
 	 */
-	private void cacheHoliday(String cacheKey, Holiday holiday) {
+	private List<Holiday> queryHolidays(String countryCode, LocalDate startDate,
+			LocalDate endDate) {
+		long start = pipelineMetrics.start();
 		try {
-			redisTemplate.opsForValue().set(cacheKey, holiday, CACHE_TTL);
+			List<Holiday> holidays = holidayRepository.findByCountryCodeAndDateRange(
+					countryCode, startDate, endDate);
+			pipelineMetrics.recordStage("database", countryCode,
+					holidays.isEmpty() ? PipelineMetrics.MISS : PipelineMetrics.HIT,
+					start);
+			return holidays;
+		}
+		catch (RuntimeException e) {
+			pipelineMetrics.recordStage("database", countryCode, PipelineMetrics.ERROR,
+					start);
+			throw e;
+		}
+	}
+
+	/**
+	 * Query the holidays of every country on a date, timing the database stage
+	 */
+	private List<Holiday> queryHolidays(LocalDate date) {
+		long start = pipelineMetrics.start();
+		try {
+			List<Holiday> holidays = holidayRepository.findByDate(date);
+			pipelineMetrics.recordStage("database", ALL_COUNTRIES,
+					holidays.isEmpty() ? PipelineMetrics.MISS : PipelineMetrics.HIT,
+					start);
+			return holidays;
+		}
+		catch (RuntimeException e) {
+			pipelineMetrics.recordStage("database", ALL_COUNTRIES, PipelineMetrics.ERROR,
+					start);
+			throw e;
+		}
+	}
+
+	/**
+	 * Cache holiday year
+	 */
+	private void cacheHolidayYear(String cacheKey, HolidayYear holidayYear) {
+		try {
+			holidayYearRedisTemplate.opsForValue().set(cacheKey, holidayYear, CACHE_TTL);
 		}
 		catch (Exception e) {
-			log.warn("Failed to cache holiday for key: {}", cacheKey, e);
+			log.warn("Failed to cache holidays for key: {}", cacheKey, e);
 		}
 	}
 
 	/**
-	 * Clear holiday cache for a specific date and country
+	 * Cache several holiday years in one pipelined round trip
+	 */
+	private void cacheHolidayYears(Map<String, HolidayYear> holidayYears) {
+		try {
+			holidayYearRedisTemplate.executePipelined(new SessionCallback<Object>() {
+				@Override
+				@SuppressWarnings("unchecked")
+				public <K, V> Object execute(RedisOperations<K, V> operations) {
+					ValueOperations<String, HolidayYear> values =
+							(ValueOperations<String, HolidayYear>)
+									operations.opsForValue();
+					holidayYears.forEach(
+							(key, value) -> values.set(key, value, CACHE_TTL));
+					return null;
+				}
+			});
+		}
+		catch (Exception e) {
+			log.warn("Failed to cache holidays for keys: {}", holidayYears.keySet(), e);
+		}
+	}
+
+	/**
+	 * Clear holiday cache for the year of a specific date and country
 	 */
 	public void clearHolidayCache(LocalDate date, String countryCode) {
-		String cacheKey = String.format(HOLIDAY_CACHE_KEY, countryCode, date.toString());
-		redisTemplate.delete(cacheKey);
+		holidayYearRedisTemplate.delete(redisKey(countryCode, date.getYear()));
+		eventPublisher.publishEvent(
+				CalendarDataChangedEvent.holidaysChanged(countryCode, date.getYear()));
 	}
 
 	/**
-	 * Clear all holiday cache for a country
+	 * Clear all holiday cache for a country by moving it to a new key generation
 	 */
 	public void clearHolidayCacheForCountry(String countryCode) {
-		String pattern =
-				String.format(HOLIDAY_CACHE_KEY.replace(":%s", ""), countryCode) + ":*";
-		redisTemplate.delete(redisTemplate.keys(pattern));
+		stringRedisTemplate.opsForValue().increment(GENERATION_KEY + ":" + countryCode);
+		eventPublisher.publishEvent(
+				CalendarDataChangedEvent.holidaysChanged(countryCode, null));
 	}
 
 	/**
-	 * Clear all holiday cache (useful for fixing serialization issues)
+	 * Clear all holiday cache (useful for fixing serialization issues) by moving every
+	 * country to a new key generation
 	 */
 	public void clearAllHolidayCache() {
-		String pattern = "holiday:*";
-		redisTemplate.delete(redisTemplate.keys(pattern));
+		stringRedisTemplate.opsForValue().increment(GENERATION_KEY);
+		eventPublisher.publishEvent(CalendarDataChangedEvent.allChanged());
 		log.info("Cleared all holiday cache");
 	}
 
 	/**
-	 * Convert cached object to Holiday, handling both Holiday objects and LinkedHashMap
+	 * Drop the local copies a calendar data change affects, before the calendar engine
+	 * recompiles from them
 	 */
-	private Holiday convertToHoliday(Object cachedObject) {
-		if (cachedObject instanceof Holiday) {
-			return (Holiday) cachedObject;
+	@EventListener
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	public void onCalendarDataChanged(CalendarDataChangedEvent event) {
+		if (event.getBusinessCalendarId() != null) {
+			return;
+		}
+		if (event.getCountryCode() == null) {
+			localCache.invalidateAll();
+			externalMisses.invalidateAll();
+			generations.clear();
+			return;
 		}
 
-		if (cachedObject instanceof LinkedHashMap) {
-			try {
-				@SuppressWarnings("unchecked")
-				Map<String, Object> map = (Map<String, Object>) cachedObject;
+		String countryCode = event.getCountryCode();
+		if (event.getYear() != null) {
+			localCache.invalidate(
+					String.format(HOLIDAY_CACHE_KEY, countryCode, event.getYear()));
+		}
+		else {
+			String prefix = "holiday:" + countryCode + ":";
+			localCache.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+			generations.remove(countryCode);
+		}
+		externalMisses.asMap().keySet()
+				.removeIf(key -> key.startsWith(countryCode + ":"));
+	}
 
-				// Check if this is a "no holiday" marker
-				Object id = map.get("id");
-				if (id != null && id.equals(-1L)) {
-					return Holiday.noHoliday();
-				}
+	/**
+	 * Delete holiday years cached under an old generation, ahead of their TTL. Walks
+	 * the keyspace with SCAN, so Redis is never blocked the way KEYS blocks it.
+	 */
+	@Scheduled(fixedDelayString = "${calendar-service.cache.sweeper.interval:PT1H}",
+			initialDelayString = "${calendar-service.cache.sweeper.interval:PT1H}")
+	public void sweepStaleHolidayCache() {
+		if (!sweeperEnabled) {
+			return;
+		}
 
-				// For regular holidays, we need to reconstruct from the map
-				// This is a fallback for existing cached data
-				log.warn(
-						"Found LinkedHashMap in cache, this indicates serialization " +
-								"issue. " +
-								"Consider clearing cache or updating serialization " +
-								"configuration.");
+		ScanOptions options = ScanOptions.scanOptions()
+				.match("holiday:*")
+				.count(sweeperBatchSize)
+				.build();
+		Map<String, String> current = new HashMap<>();
+		List<String> stale = new ArrayList<>();
+		long deleted = 0;
+		try (Cursor<String> keys = holidayYearRedisTemplate.scan(options)) {
+			while (keys.hasNext()) {
+				String key = keys.next();
+				// holiday:country:generation:year; anything else is left over too
+				String[] parts = key.split(":");
+				if (parts.length != 4 || !parts[2].equals(
+						current.computeIfAbsent(parts[1], this::readGeneration))) {
+					stale.add(key);
+				}
+				if (stale.size() >= sweeperBatchSize) {
+					deleted += holidayYearRedisTemplate.delete(stale);
+					stale.clear();
+				}
+			}
+			if (!stale.isEmpty()) {
+				deleted += holidayYearRedisTemplate.delete(stale);
+			}
+			log.info("Swept {} stale holiday cache entries", deleted);
+		}
+		catch (Exception e) {
+			log.warn("Failed to sweep stale holiday cache entries", e);
+		}
+	}
 
-				// Return null to force database lookup
-				return null;
+	/**
+	 * Redis key of a country-year under the country's current generation
+	 */
+	private String redisKey(String countryCode, int year) {
+		String generation = generations.get(countryCode);
+		if (generation == null) {
+			try {
+				generation = readGeneration(countryCode);
+				generations.put(countryCode, generation);
 			}
 			catch (Exception e) {
-				log.warn("Failed to convert LinkedHashMap to Holiday", e);
-				return null;
+				log.warn("Failed to read cache generation of {}", countryCode, e);
+				generation = "0.0";
 			}
 		}
+		return String.format(HOLIDAY_REDIS_KEY, countryCode, generation, year);
+	}
+
+	/**
+	 * Read the global and the country generation from Redis in one MGET
+	 */
+	private String readGeneration(String countryCode) {
+		List<String> counters = stringRedisTemplate.opsForValue().multiGet(
+				List.of(GENERATION_KEY, GENERATION_KEY + ":" + countryCode));
+		if (counters == null) {
+			return "0.0";
+		}
+		return Objects.requireNonNullElse(counters.get(0), "0") + "." +
+				Objects.requireNonNullElse(counters.get(1), "0");
+	}
 
-		log.warn("Unexpected cached object type: {}", cachedObject.getClass());
-		return null;
+	/**
+	 * Get several holiday years from Redis with one MGET, with null for every key that
+	 * is missing or unreadable
+	 */
+	private List<HolidayYear> getCachedHolidayYears(String countryCode,
+			List<String> cacheKeys) {
+		long start = pipelineMetrics.start();
+		try {
+			List<HolidayYear> cached =
+					holidayYearRedisTemplate.opsForValue().multiGet(cacheKeys);
+			if (cached != null) {
+				boolean complete = cached.stream().noneMatch(Objects::isNull);
+				pipelineMetrics.recordStage("redis", countryCode,
+						complete ? PipelineMetrics.HIT : PipelineMetrics.MISS, start);
+				return cached;
+			}
+		}
+		catch (Exception e) {
+			log.warn("Failed to retrieve cached holidays for keys: {}", cacheKeys, e);
+		}
+		pipelineMetrics.recordStage("redis", countryCode, PipelineMetrics.ERROR, start);
+		return Collections.nCopies(cacheKeys.size(), null);
 	}
 
 	/**
-	 * Safely get object from Redis cache with error handling
+	 * Safely get holiday year from Redis cache with error handling
 	 */
-	private Object getCachedObject(String cacheKey) {
+	private HolidayYear getCachedHolidayYear(String countryCode, String cacheKey) {
+		long start = pipelineMetrics.start();
 		try {
-			return redisTemplate.opsForValue().get(cacheKey);
+			HolidayYear cached = holidayYearRedisTemplate.opsForValue().get(cacheKey);
+			pipelineMetrics.recordStage("redis", countryCode,
+					cached != null ? PipelineMetrics.HIT : PipelineMetrics.MISS, start);
+			return cached;
 		}
 		catch (Exception e) {
-			log.warn("Failed to retrieve cached object for key: {}", cacheKey, e);
+			pipelineMetrics.recordStage("redis", countryCode, PipelineMetrics.ERROR,
+					start);
+			log.warn("Failed to retrieve cached holidays for key: {}", cacheKey, e);
 			// Clear the problematic cache entry
-			redisTemplate.delete(cacheKey);
+			holidayYearRedisTemplate.delete(cacheKey);
 			return null;
 		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,125 @@
+package com.feng.calendar.service;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Metrics of the stages of the date-type pipeline, exported through the actuator:
+ *
+ * <ul>
+ * <li>calendar.pipeline.checks: date checks by country and path, compiled (answered
+ * from a compiled year) or lookup (through the stages below)</li>
+ * <li>calendar.pipeline.stage: time spent per stage (weekend, holiday, business-rule,
+ * redis, database, external) by country and outcome (hit, miss or error)</li>
+ * <li>calendar.holiday.local-cache: in-process holiday cache lookups by country and
+ * outcome</li>
+ * </ul>
+ *
+ * Meters are resolved once per tag combination and kept, so recording is a map lookup
+ * plus an add. The compiled path is only counted, never timed, and counting it
+ * allocates nothing.
+ */
+@Component
+public class PipelineMetrics {
+
+	public static final String HIT = "hit";
+
+	public static final String MISS = "miss";
+
+	public static final String ERROR = "error";
+
+	private final MeterRegistry meterRegistry;
+
+	private final Map<String, Counter> compiledChecks = new ConcurrentHashMap<>();
+
+	private final Map<MeterKey, Counter> counters = new ConcurrentHashMap<>();
+
+	private final Map<MeterKey, Timer> stageTimers = new ConcurrentHashMap<>();
+
+	public PipelineMetrics(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	/**
+	 * Start timing a stage
+	 */
+	public long start() {
+		return System.nanoTime();
+	}
+
+	/**
+	 * Record a stage started at {@link #start()}
+	 */
+	public void recordStage(String stage, String countryCode, String outcome,
+			long startNanos) {
+		long elapsed = System.nanoTime() - startNanos;
+		stageTimers.computeIfAbsent(new MeterKey(stage, country(countryCode), outcome),
+						key -> Timer.builder("calendar.pipeline.stage")
+								.description("Time spent in a stage of the date-type " +
+										"pipeline")
+								.tag("stage", key.name())
+								.tag("country", key.country())
+								.tag("outcome", key.outcome())
+								.register(meterRegistry))
+				.record(elapsed, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Count a date check answered from a compiled year
+	 */
+	public void countCompiledCheck(String countryCode) {
+		String country = country(countryCode);
+		Counter counter = compiledChecks.get(country);
+		if (counter == null) {
+			counter = compiledChecks.computeIfAbsent(country,
+					key -> checks(key, "compiled"));
+		}
+		counter.increment();
+	}
+
+	/**
+	 * Count a date check that went through the lookup stages
+	 */
+	public void countLookupCheck(String countryCode) {
+		counters.computeIfAbsent(new MeterKey("checks", country(countryCode), "lookup"),
+						key -> checks(key.country(), key.outcome()))
+				.increment();
+	}
+
+	/**
+	 * Count a lookup in the in-process holiday cache
+	 */
+	public void countLocalCache(String countryCode, String outcome) {
+		MeterKey meterKey = new MeterKey("local-cache", country(countryCode), outcome);
+		counters.computeIfAbsent(meterKey,
+						key -> Counter.builder("calendar.holiday.local-cache")
+								.description("In-process holiday cache lookups")
+								.tag("country", key.country())
+								.tag("outcome", key.outcome())
+								.register(meterRegistry))
+				.increment();
+	}
+
+	private Counter checks(String countryCode, String path) {
+		return Counter.builder("calendar.pipeline.checks")
+				.description("Date checks, answered from a compiled year or looked up")
+				.tag("country", countryCode)
+				.tag("path", path)
+				.register(meterRegistry);
+	}
+
+	private static String country(String countryCode) {
+		return Objects.requireNonNullElse(countryCode, "unknown");
+	}
+
+	private record MeterKey(String name, String country, String outcome) {
+	}
+}
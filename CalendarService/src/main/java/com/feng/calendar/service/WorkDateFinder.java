@@ -1,9 +1,13 @@
 package com.feng.calendar.service;
 
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
+import com.feng.calendar.engine.WorkDayIndex;
 import com.feng.calendar.exception.CalendarServiceException;
 import com.feng.calendar.model.dto.DateTypeResponse;
 import com.feng.calendar.model.dto.WorkDateResponse;
@@ -22,41 +26,65 @@ public class WorkDateFinder {
 
 	private final DateTypeChecker dateTypeChecker;
 
-	private static final int MAX_SEARCH_DAYS = 30; // Prevent infinite loops
+	private final WorkDayIndex workDayIndex;
 
 	/**
 	 * Find the next work date from a given date
 	 */
 	public WorkDateResponse findNextWorkDate(LocalDate fromDate, String countryCode,
 			String businessCalendarId) {
+		return findNextWorkDate(fromDate, countryCode, businessCalendarId, true);
+	}
+
+	/**
+	 * Find the next work date from a given date, listing the skipped dates only when
+	 * asked for
+	 */
+	public WorkDateResponse findNextWorkDate(LocalDate fromDate, String countryCode,
+			String businessCalendarId, boolean includeSkippedDates) {
+		Optional<LocalDate> indexed =
+				workDayIndex.nextWorkDate(fromDate, countryCode, businessCalendarId);
+		if (indexed.isPresent()) {
+			LocalDate nextWorkDate = indexed.get();
+			return WorkDateResponse.builder()
+					.fromDate(fromDate)
+					.nextWorkDate(nextWorkDate)
+					.daysSkipped(daysBetween(fromDate, nextWorkDate))
+					.skippedDates(includeSkippedDates ?
+							listSkippedDates(fromDate.plusDays(1), nextWorkDate,
+									countryCode, businessCalendarId) : null)
+					.build();
+		}
+
+		// Year not compiled, probe day by day
 		LocalDate currentDate = fromDate.plusDays(1);
+		LocalDate limit = fromDate.plusYears(WorkDayIndex.MAX_EMPTY_YEARS);
 		List<WorkDateResponse.SkippedDate> skippedDates = new ArrayList<>();
 		int daysChecked = 0;
 
-		while (daysChecked < MAX_SEARCH_DAYS) {
+		while (currentDate.isBefore(limit)) {
 			DateTypeResponse dateCheck =
 					dateTypeChecker.checkDateType(currentDate, countryCode,
-							businessCalendarId);
+							businessCalendarId, false);
 
 			if (dateCheck.getIsWorkDay()) {
 				return WorkDateResponse.builder()
 						.fromDate(fromDate)
 						.nextWorkDate(currentDate)
 						.daysSkipped(daysChecked)
-						.skippedDates(skippedDates)
+						.skippedDates(includeSkippedDates ? skippedDates : null)
 						.build();
 			}
 
-			// Add to skipped dates
-			skippedDates.add(createSkippedDate(currentDate, dateCheck));
+			if (includeSkippedDates) {
+				skippedDates.add(createSkippedDate(currentDate, dateCheck));
+			}
 
 			currentDate = currentDate.plusDays(1);
 			daysChecked++;
 		}
 
-		throw new CalendarServiceException(
-				"Could not find next work date within " + MAX_SEARCH_DAYS +
-						" days from " + fromDate);
+		throw noWorkDays(fromDate);
 	}
 
 	/**
@@ -64,33 +92,63 @@ public class WorkDateFinder {
 	 */
 	public WorkDateResponse findPreviousWorkDate(LocalDate fromDate, String countryCode,
 			String businessCalendarId) {
+		return findPreviousWorkDate(fromDate, countryCode, businessCalendarId, true);
+	}
+
+	/**
+	 * Find the previous work date from a given date, listing the skipped dates only
+	 * when asked for
+	 */
+	public WorkDateResponse findPreviousWorkDate(LocalDate fromDate, String countryCode,
+			String businessCalendarId, boolean includeSkippedDates) {
+		Optional<LocalDate> indexed =
+				workDayIndex.previousWorkDate(fromDate, countryCode, businessCalendarId);
+		if (indexed.isPresent()) {
+			LocalDate previousWorkDate = indexed.get();
+			List<WorkDateResponse.SkippedDate> skippedDates = null;
+			if (includeSkippedDates) {
+				// Reported nearest first, like the day-by-day search
+				skippedDates = listSkippedDates(previousWorkDate.plusDays(1), fromDate,
+						countryCode, businessCalendarId);
+				Collections.reverse(skippedDates);
+			}
+			return WorkDateResponse.builder()
+					.fromDate(fromDate)
+					.previousWorkDate(previousWorkDate)
+					.daysSkipped(daysBetween(previousWorkDate, fromDate))
+					.skippedDates(skippedDates)
+					.build();
+		}
+
+		// Year not compiled, probe day by day
 		LocalDate currentDate = fromDate.minusDays(1);
+		LocalDate limit = fromDate.minusYears(WorkDayIndex.MAX_EMPTY_YEARS);
 		List<WorkDateResponse.SkippedDate> skippedDates = new ArrayList<>();
 		int daysChecked = 0;
 
-		while (daysChecked < MAX_SEARCH_DAYS) {
+		while (currentDate.isAfter(limit)) {
 			DateTypeResponse dateCheck =
 					dateTypeChecker.checkDateType(currentDate, countryCode,
-							businessCalendarId);
+							businessCalendarId, false);
 
 			if (dateCheck.getIsWorkDay()) {
 				return WorkDateResponse.builder()
 						.fromDate(fromDate)
 						.previousWorkDate(currentDate)
 						.daysSkipped(daysChecked)
-						.skippedDates(skippedDates)
+						.skippedDates(includeSkippedDates ? skippedDates : null)
 						.build();
 			}
 
-			skippedDates.add(createSkippedDate(currentDate, dateCheck));
+			if (includeSkippedDates) {
+				skippedDates.add(createSkippedDate(currentDate, dateCheck));
+			}
 
 			currentDate = currentDate.minusDays(1);
 			daysChecked++;
 		}
 
-		throw new CalendarServiceException(
-				"Could not find previous work date within " + MAX_SEARCH_DAYS +
-						" days from " + fromDate);
+		throw noWorkDays(fromDate);
 	}
 
 	/**
@@ -99,12 +157,13 @@ public class WorkDateFinder {
 	public WorkDateResponse findNextWorkDateSkipWeekendsOnly(LocalDate fromDate,
 			String countryCode) {
 		LocalDate currentDate = fromDate.plusDays(1);
+		LocalDate limit = fromDate.plusYears(WorkDayIndex.MAX_EMPTY_YEARS);
 		List<WorkDateResponse.SkippedDate> skippedDates = new ArrayList<>();
 		int daysChecked = 0;
 
-		while (daysChecked < MAX_SEARCH_DAYS) {
+		while (currentDate.isBefore(limit)) {
 			DateTypeResponse dateCheck =
-					dateTypeChecker.checkDateType(currentDate, countryCode, null);
+					dateTypeChecker.checkDateType(currentDate, countryCode, null, false);
 
 			// Only skip weekends, not holidays
 			if (dateCheck.getDateType() !=
@@ -123,9 +182,90 @@ public class WorkDateFinder {
 			daysChecked++;
 		}
 
-		throw new CalendarServiceException(
-				"Could not find next work date (weekends only) within " +
-						MAX_SEARCH_DAYS + " days from " + fromDate);
+		throw noWorkDays(fromDate);
+	}
+
+	/**
+	 * Find the work date n work days after (n &gt; 0) or before (n &lt; 0) a date
+	 */
+	public LocalDate findWorkDateAfter(LocalDate fromDate, int n, String countryCode,
+			String businessCalendarId) {
+		Optional<LocalDate> indexed =
+				workDayIndex.addWorkDays(fromDate, n, countryCode, businessCalendarId);
+		if (indexed.isPresent()) {
+			return indexed.get();
+		}
+
+		// Year not compiled, walk the calendar once
+		int step = n > 0 ? 1 : -1;
+		LocalDate currentDate = fromDate;
+		LocalDate limit = fromDate.plusYears(step * WorkDayIndex.MAX_EMPTY_YEARS);
+		long remaining = Math.abs((long) n);
+		while (remaining > 0) {
+			currentDate = currentDate.plusDays(step);
+			if (currentDate.equals(limit)) {
+				throw noWorkDays(fromDate);
+			}
+			if (dateTypeChecker.checkDateType(currentDate, countryCode,
+					businessCalendarId, false).getIsWorkDay()) {
+				remaining--;
+				limit = currentDate.plusYears(step * WorkDayIndex.MAX_EMPTY_YEARS);
+			}
+		}
+		return currentDate;
+	}
+
+	/**
+	 * Count the work dates after one date up to and including another; negative when
+	 * the second date comes first
+	 */
+	public int countWorkDatesBetween(LocalDate fromDate, LocalDate toDate,
+			String countryCode, String businessCalendarId) {
+		Optional<Integer> indexed = workDayIndex.countWorkDays(fromDate, toDate,
+				countryCode, businessCalendarId);
+		if (indexed.isPresent()) {
+			return indexed.get();
+		}
+
+		// Year not compiled, walk the calendar once
+		LocalDate start = toDate.isBefore(fromDate) ? toDate : fromDate;
+		LocalDate end = toDate.isBefore(fromDate) ? fromDate : toDate;
+		int count = 0;
+		for (LocalDate date = start.plusDays(1); !date.isAfter(end);
+				date = date.plusDays(1)) {
+			if (dateTypeChecker.checkDateType(date, countryCode, businessCalendarId,
+					false).getIsWorkDay()) {
+				count++;
+			}
+		}
+		return toDate.isBefore(fromDate) ? -count : count;
+	}
+
+	/**
+	 * List the non-work dates in [startInclusive, endExclusive)
+	 */
+	private List<WorkDateResponse.SkippedDate> listSkippedDates(LocalDate startInclusive,
+			LocalDate endExclusive, String countryCode, String businessCalendarId) {
+		List<WorkDateResponse.SkippedDate> skippedDates = new ArrayList<>();
+		for (LocalDate date = startInclusive; date.isBefore(endExclusive);
+				date = date.plusDays(1)) {
+			skippedDates.add(createSkippedDate(date,
+					dateTypeChecker.checkDateType(date, countryCode, businessCalendarId,
+							false)));
+		}
+		return skippedDates;
+	}
+
+	private static CalendarServiceException noWorkDays(LocalDate fromDate) {
+		return new CalendarServiceException("No work days within " +
+				WorkDayIndex.MAX_EMPTY_YEARS + " consecutive years of " + fromDate);
+	}
+
+	/**
+	 * Number of days strictly between two dates
+	 */
+	private static int daysBetween(LocalDate start, LocalDate end) {
+		return (int) ChronoUnit.DAYS.between(start, end) - 1;
 	}
 
 	/**
@@ -0,0 +1,73 @@
+package com.feng.calendar.web;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import com.feng.calendar.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Bounds the calendar requests served at once. Past the limit a request waits up to the
+ * acquire timeout for a slot and is then turned away with a 503, so a burst queues
+ * briefly here instead of piling up on the database connection pool.
+ *
+ * On platform threads Tomcat's thread pool bounds concurrency as well; on virtual
+ * threads every request gets a thread of its own, and this is the bound.
+ */
+public class CalendarBulkhead implements HandlerInterceptor {
+
+	private final Semaphore permits;
+
+	private final long acquireTimeoutNanos;
+
+	private final Counter rejected;
+
+	public CalendarBulkhead(MeterRegistry meterRegistry, int maxConcurrentRequests,
+			Duration acquireTimeout) {
+		this.permits = new Semaphore(maxConcurrentRequests, true);
+		this.acquireTimeoutNanos = acquireTimeout.toNanos();
+		Gauge.builder("calendar.requests.active", permits,
+						p -> maxConcurrentRequests - p.availablePermits())
+				.description("Calendar requests being served")
+				.register(meterRegistry);
+		this.rejected = Counter.builder("calendar.requests.rejected")
+				.description("Calendar requests turned away at the concurrency limit")
+				.register(meterRegistry);
+	}
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response,
+			Object handler) {
+		boolean acquired;
+		try {
+			acquired = permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			acquired = false;
+		}
+		if (!acquired) {
+			rejected.increment();
+			throw new ServiceOverloadedException(
+					"Too many concurrent calendar requests, retry shortly");
+		}
+		return true;
+	}
+
+	/**
+	 * Only called once {@link #preHandle} has returned true, so a permit is held
+	 */
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+			Object handler, Exception ex) {
+		permits.release();
+	}
+}
@@ -0,0 +1,58 @@
+package com.feng.calendar.web;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache-Control policy for calendar answers, chosen by the latest date an answer
+ * depends on. Answers about the past practically never change; the coming weeks are
+ * what holiday and rule updates usually touch; the far future changes again when new
+ * holidays are published.
+ */
+@Component
+public class CalendarCachePolicy {
+
+	@Value("${calendar-service.http-cache.past-max-age:P1D}")
+	private Duration pastMaxAge;
+
+	@Value("${calendar-service.http-cache.near-window:P90D}")
+	private Duration nearWindow;
+
+	@Value("${calendar-service.http-cache.near-max-age:PT5M}")
+	private Duration nearMaxAge;
+
+	@Value("${calendar-service.http-cache.future-max-age:PT1H}")
+	private Duration futureMaxAge;
+
+	/**
+	 * Cache-Control for an answer that depends on dates up to the given one
+	 */
+	public CacheControl forDate(LocalDate latestDate) {
+		LocalDate today = LocalDate.now();
+		Duration maxAge;
+		if (latestDate.isBefore(today)) {
+			maxAge = pastMaxAge;
+		}
+		else if (!latestDate.isAfter(today.plusDays(nearWindow.toDays()))) {
+			maxAge = nearMaxAge;
+		}
+		else {
+			maxAge = futureMaxAge;
+		}
+		return CacheControl.maxAge(maxAge).cachePublic();
+	}
+
+	/**
+	 * Cache-Control for an answer that depends on dates from the given one up to a
+	 * later date only known once the answer is computed, such as a next work date.
+	 * Never classed as past: the answer may reach today or beyond.
+	 */
+	public CacheControl forDatesFrom(LocalDate earliestDate) {
+		LocalDate today = LocalDate.now();
+		return forDate(earliestDate.isBefore(today) ? today : earliestDate);
+	}
+}
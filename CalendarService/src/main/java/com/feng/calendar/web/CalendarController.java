@@ -1,21 +1,45 @@
 package com.feng.calendar.web;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.feng.calendar.cache.CalendarDataVersions;
 import com.feng.calendar.exception.CalendarServiceException;
+import com.feng.calendar.exception.ServiceOverloadedException;
 import com.feng.calendar.model.dto.BulkDateRequest;
 import com.feng.calendar.model.dto.BulkDateResponse;
+import com.feng.calendar.model.dto.BusinessDaysResponse;
+import com.feng.calendar.model.dto.CalendarRangeResponse;
 import com.feng.calendar.model.dto.DateTypeResponse;
 import com.feng.calendar.model.dto.ErrorResponse;
+import com.feng.calendar.model.dto.MultiCountryDateRequest;
+import com.feng.calendar.model.dto.MultiCountryDateResponse;
 import com.feng.calendar.model.dto.WorkDateResponse;
+import com.feng.calendar.model.dto.WorkMomentResponse;
 import com.feng.calendar.service.CalendarService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -26,6 +50,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 /**
  * REST Controller for Calendar Service API endpoints
@@ -39,6 +64,14 @@ public class CalendarController {
 
 	private final CalendarService calendarService;
 
+	private final ObjectMapper objectMapper;
+
+	private final CalendarDataVersions calendarDataVersions;
+
+	private final CalendarCachePolicy calendarCachePolicy;
+
+	private final RequestCoalescer requestCoalescer;
+
 	/**
 	 * Check the type of a date
 	 */
@@ -48,15 +81,36 @@ public class CalendarController {
 			LocalDate date,
 			@RequestParam(name = "country", defaultValue = "US") String country,
 			@RequestParam(name = "businessCalendar", required = false)
-			String businessCalendar) {
+			String businessCalendar,
+			WebRequest webRequest) {
 
 		log.info("Checking date type for date: {}, country: {}, businessCalendar: {}",
 				date, country, businessCalendar);
 
-		DateTypeResponse response = calendarService.checkDateType(date, country,
-				businessCalendar);
+		return conditional(webRequest, "date-type", List.of(date), country,
+				businessCalendar, date,
+				() -> calendarService.checkDateType(date, country, businessCalendar));
+	}
 
-		return ResponseEntity.ok(response);
+	/**
+	 * Check whether an instant, now by default, falls on a work day in the country's
+	 * timezone. Not cacheable by clients: the answer for now changes at the country's
+	 * midnight.
+	 */
+	@GetMapping("/work-moment")
+	public ResponseEntity<WorkMomentResponse> getWorkMoment(
+			@RequestParam(name = "at", required = false) Instant at,
+			@RequestParam(name = "country", defaultValue = "US") String country,
+			@RequestParam(name = "businessCalendar", required = false)
+			String businessCalendar) {
+
+		log.info("Checking work moment at: {}, country: {}, businessCalendar: {}",
+				at != null ? at : "now", country, businessCalendar);
+
+		WorkMomentResponse response =
+				calendarService.checkWorkMoment(at, country, businessCalendar);
+
+		return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(response);
 	}
 
 	/**
@@ -70,18 +124,21 @@ public class CalendarController {
 			@RequestParam(name = "businessCalendar", required = false)
 			String businessCalendar,
 			@RequestParam(name = "skipWeekends", defaultValue = "true")
-			boolean skipWeekends) {
+			boolean skipWeekends,
+			@RequestParam(name = "includeSkippedDates", defaultValue = "true")
+			boolean includeSkippedDates,
+			WebRequest webRequest) {
 
 		log.info(
 				"Finding next work date from: {}, country: {}, businessCalendar: {}, " +
 						"skipWeekends: {}",
 				fromDate, country, businessCalendar, skipWeekends);
 
-		WorkDateResponse response =
-				calendarService.findNextWorkDate(fromDate, country, businessCalendar,
-						skipWeekends);
-
-		return ResponseEntity.ok(response);
+		return conditional(webRequest, "next-work-date",
+				List.of(fromDate, skipWeekends, includeSkippedDates), country,
+				businessCalendar, fromDate, WorkDateResponse::getNextWorkDate,
+				() -> calendarService.findNextWorkDate(fromDate, country,
+						businessCalendar, skipWeekends, includeSkippedDates));
 	}
 
 	/**
@@ -93,17 +150,100 @@ public class CalendarController {
 			LocalDate fromDate,
 			@RequestParam(name = "country", defaultValue = "US") String country,
 			@RequestParam(name = "businessCalendar", required = false)
-			String businessCalendar) {
+			String businessCalendar,
+			@RequestParam(name = "includeSkippedDates", defaultValue = "true")
+			boolean includeSkippedDates,
+			WebRequest webRequest) {
 
 		log.info("Finding previous work date from: {}, country: {}, businessCalendar: " +
 						"{}",
 				fromDate, country, businessCalendar);
 
-		WorkDateResponse response =
-				calendarService.findPreviousWorkDate(fromDate, country,
-						businessCalendar);
+		return conditional(webRequest, "previous-work-date",
+				List.of(fromDate, includeSkippedDates), country, businessCalendar,
+				fromDate,
+				() -> calendarService.findPreviousWorkDate(fromDate, country,
+						businessCalendar, includeSkippedDates));
+	}
 
-		return ResponseEntity.ok(response);
+	/**
+	 * Add business days to a date (negative values go backwards)
+	 */
+	@GetMapping("/add-business-days")
+	public ResponseEntity<BusinessDaysResponse> addBusinessDays(
+			@RequestParam("fromDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+			LocalDate fromDate,
+			@RequestParam("days") int days,
+			@RequestParam(name = "country", defaultValue = "US") String country,
+			@RequestParam(name = "businessCalendar", required = false)
+			String businessCalendar,
+			WebRequest webRequest) {
+
+		log.info("Adding {} business days to: {}, country: {}, businessCalendar: {}",
+				days, fromDate, country, businessCalendar);
+
+		// Going forwards, the answer depends on the dates up to the result
+		if (days > 0) {
+			return conditional(webRequest, "add-business-days", List.of(fromDate, days),
+					country, businessCalendar, fromDate, BusinessDaysResponse::getToDate,
+					() -> calendarService.addBusinessDays(fromDate, days, country,
+							businessCalendar));
+		}
+		return conditional(webRequest, "add-business-days", List.of(fromDate, days),
+				country, businessCalendar, fromDate,
+				() -> calendarService.addBusinessDays(fromDate, days, country,
+						businessCalendar));
+	}
+
+	/**
+	 * Count business days between two dates
+	 */
+	@GetMapping("/business-days-between")
+	public ResponseEntity<BusinessDaysResponse> getBusinessDaysBetween(
+			@RequestParam("fromDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+			LocalDate fromDate,
+			@RequestParam("toDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+			LocalDate toDate,
+			@RequestParam(name = "country", defaultValue = "US") String country,
+			@RequestParam(name = "businessCalendar", required = false)
+			String businessCalendar,
+			WebRequest webRequest) {
+
+		log.info("Counting business days from: {} to: {}, country: {}, " +
+						"businessCalendar: {}",
+				fromDate, toDate, country, businessCalendar);
+
+		LocalDate latestDate = toDate.isAfter(fromDate) ? toDate : fromDate;
+		return conditional(webRequest, "business-days-between",
+				List.of(fromDate, toDate), country, businessCalendar, latestDate,
+				() -> calendarService.businessDaysBetween(fromDate, toDate, country,
+						businessCalendar));
+	}
+
+	/**
+	 * Get a compact calendar of a date range: a work-day bitmask plus the named
+	 * non-work days
+	 */
+	@GetMapping("/range")
+	public ResponseEntity<CalendarRangeResponse> getCalendarRange(
+			@RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+			LocalDate from,
+			@RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+			LocalDate to,
+			@RequestParam(name = "country", defaultValue = "US") String country,
+			@RequestParam(name = "businessCalendar", required = false)
+			String businessCalendar,
+			WebRequest webRequest) {
+
+		log.info("Getting calendar range from: {} to: {}, country: {}, " +
+						"businessCalendar: {}",
+				from, to, country, businessCalendar);
+
+		LocalDate latestDate = to.isAfter(from) ? to : from;
+		return conditional(webRequest, "range", List.of(from, to), country,
+				businessCalendar, latestDate,
+				() -> calendarService.getCalendarRange(from, to, country,
+						businessCalendar));
 	}
 
 	/**
@@ -120,6 +260,61 @@ public class CalendarController {
 		return ResponseEntity.ok(response);
 	}
 
+	/**
+	 * Check dates across many countries in one request
+	 */
+	@PostMapping("/multi-country-check")
+	public ResponseEntity<MultiCountryDateResponse> multiCountryCheck(
+			@Valid @RequestBody MultiCountryDateRequest request) {
+		log.info("Processing multi-country check for {} dates in {} countries",
+				request.getDates().size(), request.getCountries().size());
+
+		MultiCountryDateResponse response =
+				calendarService.processMultiCountryDates(request);
+
+		return ResponseEntity.ok(response);
+	}
+
+	/**
+	 * Check newline-delimited ISO dates, streaming one DateTypeResponse per line back
+	 * as the results are computed
+	 */
+	@PostMapping(value = "/bulk-check/stream",
+			consumes = MediaType.APPLICATION_NDJSON_VALUE,
+			produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public void bulkCheckStream(
+			@RequestParam(name = "country", defaultValue = "US") String country,
+			@RequestParam(name = "businessCalendar", required = false)
+			String businessCalendar,
+			@RequestParam(name = "includeMetadata", defaultValue = "true")
+			boolean includeMetadata,
+			InputStream body, HttpServletResponse response) throws IOException {
+		log.info("Streaming bulk date check for country: {}, businessCalendar: {}",
+				country, businessCalendar);
+
+		response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+		response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+		OutputStream out = response.getOutputStream();
+		BufferedReader reader =
+				new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+
+		long total = calendarService.processBulkDateStream(reader, country,
+				businessCalendar, includeMetadata, results -> {
+					try {
+						for (DateTypeResponse result : results) {
+							out.write(objectMapper.writeValueAsBytes(result));
+							out.write('\n');
+						}
+						out.flush();
+					}
+					catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+
+		log.info("Streamed {} date checks for country: {}", total, country);
+	}
+
 	/**
 	 * Get available countries
 	 */
@@ -146,6 +341,56 @@ public class CalendarController {
 		return ResponseEntity.ok(supported);
 	}
 
+	/**
+	 * Answer a calendar GET with the data version of the country (and business
+	 * calendar) as a strong ETag. A matching If-None-Match gets 304 Not Modified
+	 * without computing the answer. Cache-Control follows the latest date the answer
+	 * depends on.
+	 *
+	 * Identical requests in flight at the same time, by operation, its arguments,
+	 * country and business calendar, share one computation of the answer.
+	 */
+	private <T> ResponseEntity<T> conditional(WebRequest webRequest, String operation,
+			List<?> arguments, String country, String businessCalendar,
+			LocalDate latestDate, Supplier<T> computation) {
+		return conditional(webRequest, operation, arguments, country, businessCalendar,
+				latestDate, null, computation);
+	}
+
+	/**
+	 * Conditional answer whose latest date is only known from the answer itself, read
+	 * by answerLatestDate; a 304, which computes nothing, is cached as if the answer
+	 * reached at least today.
+	 */
+	private <T> ResponseEntity<T> conditional(WebRequest webRequest, String operation,
+			List<?> arguments, String country, String businessCalendar,
+			LocalDate latestDate, Function<T, LocalDate> answerLatestDate,
+			Supplier<T> computation) {
+		List<Object> key = new ArrayList<>(arguments);
+		key.add(country);
+		key.add(businessCalendar);
+		Supplier<T> answer = () -> requestCoalescer.execute(operation, key, computation);
+
+		String version = calendarDataVersions.version(country, businessCalendar);
+		if (version == null) {
+			return ResponseEntity.ok(answer.get());
+		}
+
+		// Sets the ETag header, and the 304 status when the client's copy is current
+		if (webRequest.checkNotModified(version)) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+					.cacheControl(answerLatestDate == null ?
+							calendarCachePolicy.forDate(latestDate) :
+							calendarCachePolicy.forDatesFrom(latestDate))
+					.build();
+		}
+		T body = answer.get();
+		return ResponseEntity.ok()
+				.cacheControl(calendarCachePolicy.forDate(answerLatestDate == null ?
+						latestDate : answerLatestDate.apply(body)))
+				.body(body);
+	}
+
 	/**
 	 * Exception handler for CalendarServiceException
 	 */
@@ -164,6 +409,26 @@ public class CalendarController {
 		return ResponseEntity.badRequest().body(error);
 	}
 
+	/**
+	 * Exception handler for requests turned away at the concurrency limit
+	 */
+	@ExceptionHandler(ServiceOverloadedException.class)
+	public ResponseEntity<ErrorResponse> handleOverloadedException(
+			ServiceOverloadedException e) {
+		log.warn("Calendar request rejected: {}", e.getMessage());
+
+		ErrorResponse error = ErrorResponse.builder()
+				.error("SERVICE_OVERLOADED")
+				.message(e.getMessage())
+				.timestamp(Instant.now())
+				.status(503)
+				.build();
+
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+				.header(HttpHeaders.RETRY_AFTER, "1")
+				.body(error);
+	}
+
 	/**
 	 * Exception handler for validation errors
 	 */
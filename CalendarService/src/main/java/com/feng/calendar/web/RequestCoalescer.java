@@ -0,0 +1,103 @@
+package com.feng.calendar.web;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Single-flight coalescing of identical calendar requests.
+ *
+ * While a computation for an operation and its arguments is in flight, concurrent
+ * callers asking the same question wait for it and share its result (or exception)
+ * instead of running the lookup chain again. Nothing is kept once the computation
+ * completes, so this is not a cache.
+ */
+@Component
+public class RequestCoalescer {
+
+	private final Map<List<Object>, CompletableFuture<Object>> inFlight =
+			new ConcurrentHashMap<>();
+
+	private final AtomicLong executed = new AtomicLong();
+
+	private final AtomicLong coalesced = new AtomicLong();
+
+	private final Counter executedRequests;
+
+	private final Counter coalescedRequests;
+
+	public RequestCoalescer(MeterRegistry meterRegistry) {
+		this.executedRequests = requests(meterRegistry, "executed");
+		this.coalescedRequests = requests(meterRegistry, "coalesced");
+		Gauge.builder("calendar.requests.coalescing.ratio", this,
+						RequestCoalescer::coalescingRatio)
+				.description("Share of calendar requests answered by another " +
+						"request's computation")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Run a computation, or join the identical one already in flight
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T execute(String operation, List<?> arguments, Supplier<T> computation) {
+		List<Object> key = new ArrayList<>(arguments.size() + 1);
+		key.add(operation);
+		key.addAll(arguments);
+
+		CompletableFuture<Object> own = new CompletableFuture<>();
+		CompletableFuture<Object> existing = inFlight.putIfAbsent(key, own);
+		if (existing != null) {
+			coalesced.incrementAndGet();
+			coalescedRequests.increment();
+			try {
+				return (T) existing.join();
+			}
+			catch (CompletionException e) {
+				if (e.getCause() instanceof RuntimeException cause) {
+					throw cause;
+				}
+				throw e;
+			}
+		}
+
+		executed.incrementAndGet();
+		executedRequests.increment();
+		try {
+			T result = computation.get();
+			own.complete(result);
+			return result;
+		}
+		catch (RuntimeException | Error e) {
+			own.completeExceptionally(e);
+			throw e;
+		}
+		finally {
+			inFlight.remove(key, own);
+		}
+	}
+
+	private static Counter requests(MeterRegistry meterRegistry, String outcome) {
+		return Counter.builder("calendar.requests")
+				.description("Calendar requests, computed or coalesced into another")
+				.tag("outcome", outcome)
+				.register(meterRegistry);
+	}
+
+	private double coalescingRatio() {
+		long coalescedCount = coalesced.get();
+		long total = executed.get() + coalescedCount;
+		return total == 0 ? 0.0 : (double) coalescedCount / total;
+	}
+}
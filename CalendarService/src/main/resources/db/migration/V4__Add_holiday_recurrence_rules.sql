@@ -0,0 +1,46 @@
+-- Recurrence rules for seeded holidays that do not fall on a fixed date.
+-- Fixed-date recurring holidays need no rule: they repeat on their month and day.
+
+UPDATE holidays SET recurrence_rule = 'FREQ=YEARLY;BYMONTH=1;BYDAY=3MO'
+WHERE name = 'Martin Luther King Jr. Day'
+  AND country_id = (SELECT id FROM countries WHERE code = 'US');
+
+UPDATE holidays SET recurrence_rule = 'FREQ=YEARLY;BYMONTH=2;BYDAY=3MO'
+WHERE name = 'Presidents'' Day'
+  AND country_id = (SELECT id FROM countries WHERE code = 'US');
+
+UPDATE holidays SET recurrence_rule = 'FREQ=YEARLY;BYMONTH=5;BYDAY=-1MO'
+WHERE name = 'Memorial Day'
+  AND country_id = (SELECT id FROM countries WHERE code = 'US');
+
+UPDATE holidays SET recurrence_rule = 'FREQ=YEARLY;BYMONTH=9;BYDAY=1MO'
+WHERE name = 'Labor Day'
+  AND country_id = (SELECT id FROM countries WHERE code = 'US');
+
+UPDATE holidays SET recurrence_rule = 'FREQ=YEARLY;BYMONTH=10;BYDAY=2MO'
+WHERE name = 'Columbus Day'
+  AND country_id = (SELECT id FROM countries WHERE code = 'US');
+
+UPDATE holidays SET recurrence_rule = 'FREQ=YEARLY;BYMONTH=11;BYDAY=4TH'
+WHERE name = 'Thanksgiving Day'
+  AND country_id = (SELECT id FROM countries WHERE code = 'US');
+
+UPDATE holidays SET recurrence_rule = 'FREQ=YEARLY;BYEASTER=-2'
+WHERE name = 'Good Friday'
+  AND country_id = (SELECT id FROM countries WHERE code = 'GB');
+
+UPDATE holidays SET recurrence_rule = 'FREQ=YEARLY;BYEASTER=1'
+WHERE name = 'Easter Monday'
+  AND country_id = (SELECT id FROM countries WHERE code = 'GB');
+
+UPDATE holidays SET recurrence_rule = 'FREQ=YEARLY;BYMONTH=5;BYDAY=1MO'
+WHERE name = 'Early May Bank Holiday'
+  AND country_id = (SELECT id FROM countries WHERE code = 'GB');
+
+UPDATE holidays SET recurrence_rule = 'FREQ=YEARLY;BYMONTH=5;BYDAY=-1MO'
+WHERE name = 'Spring Bank Holiday'
+  AND country_id = (SELECT id FROM countries WHERE code = 'GB');
+
+UPDATE holidays SET recurrence_rule = 'FREQ=YEARLY;BYMONTH=8;BYDAY=-1MO'
+WHERE name = 'Summer Bank Holiday'
+  AND country_id = (SELECT id FROM countries WHERE code = 'GB');
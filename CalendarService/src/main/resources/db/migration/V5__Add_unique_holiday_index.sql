@@ -0,0 +1,12 @@
+-- At most one holiday of a name on a date per country, so that replicas saving the
+-- same externally fetched year at once cannot store it twice.
+-- Duplicates already stored are removed first, keeping the oldest row.
+
+DELETE FROM holidays h
+USING holidays d
+WHERE h.country_id = d.country_id
+  AND h.date = d.date
+  AND h.name = d.name
+  AND h.id > d.id;
+
+CREATE UNIQUE INDEX idx_holidays_country_date_name ON holidays (country_id, date, name);
@@ -0,0 +1,73 @@
+package com.feng.calendar.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import com.feng.calendar.model.cache.HolidayYear;
+import com.feng.calendar.model.entity.Holiday;
+import com.feng.calendar.model.enums.HolidayType;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.data.redis.serializer.SerializationException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for CalendarBinarySerializer
+ */
+class CalendarBinarySerializerTest {
+
+	private final CalendarBinarySerializer serializer = new CalendarBinarySerializer();
+
+	@Test
+	void testHolidayYearRoundTrip() {
+		HolidayYear holidayYear = HolidayYear.of("US", 2024, List.of(
+				holiday(1L, "New Year's Day", LocalDate.of(2024, 1, 1)),
+				holiday(300L, "Independence Day", LocalDate.of(2024, 7, 4)),
+				holiday(null, "Christmas Day", LocalDate.of(2024, 12, 25))));
+
+		HolidayYear decoded = (HolidayYear) serializer.deserialize(
+				serializer.serialize(holidayYear));
+
+		assertEquals("US", decoded.getCountryCode());
+		assertEquals(2024, decoded.getYear());
+		assertArrayEquals(holidayYear.getDays(), decoded.getDays());
+		assertArrayEquals(holidayYear.getNames(), decoded.getNames());
+		assertArrayEquals(holidayYear.getTypes(), decoded.getTypes());
+		assertArrayEquals(holidayYear.getIds(), decoded.getIds());
+		assertEquals("Independence Day",
+				decoded.find(LocalDate.of(2024, 7, 4)).orElseThrow().getName());
+	}
+
+	@Test
+	void testOtherVersionsAndFormatsReadAsMisses() {
+		byte[] bytes = serializer.serialize(HolidayYear.of("GB", 2024, List.of()));
+		bytes[1] = CalendarBinarySerializer.SCHEMA_VERSION + 1;
+		String json = "{\"countryCode\":\"GB\",\"year\":2024}";
+		// Business calendar rules, no longer cached in Redis
+		byte[] rule = {CalendarBinarySerializer.MARKER,
+				CalendarBinarySerializer.SCHEMA_VERSION, 2, 8, 1};
+
+		assertNull(serializer.deserialize(bytes));
+		assertNull(serializer.deserialize(json.getBytes(StandardCharsets.UTF_8)));
+		assertNull(serializer.forType(HolidayYear.class).deserialize(rule));
+	}
+
+	@Test
+	void testOtherTypesAreRejected() {
+		assertThrows(SerializationException.class, () -> serializer.serialize("value"));
+	}
+
+	private static Holiday holiday(Long id, String name, LocalDate date) {
+		Holiday holiday = new Holiday();
+		holiday.setId(id);
+		holiday.setName(name);
+		holiday.setDate(date);
+		holiday.setHolidayType(HolidayType.NATIONAL);
+		return holiday;
+	}
+}
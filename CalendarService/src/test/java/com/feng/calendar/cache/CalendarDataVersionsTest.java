@@ -0,0 +1,116 @@
+package com.feng.calendar.cache;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import com.feng.calendar.event.CalendarDataChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for CalendarDataVersions
+ */
+@ExtendWith(MockitoExtension.class)
+class CalendarDataVersionsTest {
+
+	@Mock
+	private StringRedisTemplate redisTemplate;
+
+	@Mock
+	private ValueOperations<String, String> counters;
+
+	private CalendarDataVersions calendarDataVersions;
+
+	@BeforeEach
+	void setUp() {
+		calendarDataVersions =
+				new CalendarDataVersions(redisTemplate, 100, Duration.ofMinutes(10));
+		// Not reached by changes that arrive from other replicas
+		lenient().when(redisTemplate.opsForValue()).thenReturn(counters);
+	}
+
+	@Test
+	void testVersionIsReadOnceUntilTheCountryChanges() {
+		when(counters.multiGet(List.of("calendar-version", "calendar-version:country:US",
+				"calendar-version:calendar:42")))
+				.thenReturn(Arrays.asList("2", "7", null), Arrays.asList("2", "8", null));
+		// Started by another replica in the meantime
+		when(counters.setIfAbsent(eq("calendar-version:calendar:42"), anyString()))
+				.thenReturn(false);
+		when(counters.get("calendar-version:calendar:42")).thenReturn("1700000000000");
+
+		assertEquals("US-2.7.1700000000000", calendarDataVersions.version("US", "42"));
+		assertEquals("US-2.7.1700000000000", calendarDataVersions.version("US", "42"));
+
+		calendarDataVersions.onCalendarDataChanged(
+				CalendarDataChangedEvent.holidaysChanged("US", 2024));
+
+		verify(counters).increment("calendar-version:country:US");
+		assertEquals("US-2.8.1700000000000", calendarDataVersions.version("US", "42"));
+		verify(counters, times(2)).multiGet(anyList());
+	}
+
+	@Test
+	void testMissingCountersStartAtTheCurrentTime() {
+		long start = System.currentTimeMillis();
+		when(counters.multiGet(anyList())).thenReturn(Arrays.asList(null, null));
+		when(counters.setIfAbsent(anyString(), anyString())).thenReturn(true);
+
+		String[] version = calendarDataVersions.version("GB", null).split("[-.]");
+
+		assertEquals("GB", version[0]);
+		assertTrue(Long.parseLong(version[1]) >= start);
+		assertTrue(Long.parseLong(version[2]) >= start);
+	}
+
+	@Test
+	void testFailedBumpDisablesVersionsUntilRetried() {
+		IllegalStateException down = new IllegalStateException("down");
+		when(counters.increment("calendar-version:country:US"))
+				.thenThrow(down, down)
+				.thenReturn(9L);
+		when(counters.multiGet(anyList())).thenReturn(Arrays.asList("2", "9"));
+
+		calendarDataVersions.onCalendarDataChanged(
+				CalendarDataChangedEvent.holidaysChanged("US", 2024));
+
+		assertNull(calendarDataVersions.version("US", null));
+		assertEquals("US-2.9", calendarDataVersions.version("US", null));
+		assertEquals("US-2.9", calendarDataVersions.version("US", null));
+		verify(counters, times(3)).increment("calendar-version:country:US");
+	}
+
+	@Test
+	void testRemoteChangesAreNotBumpedAgain() {
+		calendarDataVersions.onCalendarDataChanged(
+				CalendarDataChangedEvent.remote(null, 42L, null));
+
+		verify(counters, never()).increment(anyString());
+	}
+
+	@Test
+	void testUnreadableVersionDisablesValidation() {
+		when(counters.multiGet(anyList())).thenThrow(new IllegalStateException("down"));
+
+		assertNull(calendarDataVersions.version("GB", null));
+	}
+}
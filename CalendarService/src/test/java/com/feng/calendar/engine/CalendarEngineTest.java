@@ -0,0 +1,128 @@
+package com.feng.calendar.engine;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.feng.calendar.event.CalendarDataChangedEvent;
+import com.feng.calendar.model.cache.HolidayYear;
+import com.feng.calendar.model.entity.Holiday;
+import com.feng.calendar.model.enums.HolidayType;
+import com.feng.calendar.repository.BusinessCalendarRuleRepository;
+import com.feng.calendar.service.BusinessCalendarService;
+import com.feng.calendar.service.CountryRegistry;
+import com.feng.calendar.service.HolidayResolver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for CalendarEngine
+ */
+@ExtendWith(MockitoExtension.class)
+class CalendarEngineTest {
+
+	private static final LocalDate INDEPENDENCE_DAY = LocalDate.of(2024, 7, 4);
+
+	private static final LocalDate CHRISTMAS_DAY = LocalDate.of(2024, 12, 25);
+
+	@Mock
+	private HolidayResolver holidayResolver;
+
+	@Mock
+	private CountryRegistry countryRegistry;
+
+	@Mock
+	private BusinessCalendarService businessCalendarService;
+
+	@Mock
+	private BusinessCalendarRuleRepository businessCalendarRuleRepository;
+
+	@Mock
+	private RecurrenceExpander recurrenceExpander;
+
+	private CalendarEngine calendarEngine;
+
+	@BeforeEach
+	void setUp() {
+		calendarEngine = new CalendarEngine(holidayResolver, countryRegistry,
+				businessCalendarService, businessCalendarRuleRepository,
+				recurrenceExpander);
+		ReflectionTestUtils.setField(calendarEngine, "localMaxEntries", 100L);
+		ReflectionTestUtils.setField(calendarEngine, "localTtl", Duration.ofMinutes(10));
+		calendarEngine.initCompiledYears();
+		when(countryRegistry.weekendMask("US")).thenReturn(CalendarYear.weekendMask(6, 7));
+	}
+
+	@Test
+	void testYearReadBeforeAChangeIsNotCached() {
+		// Given holidays that change while they are being read
+		when(holidayResolver.getHolidayYears("US", List.of(2024))).thenAnswer(invocation -> {
+			calendarEngine.onCalendarDataChanged(
+					CalendarDataChangedEvent.holidaysChanged("US", 2024));
+			return Map.of(2024, holidayYear(INDEPENDENCE_DAY));
+		});
+
+		// When
+		Map<Integer, CalendarYear> years = calendarEngine.findYears("US", null, 2024, 2024);
+
+		// Then the answer uses what was read, but is not kept
+		assertFalse(years.get(2024).isWorkDay(INDEPENDENCE_DAY));
+		assertTrue(calendarEngine.findCompiledYear("US", 2024).isEmpty());
+	}
+
+	@Test
+	void testChangedYearIsRecompiled() {
+		// Given a compiled year
+		when(holidayResolver.getHolidayYears("US", List.of(2024)))
+				.thenReturn(Map.of(2024, holidayYear(INDEPENDENCE_DAY)));
+		calendarEngine.findYears("US", null, 2024, 2024);
+		when(holidayResolver.getHolidayYear("US", 2024))
+				.thenReturn(holidayYear(INDEPENDENCE_DAY, CHRISTMAS_DAY));
+
+		// When
+		calendarEngine.onCalendarDataChanged(
+				CalendarDataChangedEvent.holidaysChanged("US", 2024));
+
+		// Then
+		CalendarYear compiled = calendarEngine.findCompiledYear("US", 2024).orElseThrow();
+		assertFalse(compiled.isWorkDay(CHRISTMAS_DAY));
+	}
+
+	@Test
+	void testOnlyGivenYearsAreCompiled() {
+		// Given
+		when(holidayResolver.getHolidayYears("US", List.of(2000, 2090)))
+				.thenReturn(Map.of());
+
+		// When
+		calendarEngine.findYears("US", null, Set.of(2090, 2000));
+
+		// Then
+		verify(holidayResolver).getHolidayYears("US", List.of(2000, 2090));
+	}
+
+	private static HolidayYear holidayYear(LocalDate... dates) {
+		List<Holiday> holidays = new ArrayList<>();
+		for (LocalDate date : dates) {
+			Holiday holiday = new Holiday();
+			holiday.setDate(date);
+			holiday.setName("Holiday " + date);
+			holiday.setHolidayType(HolidayType.NATIONAL);
+			holidays.add(holiday);
+		}
+		return HolidayYear.of("US", 2024, holidays);
+	}
+}
@@ -0,0 +1,98 @@
+package com.feng.calendar.engine;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.feng.calendar.model.entity.BusinessCalendar;
+import com.feng.calendar.repository.BusinessCalendarRepository;
+import com.feng.calendar.service.CountryRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for CalendarWarmUp
+ */
+@ExtendWith(MockitoExtension.class)
+class CalendarWarmUpTest {
+
+	@Mock
+	private CountryRegistry countryRegistry;
+
+	@Mock
+	private CalendarEngine calendarEngine;
+
+	@Mock
+	private BusinessCalendarRepository businessCalendarRepository;
+
+	private SimpleMeterRegistry meterRegistry;
+
+	private CalendarWarmUp calendarWarmUp;
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		calendarWarmUp = new CalendarWarmUp(countryRegistry, calendarEngine,
+				businessCalendarRepository, meterRegistry);
+		ReflectionTestUtils.setField(calendarWarmUp, "enabled", true);
+		ReflectionTestUtils.setField(calendarWarmUp, "yearsBack", 1);
+		ReflectionTestUtils.setField(calendarWarmUp, "yearsAhead", 2);
+		ReflectionTestUtils.setField(calendarWarmUp, "parallelism", 2);
+	}
+
+	@Test
+	void testCompilesEveryCountryAndActiveCalendar() {
+		int thisYear = LocalDate.now().getYear();
+		BusinessCalendar calendar = new BusinessCalendar();
+		calendar.setId(42L);
+		when(countryRegistry.countryCodes()).thenReturn(Set.of("US", "GB"));
+		when(businessCalendarRepository.findActiveByCountryCode("US"))
+				.thenReturn(List.of(calendar));
+		when(businessCalendarRepository.findActiveByCountryCode("GB"))
+				.thenReturn(List.of());
+
+		calendarWarmUp.run(null);
+
+		verify(countryRegistry).refresh();
+		verify(calendarEngine).findYears("US", null, thisYear - 1, thisYear + 2);
+		verify(calendarEngine).findYears("GB", null, thisYear - 1, thisYear + 2);
+		verify(calendarEngine).findYears("US", "42", thisYear - 1, thisYear + 2);
+		assertEquals(1, meterRegistry.get("calendar.warmup.duration").timer().count());
+	}
+
+	@Test
+	void testFailingCountryDoesNotFailWarmUp() {
+		when(countryRegistry.countryCodes()).thenReturn(Set.of("US", "GB"));
+		when(calendarEngine.findYears(any(), isNull(), anyInt(), anyInt()))
+				.thenThrow(new IllegalStateException("Database unavailable"))
+				.thenReturn(Map.of());
+
+		calendarWarmUp.run(null);
+
+		assertEquals(1, meterRegistry.get("calendar.warmup.duration").timer().count());
+	}
+
+	@Test
+	void testDisabled() {
+		ReflectionTestUtils.setField(calendarWarmUp, "enabled", false);
+
+		calendarWarmUp.run(null);
+
+		verify(countryRegistry, never()).refresh();
+	}
+}
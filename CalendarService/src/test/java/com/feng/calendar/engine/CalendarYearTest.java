@@ -0,0 +1,117 @@
+package com.feng.calendar.engine;
+
+import java.time.LocalDate;
+
+import com.feng.calendar.model.enums.DateType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for CalendarYear
+ */
+class CalendarYearTest {
+
+	private static final int SATURDAY_SUNDAY = CalendarYear.weekendMask(6, 7);
+
+	@Test
+	void testWeekendsAndWorkDays() {
+		CalendarYear calendarYear = CalendarYear.builder(2024, SATURDAY_SUNDAY).build();
+
+		assertEquals(DateType.WEEKEND, calendarYear.typeOf(LocalDate.of(2024, 7, 6)));
+		assertEquals(DateType.WEEKEND, calendarYear.typeOf(LocalDate.of(2024, 12, 29)));
+		assertEquals(DateType.WORK_DAY, calendarYear.typeOf(LocalDate.of(2024, 7, 5)));
+		assertTrue(calendarYear.isWorkDay(LocalDate.of(2024, 12, 31)));
+		assertEquals(366, calendarYear.length());
+		assertEquals(262, calendarYear.workDayCount());
+	}
+
+	@Test
+	void testHolidayAndCustomNonWorkDay() {
+		LocalDate independenceDay = LocalDate.of(2024, 7, 4);
+		LocalDate retreat = LocalDate.of(2024, 7, 5);
+
+		CalendarYear calendarYear = CalendarYear.builder(2024, SATURDAY_SUNDAY)
+				.holiday(independenceDay, "Independence Day")
+				.customNonWorkDay(independenceDay, "Ignored")
+				.customNonWorkDay(retreat, "Company Retreat")
+				.build();
+
+		assertEquals(DateType.HOLIDAY, calendarYear.typeOf(independenceDay));
+		assertEquals("Independence Day", calendarYear.nameOf(independenceDay));
+		assertEquals(DateType.CUSTOM_NON_WORK_DAY, calendarYear.typeOf(retreat));
+		assertEquals("Company Retreat", calendarYear.nameOf(retreat));
+		assertFalse(calendarYear.isWorkDay(retreat));
+		assertNull(calendarYear.nameOf(LocalDate.of(2024, 7, 8)));
+	}
+
+	@Test
+	void testHolidayOnWeekendIsReportedAsWeekend() {
+		LocalDate saturday = LocalDate.of(2026, 7, 4);
+
+		CalendarYear calendarYear = CalendarYear.builder(2026, SATURDAY_SUNDAY)
+				.holiday(saturday, "Independence Day")
+				.build();
+
+		assertEquals(DateType.WEEKEND, calendarYear.typeOf(saturday));
+	}
+
+	@Test
+	void testOverlayKeepsBaseCalendar() {
+		LocalDate newYear = LocalDate.of(2025, 1, 1);
+		LocalDate retreat = LocalDate.of(2025, 1, 2);
+
+		CalendarYear base = CalendarYear.builder(2025, SATURDAY_SUNDAY)
+				.holiday(newYear, "New Year's Day")
+				.build();
+		CalendarYear overlay = base.toBuilder()
+				.customNonWorkDay(retreat, "Company Retreat")
+				.build();
+
+		assertTrue(base.isWorkDay(retreat));
+		assertEquals(DateType.HOLIDAY, overlay.typeOf(newYear));
+		assertEquals(DateType.CUSTOM_NON_WORK_DAY, overlay.typeOf(retreat));
+		assertEquals(base.workDayCount() - 1, overlay.workDayCount());
+	}
+
+	@Test
+	void testRankAndSelect() {
+		CalendarYear calendarYear = CalendarYear.builder(2024, SATURDAY_SUNDAY)
+				.holiday(LocalDate.of(2024, 7, 4), "Independence Day")
+				.build();
+
+		// Wednesday July 3rd to Monday July 8th skips the holiday and the weekend
+		assertEquals(LocalDate.of(2024, 7, 5),
+				calendarYear.nextWorkDay(LocalDate.of(2024, 7, 3)));
+		assertEquals(LocalDate.of(2024, 7, 8),
+				calendarYear.nextWorkDay(LocalDate.of(2024, 7, 5)));
+		assertEquals(LocalDate.of(2024, 7, 3),
+				calendarYear.previousWorkDay(LocalDate.of(2024, 7, 5)));
+
+		assertEquals(0, calendarYear.workDaysBefore(LocalDate.of(2024, 1, 1)));
+		assertEquals(LocalDate.of(2024, 1, 1), calendarYear.workDay(0));
+		assertEquals(LocalDate.of(2024, 12, 31),
+				calendarYear.workDay(calendarYear.workDayCount() - 1));
+		assertNull(calendarYear.workDay(calendarYear.workDayCount()));
+		assertNull(calendarYear.nextWorkDay(LocalDate.of(2024, 12, 31)));
+		assertNull(calendarYear.previousWorkDay(LocalDate.of(2024, 1, 1)));
+
+		for (int n = 0; n < calendarYear.workDayCount(); n++) {
+			LocalDate workDay = calendarYear.workDay(n);
+			assertTrue(calendarYear.isWorkDay(workDay));
+			assertEquals(n, calendarYear.workDaysBefore(workDay));
+		}
+	}
+
+	@Test
+	void testDateOutsideYearIsRejected() {
+		CalendarYear calendarYear = CalendarYear.builder(2024, SATURDAY_SUNDAY).build();
+
+		assertThrows(IllegalArgumentException.class,
+				() -> calendarYear.typeOf(LocalDate.of(2025, 1, 1)));
+	}
+}
@@ -0,0 +1,100 @@
+package com.feng.calendar.engine;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for RecurrenceRule
+ */
+class RecurrenceRuleTest {
+
+	private static final LocalDate SEEDED = LocalDate.of(2024, 1, 1);
+
+	@Test
+	void testNthWeekdayOfMonth() {
+		RecurrenceRule mlkDay = RecurrenceRule.parse("FREQ=YEARLY;BYMONTH=1;BYDAY=3MO");
+		RecurrenceRule thanksgiving =
+				RecurrenceRule.parse("RRULE:FREQ=YEARLY;BYMONTH=11;BYDAY=4TH");
+
+		assertEquals(List.of(LocalDate.of(2025, 1, 20)),
+				mlkDay.occurrencesIn(2025, SEEDED));
+		assertEquals(List.of(LocalDate.of(2025, 11, 27)),
+				thanksgiving.occurrencesIn(2025, SEEDED));
+	}
+
+	@Test
+	void testLastWeekdayOfMonth() {
+		RecurrenceRule memorialDay =
+				RecurrenceRule.parse("FREQ=YEARLY;BYMONTH=5;BYDAY=-1MO");
+
+		assertEquals(List.of(LocalDate.of(2024, 5, 27)),
+				memorialDay.occurrencesIn(2024, SEEDED));
+		assertEquals(List.of(LocalDate.of(2026, 5, 25)),
+				memorialDay.occurrencesIn(2026, SEEDED));
+	}
+
+	@Test
+	void testEasterRelative() {
+		RecurrenceRule goodFriday = RecurrenceRule.parse("FREQ=YEARLY;BYEASTER=-2");
+		RecurrenceRule easterMonday = RecurrenceRule.parse("FREQ=YEARLY;BYEASTER=1");
+
+		assertEquals(LocalDate.of(2024, 3, 31), RecurrenceRule.easterSunday(2024));
+		assertEquals(List.of(LocalDate.of(2025, 4, 18)),
+				goodFriday.occurrencesIn(2025, SEEDED));
+		assertEquals(List.of(LocalDate.of(2024, 4, 1)),
+				easterMonday.occurrencesIn(2024, SEEDED));
+	}
+
+	@Test
+	void testYearlyOnStartDate() {
+		LocalDate christmas = LocalDate.of(2024, 12, 25);
+
+		assertEquals(List.of(LocalDate.of(2030, 12, 25)),
+				RecurrenceRule.yearly().occurrencesIn(2030, christmas));
+		assertTrue(RecurrenceRule.yearly().occurrencesIn(2023, christmas).isEmpty());
+	}
+
+	@Test
+	void testIntervalCountAndUntil() {
+		LocalDate start = LocalDate.of(2024, 7, 1);
+		RecurrenceRule everyOtherYear = RecurrenceRule.parse("FREQ=YEARLY;INTERVAL=2");
+		RecurrenceRule twice = RecurrenceRule.parse("FREQ=YEARLY;COUNT=2");
+		RecurrenceRule untilNextYear = RecurrenceRule.parse("FREQ=YEARLY;UNTIL=20250701");
+
+		assertTrue(everyOtherYear.occurrencesIn(2025, start).isEmpty());
+		assertEquals(List.of(LocalDate.of(2026, 7, 1)),
+				everyOtherYear.occurrencesIn(2026, start));
+		assertEquals(1, twice.occurrencesIn(2025, start).size());
+		assertTrue(twice.occurrencesIn(2026, start).isEmpty());
+		assertEquals(1, untilNextYear.occurrencesIn(2025, start).size());
+		assertTrue(untilNextYear.occurrencesIn(2026, start).isEmpty());
+	}
+
+	@Test
+	void testMonthlyByMonthDay() {
+		RecurrenceRule monthEnd = RecurrenceRule.parse("FREQ=MONTHLY;BYMONTHDAY=-1");
+
+		List<LocalDate> occurrences = monthEnd.occurrencesIn(2024, SEEDED);
+
+		assertEquals(12, occurrences.size());
+		assertEquals(LocalDate.of(2024, 2, 29), occurrences.get(1));
+	}
+
+	@Test
+	void testInvalidRules() {
+		assertThrows(IllegalArgumentException.class,
+				() -> RecurrenceRule.parse("BYMONTH=1"));
+		assertThrows(IllegalArgumentException.class,
+				() -> RecurrenceRule.parse("FREQ=DAILY"));
+		assertThrows(IllegalArgumentException.class,
+				() -> RecurrenceRule.parse("FREQ=YEARLY;BYMONTH=13"));
+		assertThrows(IllegalArgumentException.class,
+				() -> RecurrenceRule.parse("FREQ=MONTHLY;BYEASTER=1"));
+	}
+}
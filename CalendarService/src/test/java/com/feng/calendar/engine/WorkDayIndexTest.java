@@ -0,0 +1,111 @@
+package com.feng.calendar.engine;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for WorkDayIndex
+ */
+@ExtendWith(MockitoExtension.class)
+class WorkDayIndexTest {
+
+	private static final int SATURDAY_SUNDAY = CalendarYear.weekendMask(6, 7);
+
+	@Mock
+	private CalendarEngine calendarEngine;
+
+	private WorkDayIndex workDayIndex;
+
+	@BeforeEach
+	void setUp() {
+		workDayIndex = new WorkDayIndex(calendarEngine);
+	}
+
+	@Test
+	void testNextWorkDateAcrossLongShutdown() {
+		// Given a shutdown from December 15th to January 31st
+		CalendarYear.Builder shutdown2024 = CalendarYear.builder(2024, SATURDAY_SUNDAY);
+		for (LocalDate date = LocalDate.of(2024, 12, 15); date.getYear() == 2024;
+				date = date.plusDays(1)) {
+			shutdown2024.holiday(date, "Shutdown");
+		}
+		CalendarYear.Builder shutdown2025 = CalendarYear.builder(2025, SATURDAY_SUNDAY);
+		for (LocalDate date = LocalDate.of(2025, 1, 1); date.getMonthValue() == 1;
+				date = date.plusDays(1)) {
+			shutdown2025.holiday(date, "Shutdown");
+		}
+		when(calendarEngine.findYear("US", null, 2024)).thenReturn(
+				Optional.of(shutdown2024.build()));
+		when(calendarEngine.findYear("US", null, 2025)).thenReturn(
+				Optional.of(shutdown2025.build()));
+
+		// When & Then
+		assertEquals(Optional.of(LocalDate.of(2025, 2, 3)),
+				workDayIndex.nextWorkDate(LocalDate.of(2024, 12, 13), "US", null));
+		assertEquals(Optional.of(LocalDate.of(2024, 12, 13)),
+				workDayIndex.previousWorkDate(LocalDate.of(2025, 2, 3), "US", null));
+	}
+
+	@Test
+	void testAddWorkDays() {
+		// Given
+		when(calendarEngine.findYear("US", null, 2024)).thenReturn(
+				Optional.of(CalendarYear.builder(2024, SATURDAY_SUNDAY)
+						.holiday(LocalDate.of(2024, 12, 25), "Christmas Day")
+						.build()));
+		when(calendarEngine.findYear("US", null, 2025)).thenReturn(
+				Optional.of(CalendarYear.builder(2025, SATURDAY_SUNDAY)
+						.holiday(LocalDate.of(2025, 1, 1), "New Year's Day")
+						.build()));
+
+		// When & Then
+		LocalDate friday = LocalDate.of(2024, 12, 20);
+		assertEquals(Optional.of(LocalDate.of(2025, 1, 2)),
+				workDayIndex.addWorkDays(friday, 7, "US", null));
+		assertEquals(Optional.of(LocalDate.of(2024, 12, 20)),
+				workDayIndex.addWorkDays(LocalDate.of(2025, 1, 2), -7, "US", null));
+		assertEquals(Optional.of(friday), workDayIndex.addWorkDays(friday, 0, "US", null));
+	}
+
+	@Test
+	void testCountWorkDays() {
+		// Given
+		when(calendarEngine.findYear("US", null, 2024)).thenReturn(
+				Optional.of(CalendarYear.builder(2024, SATURDAY_SUNDAY)
+						.holiday(LocalDate.of(2024, 12, 25), "Christmas Day")
+						.build()));
+		when(calendarEngine.findYear("US", null, 2025)).thenReturn(
+				Optional.of(CalendarYear.builder(2025, SATURDAY_SUNDAY)
+						.holiday(LocalDate.of(2025, 1, 1), "New Year's Day")
+						.build()));
+
+		// When & Then
+		LocalDate friday = LocalDate.of(2024, 12, 20);
+		LocalDate thursday = LocalDate.of(2025, 1, 2);
+		assertEquals(Optional.of(7), workDayIndex.countWorkDays(friday, thursday, "US",
+				null));
+		assertEquals(Optional.of(-7), workDayIndex.countWorkDays(thursday, friday, "US",
+				null));
+	}
+
+	@Test
+	void testUncompiledYearIsEmpty() {
+		// Given
+		when(calendarEngine.findYear("US", null, 2024)).thenReturn(
+				Optional.of(CalendarYear.builder(2024, SATURDAY_SUNDAY).build()));
+
+		// When & Then
+		assertTrue(workDayIndex.nextWorkDate(LocalDate.of(2024, 12, 31), "US", null)
+				.isEmpty());
+	}
+}
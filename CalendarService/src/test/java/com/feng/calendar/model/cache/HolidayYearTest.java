@@ -0,0 +1,49 @@
+package com.feng.calendar.model.cache;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.feng.calendar.model.entity.Holiday;
+import com.feng.calendar.model.enums.HolidayType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for HolidayYear
+ */
+class HolidayYearTest {
+
+	@Test
+	void testOfUnsortedHolidays() {
+		// Given holidays out of order, a duplicate date and one of another year
+		List<Holiday> holidays = List.of(
+				holiday(1L, LocalDate.of(2024, 12, 25), "Christmas Day"),
+				holiday(2L, LocalDate.of(2024, 7, 4), "Independence Day"),
+				holiday(3L, LocalDate.of(2024, 1, 1), "New Year's Day"),
+				holiday(4L, LocalDate.of(2024, 7, 4), "Fourth of July"),
+				holiday(5L, LocalDate.of(2025, 1, 1), "New Year's Day"));
+
+		// When
+		HolidayYear holidayYear = HolidayYear.of("US", 2024, holidays);
+
+		// Then
+		assertEquals(3, holidayYear.size());
+		assertEquals(LocalDate.of(2024, 1, 1), holidayYear.dateAt(0));
+		assertEquals(LocalDate.of(2024, 7, 4), holidayYear.dateAt(1));
+		assertEquals(LocalDate.of(2024, 12, 25), holidayYear.dateAt(2));
+		assertEquals("Independence Day",
+				holidayYear.find(LocalDate.of(2024, 7, 4)).orElseThrow().getName());
+		assertTrue(holidayYear.find(LocalDate.of(2024, 12, 25)).isPresent());
+	}
+
+	private static Holiday holiday(Long id, LocalDate date, String name) {
+		Holiday holiday = new Holiday();
+		holiday.setId(id);
+		holiday.setDate(date);
+		holiday.setName(name);
+		holiday.setHolidayType(HolidayType.NATIONAL);
+		return holiday;
+	}
+}
@@ -0,0 +1,153 @@
+package com.feng.calendar.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import com.feng.calendar.engine.RecurrenceExpander;
+import com.feng.calendar.event.CalendarDataChangedEvent;
+import com.feng.calendar.model.entity.BusinessCalendar;
+import com.feng.calendar.model.entity.BusinessCalendarRule;
+import com.feng.calendar.model.enums.BusinessRuleType;
+import com.feng.calendar.repository.BusinessCalendarRepository;
+import com.feng.calendar.repository.BusinessCalendarRuleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for BusinessCalendarService
+ */
+@ExtendWith(MockitoExtension.class)
+class BusinessCalendarServiceTest {
+
+	@Mock
+	private BusinessCalendarRepository businessCalendarRepository;
+
+	@Mock
+	private BusinessCalendarRuleRepository businessCalendarRuleRepository;
+
+	@Mock
+	private RecurrenceExpander recurrenceExpander;
+
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+
+	private BusinessCalendarService businessCalendarService;
+
+	@BeforeEach
+	void setUp() {
+		businessCalendarService = new BusinessCalendarService(businessCalendarRepository,
+				businessCalendarRuleRepository, recurrenceExpander, eventPublisher);
+		ReflectionTestUtils.setField(businessCalendarService, "localMaxEntries", 100L);
+		ReflectionTestUtils.setField(businessCalendarService, "localTtl",
+				Duration.ofMinutes(10));
+		businessCalendarService.initCompiledCalendars();
+	}
+
+	@Test
+	void testChecksAreAnsweredFromOneCompilation() {
+		LocalDate christmasEve = LocalDate.of(2024, 12, 24);
+		when(businessCalendarRepository.findById(1L))
+				.thenReturn(Optional.of(calendar(1L, true)));
+		when(businessCalendarRuleRepository.findActiveByCalendarId(1L))
+				.thenReturn(List.of(rule(christmasEve, null, "Christmas Eve")));
+
+		for (int i = 0; i < 3; i++) {
+			assertTrue(businessCalendarService.isBusinessCalendarActive("1"));
+			assertEquals("Christmas Eve", businessCalendarService
+					.getCustomRule(christmasEve, "1").orElseThrow().getDescription());
+			assertTrue(businessCalendarService
+					.getCustomRule(christmasEve.plusDays(1), "1").isEmpty());
+		}
+
+		verify(businessCalendarRepository, times(1)).findById(1L);
+		verify(businessCalendarRuleRepository, times(1)).findActiveByCalendarId(1L);
+	}
+
+	@Test
+	void testRecurringRuleAppliesInOtherYears() {
+		BusinessCalendarRule shutdown = rule(LocalDate.of(2020, 12, 31),
+				"FREQ=YEARLY", "Year-end shutdown");
+		when(businessCalendarRepository.findById(2L))
+				.thenReturn(Optional.of(calendar(2L, true)));
+		when(businessCalendarRuleRepository.findActiveByCalendarId(2L))
+				.thenReturn(List.of(shutdown));
+		when(recurrenceExpander.expand("FREQ=YEARLY", LocalDate.of(2020, 12, 31), 2024))
+				.thenReturn(List.of(LocalDate.of(2024, 12, 31)));
+
+		Optional<BusinessCalendarRule> rule = businessCalendarService
+				.getCustomRule(LocalDate.of(2024, 12, 31), "2");
+
+		assertEquals("Year-end shutdown", rule.orElseThrow().getDescription());
+	}
+
+	@Test
+	void testRecurringRuleIsExpandedOncePerYear() {
+		BusinessCalendarRule shutdown = rule(LocalDate.of(2020, 12, 31),
+				"FREQ=YEARLY", "Year-end shutdown");
+		when(businessCalendarRepository.findById(2L))
+				.thenReturn(Optional.of(calendar(2L, true)));
+		when(businessCalendarRuleRepository.findActiveByCalendarId(2L))
+				.thenReturn(List.of(shutdown));
+		when(recurrenceExpander.expand("FREQ=YEARLY", LocalDate.of(2020, 12, 31), 2024))
+				.thenReturn(List.of(LocalDate.of(2024, 12, 31)));
+
+		businessCalendarService.getCustomRule(LocalDate.of(2024, 12, 30), "2");
+		Optional<BusinessCalendarRule> rule = businessCalendarService
+				.getCustomRule(LocalDate.of(2024, 12, 31), "2");
+
+		assertEquals("Year-end shutdown", rule.orElseThrow().getDescription());
+		verify(recurrenceExpander).expand("FREQ=YEARLY", LocalDate.of(2020, 12, 31), 2024);
+	}
+
+	@Test
+	void testInactiveCalendarHasNoRulesAndIsRecompiledAfterChange() {
+		when(businessCalendarRepository.findById(3L))
+				.thenReturn(Optional.of(calendar(3L, false)));
+
+		assertFalse(businessCalendarService.isBusinessCalendarActive("3"));
+		assertTrue(businessCalendarService
+				.getCustomRule(LocalDate.of(2024, 1, 1), "3").isEmpty());
+		assertFalse(businessCalendarService.isBusinessCalendarActive("not-a-number"));
+		verify(businessCalendarRuleRepository, never()).findActiveByCalendarId(any());
+
+		businessCalendarService.onCalendarDataChanged(
+				CalendarDataChangedEvent.businessCalendarChanged(3L, 2024));
+		businessCalendarService.isBusinessCalendarActive("3");
+
+		verify(businessCalendarRepository, times(2)).findById(3L);
+	}
+
+	private static BusinessCalendar calendar(Long id, boolean active) {
+		BusinessCalendar calendar = new BusinessCalendar();
+		calendar.setId(id);
+		calendar.setIsActive(active);
+		return calendar;
+	}
+
+	private static BusinessCalendarRule rule(LocalDate date, String recurrenceRule,
+			String description) {
+		BusinessCalendarRule rule = new BusinessCalendarRule();
+		rule.setRuleType(BusinessRuleType.NON_WORK_DAY);
+		rule.setDate(date);
+		rule.setRecurrenceRule(recurrenceRule);
+		rule.setDescription(description);
+		return rule;
+	}
+}
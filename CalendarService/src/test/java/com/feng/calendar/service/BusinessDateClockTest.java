@@ -0,0 +1,99 @@
+package com.feng.calendar.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for BusinessDateClock
+ */
+@ExtendWith(MockitoExtension.class)
+class BusinessDateClockTest {
+
+	@Mock
+	private CountryRegistry countryRegistry;
+
+	private MutableClock clock;
+
+	private BusinessDateClock businessDateClock;
+
+	@BeforeEach
+	void setUp() {
+		// 23:30 on July 3 in New York, 11:30 on July 4 in Shanghai
+		clock = new MutableClock(Instant.parse("2024-07-04T03:30:00Z"));
+		businessDateClock = new BusinessDateClock(countryRegistry, clock);
+		lenient().when(countryRegistry.zone("US"))
+				.thenReturn(ZoneId.of("America/New_York"));
+		lenient().when(countryRegistry.zone("CN")).thenReturn(ZoneId.of("Asia/Shanghai"));
+	}
+
+	@Test
+	void testTodayFollowsCountryTimezone() {
+		assertEquals(LocalDate.of(2024, 7, 3), businessDateClock.today("US"));
+		assertEquals(LocalDate.of(2024, 7, 4), businessDateClock.today("CN"));
+	}
+
+	@Test
+	void testDateAtResolvesInstantInCountryTimezone() {
+		Instant instant = Instant.parse("2024-12-31T20:00:00Z");
+
+		assertEquals(LocalDate.of(2024, 12, 31), businessDateClock.dateAt("US", instant));
+		assertEquals(LocalDate.of(2025, 1, 1), businessDateClock.dateAt("CN", instant));
+	}
+
+	@Test
+	void testTodayRollsOverAtLocalMidnightBeforeTheScheduler() {
+		when(countryRegistry.countryCodes()).thenReturn(Set.of("US"));
+		businessDateClock.roll();
+		assertEquals(LocalDate.of(2024, 7, 3), businessDateClock.today("US"));
+
+		clock.advance(Duration.ofMinutes(31));
+
+		assertEquals(LocalDate.of(2024, 7, 4), businessDateClock.today("US"));
+	}
+
+	/**
+	 * Clock that only moves when told to
+	 */
+	private static final class MutableClock extends Clock {
+
+		private Instant instant;
+
+		private MutableClock(Instant instant) {
+			this.instant = instant;
+		}
+
+		void advance(Duration duration) {
+			instant = instant.plus(duration);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return Clock.fixed(instant, zone);
+		}
+
+		@Override
+		public Instant instant() {
+			return instant;
+		}
+	}
+}
@@ -0,0 +1,171 @@
+package com.feng.calendar.service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.feng.calendar.engine.CalendarEngine;
+import com.feng.calendar.engine.CalendarYear;
+import com.feng.calendar.exception.CalendarServiceException;
+import com.feng.calendar.model.dto.BulkDateRequest;
+import com.feng.calendar.model.dto.BulkDateResponse;
+import com.feng.calendar.model.dto.WorkDateResponse;
+import com.feng.calendar.repository.CountryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for CalendarService
+ */
+@ExtendWith(MockitoExtension.class)
+class CalendarServiceTest {
+
+	@Mock
+	private DateTypeChecker dateTypeChecker;
+
+	@Mock
+	private WorkDateFinder workDateFinder;
+
+	@Mock
+	private CountryRepository countryRepository;
+
+	@Mock
+	private CalendarEngine calendarEngine;
+
+	@Mock
+	private CountryRegistry countryRegistry;
+
+	@Mock
+	private BusinessDateClock businessDateClock;
+
+	private CalendarService calendarService;
+
+	@BeforeEach
+	void setUp() {
+		calendarService = new CalendarService(dateTypeChecker, workDateFinder,
+				countryRepository, calendarEngine, countryRegistry, businessDateClock);
+		ReflectionTestUtils.setField(calendarService, "rangeMaxDays", 3660);
+		ReflectionTestUtils.setField(calendarService, "bulkMaxYearSpan", 100);
+		when(countryRegistry.exists("US")).thenReturn(true);
+	}
+
+	@Test
+	void testBulkNextWorkDatesFromCompiledYears() {
+		// Given
+		int saturdaySunday = CalendarYear.weekendMask(6, 7);
+		when(calendarEngine.findYears("US", null, Set.of(2024, 2025))).thenReturn(Map.of(
+				2024, CalendarYear.builder(2024, saturdaySunday)
+						.holiday(LocalDate.of(2024, 12, 31), "New Year's Eve")
+						.build(),
+				2025, CalendarYear.builder(2025, saturdaySunday)
+						.holiday(LocalDate.of(2025, 1, 1), "New Year's Day")
+						.build()));
+		BulkDateRequest request = BulkDateRequest.builder()
+				.dates(List.of("2024-07-03", "2024-12-30"))
+				.country("US")
+				.operations(List.of("DATE_TYPE", "NEXT_WORK_DATE"))
+				.build();
+
+		// When
+		BulkDateResponse response = calendarService.processBulkDates(request);
+
+		// Then
+		WorkDateResponse july = response.getWorkDateResults().get(0);
+		WorkDateResponse yearEnd = response.getWorkDateResults().get(1);
+		assertEquals(LocalDate.of(2024, 7, 4), july.getNextWorkDate());
+		assertEquals(0, july.getDaysSkipped());
+		assertEquals(LocalDate.of(2025, 1, 2), yearEnd.getNextWorkDate());
+		assertEquals(2, yearEnd.getDaysSkipped());
+		assertNull(yearEnd.getSkippedDates());
+		verify(workDateFinder, never()).findNextWorkDate(any(), any(), any(),
+				anyBoolean());
+	}
+
+	@Test
+	void testBulkSparseYearsCompilesOnlyTheirYears() {
+		// Given dates nearly a century apart
+		int saturdaySunday = CalendarYear.weekendMask(6, 7);
+		when(calendarEngine.findYears("US", null, Set.of(2000, 2001, 2099, 2100)))
+				.thenReturn(Map.of(
+						2000, CalendarYear.builder(2000, saturdaySunday).build(),
+						2001, CalendarYear.builder(2001, saturdaySunday).build(),
+						2099, CalendarYear.builder(2099, saturdaySunday).build(),
+						2100, CalendarYear.builder(2100, saturdaySunday).build()));
+		BulkDateRequest request = BulkDateRequest.builder()
+				.dates(List.of("2000-12-29", "2099-07-01"))
+				.country("US")
+				.operations(List.of("DATE_TYPE", "NEXT_WORK_DATE"))
+				.build();
+
+		// When
+		BulkDateResponse response = calendarService.processBulkDates(request);
+
+		// Then
+		assertEquals(LocalDate.of(2001, 1, 1),
+				response.getWorkDateResults().get(0).getNextWorkDate());
+		assertEquals(LocalDate.of(2099, 7, 2),
+				response.getWorkDateResults().get(1).getNextWorkDate());
+	}
+
+	@Test
+	void testBulkYearSpanTooWideIsRejected() {
+		// Given
+		BulkDateRequest request = BulkDateRequest.builder()
+				.dates(List.of("0001-01-01", "9999-12-31"))
+				.country("US")
+				.operations(List.of("DATE_TYPE"))
+				.build();
+
+		// When & Then
+		assertThrows(CalendarServiceException.class, () ->
+				calendarService.processBulkDates(request));
+		verify(calendarEngine, never()).findYears(any(), any(), any());
+	}
+
+	@Test
+	void testAddBusinessDaysWithinLimit() {
+		// Given
+		LocalDate fromDate = LocalDate.of(2024, 7, 3);
+		when(workDateFinder.findWorkDateAfter(fromDate, -3660, "US", null))
+				.thenReturn(LocalDate.of(2010, 3, 1));
+
+		// When & Then
+		assertEquals(LocalDate.of(2010, 3, 1),
+				calendarService.addBusinessDays(fromDate, -3660, "US", null).getToDate());
+	}
+
+	@Test
+	void testAddTooManyBusinessDaysIsRejected() {
+		// When & Then
+		assertThrows(CalendarServiceException.class, () ->
+				calendarService.addBusinessDays(LocalDate.of(2024, 7, 3),
+						Integer.MIN_VALUE, "US", null));
+		verify(workDateFinder, never()).findWorkDateAfter(any(), anyInt(), any(), any());
+	}
+
+	@Test
+	void testBusinessDaysBetweenTooLongRangeIsRejected() {
+		// When & Then
+		assertThrows(CalendarServiceException.class, () ->
+				calendarService.businessDaysBetween(LocalDate.of(2024, 7, 3),
+						LocalDate.of(1900, 1, 1), "US", null));
+		verify(workDateFinder, never()).countWorkDatesBetween(any(), any(), any(),
+				any());
+	}
+}
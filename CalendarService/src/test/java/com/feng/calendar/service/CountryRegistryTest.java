@@ -0,0 +1,133 @@
+package com.feng.calendar.service;
+
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.feng.calendar.engine.CalendarYear;
+import com.feng.calendar.event.CalendarDataChangedEvent;
+import com.feng.calendar.model.entity.Country;
+import com.feng.calendar.model.entity.WeekendDefinition;
+import com.feng.calendar.repository.CountryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for CountryRegistry
+ */
+@ExtendWith(MockitoExtension.class)
+class CountryRegistryTest {
+
+	@Mock
+	private CountryRepository countryRepository;
+
+	private SimpleMeterRegistry meterRegistry;
+
+	private CountryRegistry countryRegistry;
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		countryRegistry = new CountryRegistry(countryRepository, meterRegistry);
+	}
+
+	@Test
+	void testLookupsAreServedFromMemory() {
+		when(countryRepository.findAllWithWeekendDefinitions())
+				.thenReturn(List.of(country("US", 6, 7), country("AE", 5, 6)));
+
+		assertTrue(countryRegistry.exists("US"));
+		assertTrue(countryRegistry.exists("AE"));
+		assertFalse(countryRegistry.exists("XX"));
+		assertEquals(CalendarYear.weekendMask(5, 6), countryRegistry.weekendMask("AE"));
+		assertEquals(CountryRegistry.DEFAULT_WEEKEND_MASK,
+				countryRegistry.weekendMask("XX"));
+
+		verify(countryRepository, times(1)).findAllWithWeekendDefinitions();
+		assertEquals(3, lookups("hit"));
+		assertEquals(2, lookups("miss"));
+	}
+
+	@Test
+	void testCountryChangeReloads() {
+		when(countryRepository.findAllWithWeekendDefinitions())
+				.thenReturn(List.of(country("US", 6, 7)))
+				.thenReturn(List.of(country("US", 6, 7), country("GB", 6, 7)));
+
+		assertFalse(countryRegistry.exists("GB"));
+
+		countryRegistry.onCalendarDataChanged(CalendarDataChangedEvent.countryChanged("GB"));
+
+		assertTrue(countryRegistry.exists("GB"));
+	}
+
+	@Test
+	void testHolidayCacheClearsReloadWeekends() {
+		when(countryRepository.findAllWithWeekendDefinitions())
+				.thenReturn(List.of(country("AE", 6, 7)))
+				.thenReturn(List.of(country("AE", 5, 6)))
+				.thenReturn(List.of(country("AE", 6, 7)));
+
+		assertEquals(CalendarYear.weekendMask(6, 7), countryRegistry.weekendMask("AE"));
+
+		// A single year of holidays leaves weekends alone
+		countryRegistry.onCalendarDataChanged(
+				CalendarDataChangedEvent.holidaysChanged("AE", 2024));
+		assertEquals(CalendarYear.weekendMask(6, 7), countryRegistry.weekendMask("AE"));
+
+		// Clearing a country's or every holiday cache reloads them
+		countryRegistry.onCalendarDataChanged(
+				CalendarDataChangedEvent.holidaysChanged("AE", null));
+		assertEquals(CalendarYear.weekendMask(5, 6), countryRegistry.weekendMask("AE"));
+		countryRegistry.onCalendarDataChanged(CalendarDataChangedEvent.allChanged());
+		assertEquals(CalendarYear.weekendMask(6, 7), countryRegistry.weekendMask("AE"));
+	}
+
+	@Test
+	void testTimezonesAreParsedOnLoad() {
+		Country us = country("US", 6, 7);
+		us.setTimezoneDefault("America/New_York");
+		Country invalid = country("XA", 6, 7);
+		invalid.setTimezoneDefault("Not/AZone");
+		when(countryRepository.findAllWithWeekendDefinitions())
+				.thenReturn(List.of(us, invalid, country("XB", 6, 7)));
+
+		assertEquals(ZoneId.of("America/New_York"), countryRegistry.zone("US"));
+		assertEquals(ZoneOffset.UTC, countryRegistry.zone("XA"));
+		assertEquals(ZoneOffset.UTC, countryRegistry.zone("XB"));
+		assertEquals(ZoneOffset.UTC, countryRegistry.zone("XX"));
+	}
+
+	private double lookups(String result) {
+		return meterRegistry.get("calendar.country.registry.lookups")
+				.tag("result", result)
+				.counter()
+				.count();
+	}
+
+	private static Country country(String code, int... weekendDays) {
+		Country country = new Country();
+		country.setCode(code);
+		country.setName(code);
+		country.setWeekendDefinitions(new ArrayList<>());
+		for (int day : weekendDays) {
+			WeekendDefinition definition = new WeekendDefinition();
+			definition.setDayOfWeek(day);
+			definition.setIsWeekend(true);
+			country.getWeekendDefinitions().add(definition);
+		}
+		return country;
+	}
+}
@@ -1,14 +1,19 @@
 package com.feng.calendar.service;
 
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import com.feng.calendar.engine.CalendarEngine;
+import com.feng.calendar.engine.CalendarYear;
 import com.feng.calendar.model.dto.DateTypeResponse;
 import com.feng.calendar.model.entity.BusinessCalendarRule;
 import com.feng.calendar.model.entity.Holiday;
 import com.feng.calendar.model.enums.BusinessRuleType;
 import com.feng.calendar.model.enums.DateType;
 import com.feng.calendar.model.enums.HolidayType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -18,7 +23,13 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -36,12 +47,19 @@ class DateTypeCheckerTest {
 	@Mock
 	private BusinessCalendarService businessCalendarService;
 
+	@Mock
+	private CalendarEngine calendarEngine;
+
+	private SimpleMeterRegistry meterRegistry;
+
 	private DateTypeChecker dateTypeChecker;
 
 	@BeforeEach
 	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
 		dateTypeChecker = new DateTypeChecker(holidayResolver, weekendChecker,
-				businessCalendarService);
+				businessCalendarService, calendarEngine,
+				new PipelineMetrics(meterRegistry));
 	}
 
 	@Test
@@ -143,4 +161,108 @@ class DateTypeCheckerTest {
 		assertEquals("Company Retreat", response.getHolidayName());
 		assertEquals(countryCode, response.getCountry());
 	}
+
+	@Test
+	void testCheckDateType_CompiledCalendar() {
+		// Given
+		LocalDate date = LocalDate.of(2024, 7, 4);
+		String countryCode = "US";
+
+		CalendarYear calendarYear =
+				CalendarYear.builder(2024, CalendarYear.weekendMask(6, 7))
+						.holiday(date, "Independence Day")
+						.build();
+
+		when(calendarEngine.findYear(countryCode, null, 2024)).thenReturn(
+				Optional.of(calendarYear));
+
+		// When
+		DateTypeResponse response =
+				dateTypeChecker.checkDateType(date, countryCode, null);
+
+		// Then
+		assertEquals(DateType.HOLIDAY, response.getDateType());
+		assertFalse(response.getIsWorkDay());
+		assertEquals("Independence Day", response.getHolidayName());
+		assertFalse(response.getMetadata().getIsWeekend());
+		verify(weekendChecker, never()).isWeekend(any(), anyString());
+		verify(holidayResolver, never()).findHoliday(any(), anyString());
+	}
+
+	@Test
+	void testCheckDateType_WeekendCheckedOnce() {
+		// Given
+		LocalDate date = LocalDate.of(2024, 7, 5); // Friday
+		String countryCode = "US";
+
+		when(weekendChecker.isWeekend(date, countryCode)).thenReturn(false);
+		when(holidayResolver.findHoliday(date, countryCode)).thenReturn(Optional.empty());
+
+		// When
+		DateTypeResponse withMetadata =
+				dateTypeChecker.checkDateType(date, countryCode, null, true);
+		DateTypeResponse withoutMetadata =
+				dateTypeChecker.checkDateType(date, countryCode, null, false);
+
+		// Then
+		assertEquals("Friday", withMetadata.getMetadata().getDayOfWeek());
+		assertFalse(withMetadata.getMetadata().getIsWeekend());
+		assertNull(withoutMetadata.getMetadata());
+		verify(weekendChecker, times(2)).isWeekend(date, countryCode);
+	}
+
+	@Test
+	void testCheckDateTypes_AcrossCountries() {
+		// Given
+		LocalDate date = LocalDate.of(2024, 12, 25); // Wednesday
+		CalendarYear us = CalendarYear.builder(2024, CalendarYear.weekendMask(6, 7))
+				.holiday(date, "Christmas Day")
+				.build();
+		Holiday christmas = new Holiday();
+		christmas.setName("Christmas Day");
+		christmas.setDate(date);
+
+		when(calendarEngine.findCompiledYear("US", 2024)).thenReturn(Optional.of(us));
+		when(holidayResolver.findHolidays(date, List.of("GB", "FR"))).thenReturn(
+				Map.of("GB", Optional.of(christmas), "FR", Optional.empty()));
+
+		// When
+		List<DateTypeResponse> responses =
+				dateTypeChecker.checkDateTypes(date, List.of("US", "GB", "FR"), false);
+
+		// Then
+		assertEquals(List.of("US", "GB", "FR"),
+				responses.stream().map(DateTypeResponse::getCountry).toList());
+		assertEquals(DateType.HOLIDAY, responses.get(0).getDateType());
+		assertEquals(DateType.HOLIDAY, responses.get(1).getDateType());
+		assertEquals("Christmas Day", responses.get(1).getHolidayName());
+		assertEquals(DateType.WORK_DAY, responses.get(2).getDateType());
+		verify(weekendChecker, never()).isWeekend(date, "US");
+		verify(holidayResolver, never()).findHoliday(any(), anyString());
+	}
+
+	@Test
+	void testCheckDateType_StagesRecorded() {
+		// Given
+		LocalDate date = LocalDate.of(2024, 7, 4); // Independence Day
+		Holiday holiday = new Holiday();
+		holiday.setName("Independence Day");
+		holiday.setDate(date);
+
+		when(weekendChecker.isWeekend(date, "US")).thenReturn(false);
+		when(holidayResolver.findHoliday(date, "US")).thenReturn(Optional.of(holiday));
+
+		// When
+		dateTypeChecker.checkDateType(date, "US", null);
+
+		// Then
+		assertEquals(1, meterRegistry.get("calendar.pipeline.checks")
+				.tags("country", "US", "path", "lookup").counter().count());
+		assertEquals(1, meterRegistry.get("calendar.pipeline.stage")
+				.tags("stage", "weekend", "outcome", "miss").timer().count());
+		assertEquals(1, meterRegistry.get("calendar.pipeline.stage")
+				.tags("stage", "holiday", "outcome", "hit").timer().count());
+		assertNull(meterRegistry.find("calendar.pipeline.stage")
+				.tag("stage", "business-rule").timer());
+	}
 }
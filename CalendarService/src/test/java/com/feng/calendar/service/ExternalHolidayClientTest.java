@@ -0,0 +1,228 @@
+package com.feng.calendar.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.feng.calendar.model.entity.Country;
+import com.feng.calendar.model.entity.Holiday;
+import com.feng.calendar.repository.CountryRepository;
+import com.feng.calendar.repository.HolidayRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for ExternalHolidayClient against a local stub of the providers
+ */
+@ExtendWith(MockitoExtension.class)
+class ExternalHolidayClientTest {
+
+	@Mock
+	private CountryRepository countryRepository;
+
+	@Mock
+	private HolidayRepository holidayRepository;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	private SimpleMeterRegistry meterRegistry;
+
+	private StubHolidayApiServer stub;
+
+	private ExternalHolidayClient externalHolidayClient;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		stub = StubHolidayApiServer.start();
+		meterRegistry = new SimpleMeterRegistry();
+		externalHolidayClient = new ExternalHolidayClient(WebClient.builder(),
+				countryRepository, holidayRepository, transactionManager, meterRegistry);
+		ReflectionTestUtils.setField(externalHolidayClient, "holidayApiUrl",
+				stub.url(""));
+		ReflectionTestUtils.setField(externalHolidayClient, "holidayApiKey", "");
+		ReflectionTestUtils.setField(externalHolidayClient, "governmentSourcesEnabled",
+				true);
+		ReflectionTestUtils.setField(externalHolidayClient, "governmentApiUs",
+				stub.url(StubHolidayApiServer.US_PATH));
+		ReflectionTestUtils.setField(externalHolidayClient, "governmentApiGb",
+				stub.url(StubHolidayApiServer.GB_PATH));
+		ReflectionTestUtils.setField(externalHolidayClient, "holidayApiTimeout",
+				Duration.ofSeconds(2));
+		ReflectionTestUtils.setField(externalHolidayClient, "governmentSourcesTimeout",
+				Duration.ofSeconds(2));
+		ReflectionTestUtils.setField(externalHolidayClient, "maxConcurrentFetches", 4);
+		ReflectionTestUtils.setField(externalHolidayClient, "failureRateThreshold", 50f);
+		ReflectionTestUtils.setField(externalHolidayClient, "minimumCalls", 2);
+		ReflectionTestUtils.setField(externalHolidayClient, "waitInOpenState",
+				Duration.ofMinutes(1));
+		externalHolidayClient.initProviders();
+
+		lenient().when(holidayRepository.saveAll(anyList()))
+				.thenAnswer(invocation -> invocation.getArgument(0));
+	}
+
+	@AfterEach
+	void tearDown() {
+		stub.close();
+	}
+
+	@Test
+	void testPrefetchSavesWholeYearInOneBatch() {
+		when(countryRepository.findByCode("GB")).thenReturn(Optional.of(country("GB")));
+
+		List<Holiday> holidays =
+				externalHolidayClient.prefetchHolidayYear("GB", 2031).block();
+
+		assertEquals(4, holidays.size());
+		assertEquals(LocalDate.of(2031, 4, 11), holidays.get(1).getDate());
+		assertEquals("Good Friday", holidays.get(1).getName());
+		assertEquals(1, stub.requests());
+
+		@SuppressWarnings("unchecked")
+		ArgumentCaptor<List<Holiday>> saved = ArgumentCaptor.forClass(List.class);
+		verify(holidayRepository, times(1)).saveAll(saved.capture());
+		assertEquals(4, saved.getValue().size());
+	}
+
+	@Test
+	void testYearStoredMeanwhileIsNotSavedAgain() {
+		when(countryRepository.findByCode("GB")).thenReturn(Optional.of(country("GB")));
+		Holiday stored = new Holiday();
+		stored.setDate(LocalDate.of(2031, 12, 25));
+		stored.setName("Christmas Day");
+		when(holidayRepository.findByCountryCodeAndDateRange("GB",
+				LocalDate.of(2031, 1, 1), LocalDate.of(2031, 12, 31)))
+				.thenReturn(List.of(stored));
+
+		List<Holiday> holidays =
+				externalHolidayClient.prefetchHolidayYear("GB", 2031).block();
+
+		assertEquals(List.of(stored), holidays);
+		verify(holidayRepository, never()).saveAll(anyList());
+	}
+
+	@Test
+	void testUsAndGenericProviders() {
+		when(countryRepository.findByCode("US")).thenReturn(Optional.of(country("US")));
+		when(countryRepository.findByCode("DE")).thenReturn(Optional.of(country("DE")));
+
+		List<Holiday> us = externalHolidayClient.fetchHolidayYear("US", 2031).block();
+		List<Holiday> de = externalHolidayClient.fetchHolidayYear("DE", 2031).block();
+
+		assertEquals(3, us.size());
+		assertEquals("Independence Day", us.get(1).getName());
+		assertEquals(1, de.size());
+		verify(holidayRepository, never()).saveAll(anyList());
+	}
+
+	@Test
+	void testConcurrentMissesShareOneFetch() throws Exception {
+		when(countryRepository.findByCode("GB")).thenReturn(Optional.of(country("GB")));
+		stub.setLatency(Duration.ofMillis(300));
+
+		int callers = 8;
+		ExecutorService executor = Executors.newFixedThreadPool(callers);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<List<Holiday>>> results = new ArrayList<>();
+		try {
+			for (int i = 0; i < callers; i++) {
+				results.add(executor.submit(() -> {
+					start.await();
+					return externalHolidayClient.prefetchHolidayYear("GB", 2031).block();
+				}));
+			}
+			start.countDown();
+
+			for (Future<List<Holiday>> result : results) {
+				assertEquals(4, result.get().size());
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+
+		assertEquals(1, stub.requests());
+		verify(holidayRepository, times(1)).saveAll(anyList());
+	}
+
+	@Test
+	void testUnknownCountryIsNotFetched() {
+		when(countryRepository.findByCode("XX")).thenReturn(Optional.empty());
+
+		List<Holiday> holidays =
+				externalHolidayClient.prefetchHolidayYear("XX", 2031).block();
+
+		assertTrue(holidays.isEmpty());
+		assertEquals(0, stub.requests());
+	}
+
+	@Test
+	void testTimeoutYieldsNoData() {
+		when(countryRepository.findByCode("GB")).thenReturn(Optional.of(country("GB")));
+		ReflectionTestUtils.setField(externalHolidayClient, "governmentSourcesTimeout",
+				Duration.ofMillis(100));
+		externalHolidayClient.initProviders();
+		stub.setLatency(Duration.ofMillis(500));
+
+		assertTrue(externalHolidayClient.fetchHolidayYear("GB", 2031).block().isEmpty());
+		assertEquals(1, fetches("gb-government", "failure"));
+	}
+
+	@Test
+	void testOpenCircuitShortCircuitsToNoData() {
+		when(countryRepository.findByCode("GB")).thenReturn(Optional.of(country("GB")));
+		stub.setStatus(503);
+
+		// Two failures reach the minimum number of calls and open the circuit
+		externalHolidayClient.fetchHolidayYear("GB", 2031).block();
+		externalHolidayClient.fetchHolidayYear("GB", 2031).block();
+		stub.setStatus(200);
+
+		assertTrue(externalHolidayClient.fetchHolidayYear("GB", 2031).block().isEmpty());
+		assertEquals(2, stub.requests());
+		assertEquals(1, fetches("gb-government", "short-circuited"));
+		assertEquals(1, meterRegistry.get("calendar.external.circuit.open")
+				.tag("provider", "gb-government")
+				.gauge()
+				.value());
+	}
+
+	private long fetches(String provider, String outcome) {
+		return meterRegistry.get("calendar.external.fetch")
+				.tags("provider", provider, "outcome", outcome)
+				.timer()
+				.count();
+	}
+
+	private static Country country(String code) {
+		Country country = new Country();
+		country.setCode(code);
+		return country;
+	}
+}
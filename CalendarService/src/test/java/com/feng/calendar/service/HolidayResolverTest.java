@@ -0,0 +1,205 @@
+package com.feng.calendar.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import com.feng.calendar.engine.RecurrenceExpander;
+import com.feng.calendar.event.CalendarDataChangedEvent;
+import com.feng.calendar.model.cache.HolidayYear;
+import com.feng.calendar.model.entity.Country;
+import com.feng.calendar.model.entity.Holiday;
+import com.feng.calendar.model.enums.HolidayType;
+import com.feng.calendar.repository.HolidayRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for HolidayResolver
+ */
+@ExtendWith(MockitoExtension.class)
+class HolidayResolverTest {
+
+	@Mock
+	private HolidayRepository holidayRepository;
+
+	@Mock
+	private RedisTemplate<String, HolidayYear> holidayYearRedisTemplate;
+
+	@Mock
+	private ValueOperations<String, HolidayYear> valueOperations;
+
+	@Mock
+	private StringRedisTemplate stringRedisTemplate;
+
+	@Mock
+	private ValueOperations<String, String> counters;
+
+	@Mock
+	private ExternalHolidayClient externalHolidayClient;
+
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+
+	@Mock
+	private RecurrenceExpander recurrenceExpander;
+
+	private SimpleMeterRegistry meterRegistry;
+
+	private HolidayResolver holidayResolver;
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		holidayResolver = new HolidayResolver(holidayRepository, holidayYearRedisTemplate,
+				stringRedisTemplate, externalHolidayClient, eventPublisher,
+				recurrenceExpander, new PipelineMetrics(meterRegistry));
+		ReflectionTestUtils.setField(holidayResolver, "localMaxEntries", 100L);
+		ReflectionTestUtils.setField(holidayResolver, "localTtl", Duration.ofMinutes(10));
+		holidayResolver.initLocalCache();
+		when(holidayYearRedisTemplate.opsForValue()).thenReturn(valueOperations);
+		when(stringRedisTemplate.opsForValue()).thenReturn(counters);
+	}
+
+	@Test
+	void testGetHolidayYearsUsesOneRedisReadAndOneQueryForMisses() {
+		HolidayYear cached2023 = HolidayYear.of("US", 2023,
+				List.of(holiday("Christmas Day", LocalDate.of(2023, 12, 25))));
+		when(counters.multiGet(List.of("holiday-generation", "holiday-generation:US")))
+				.thenReturn(Arrays.asList("2", null));
+		when(valueOperations.multiGet(List.of("holiday:US:2.0:2023",
+				"holiday:US:2.0:2024", "holiday:US:2.0:2025")))
+				.thenReturn(Arrays.asList(cached2023, null, null));
+		when(holidayRepository.findByCountryCodeAndDateRange("US",
+				LocalDate.of(2024, 1, 1), LocalDate.of(2025, 12, 31)))
+				.thenReturn(
+						List.of(holiday("Independence Day", LocalDate.of(2024, 7, 4))));
+		when(recurrenceExpander.withRecurrences(anyString(), anyInt(), anyList()))
+				.thenAnswer(invocation -> invocation.getArgument(2));
+
+		Map<Integer, HolidayYear> years =
+				holidayResolver.getHolidayYears("US", 2023, 2025);
+
+		assertEquals(List.of(2023, 2024, 2025), List.copyOf(years.keySet()));
+		assertTrue(years.get(2024).find(LocalDate.of(2024, 7, 4)).isPresent());
+		assertFalse(years.get(2025).hasHolidays());
+		verify(valueOperations, never()).get(any());
+		verify(holidayYearRedisTemplate).executePipelined(any(SessionCallback.class));
+		assertEquals(3, meterRegistry.get("calendar.holiday.local-cache")
+				.tags("country", "US", "outcome", "miss").counter().count());
+		assertEquals(1, meterRegistry.get("calendar.pipeline.stage")
+				.tags("stage", "redis", "country", "US", "outcome", "miss").timer()
+				.count());
+		assertEquals(1, meterRegistry.get("calendar.pipeline.stage")
+				.tags("stage", "database", "country", "US", "outcome", "hit").timer()
+				.count());
+	}
+
+	@Test
+	void testGetHolidayYearsServesLocalCopiesWithoutRedis() {
+		when(counters.multiGet(anyList())).thenReturn(Arrays.asList(null, null));
+		when(valueOperations.multiGet(List.of("holiday:GB:0.0:2024")))
+				.thenReturn(Arrays.asList(HolidayYear.of("GB", 2024,
+						List.of(holiday("Boxing Day", LocalDate.of(2024, 12, 26))))));
+
+		holidayResolver.getHolidayYears("GB", 2024, 2024);
+		Map<Integer, HolidayYear> years =
+				holidayResolver.getHolidayYears("GB", 2024, 2024);
+
+		assertTrue(years.get(2024).hasHolidays());
+		verify(valueOperations, times(1)).multiGet(anyList());
+		verify(holidayRepository, never())
+				.findByCountryCodeAndDateRange(anyString(), any(), any());
+	}
+
+	@Test
+	void testClearingCountryMovesItToNewGeneration() {
+		when(counters.multiGet(List.of("holiday-generation", "holiday-generation:GB")))
+				.thenReturn(Arrays.asList("1", "4"), Arrays.asList("1", "5"));
+		HolidayYear boxingDay = HolidayYear.of("GB", 2024,
+				List.of(holiday("Boxing Day", LocalDate.of(2024, 12, 26))));
+		when(valueOperations.multiGet(anyList()))
+				.thenReturn(Arrays.asList(boxingDay));
+
+		holidayResolver.getHolidayYears("GB", 2024, 2024);
+		holidayResolver.clearHolidayCacheForCountry("GB");
+		holidayResolver.onCalendarDataChanged(
+				CalendarDataChangedEvent.holidaysChanged("GB", null));
+		holidayResolver.getHolidayYears("GB", 2024, 2024);
+
+		verify(counters).increment("holiday-generation:GB");
+		verify(valueOperations).multiGet(List.of("holiday:GB:1.4:2024"));
+		verify(valueOperations).multiGet(List.of("holiday:GB:1.5:2024"));
+		verify(holidayYearRedisTemplate, never()).keys(anyString());
+	}
+
+	@Test
+	void testFindHolidaysUsesOneQueryForAllCountries() {
+		LocalDate date = LocalDate.of(2024, 12, 25);
+		when(holidayRepository.findByDate(date)).thenReturn(List.of(
+				holiday("US", "Christmas Day", date),
+				holiday("GB", "Christmas Day", date),
+				holiday("DE", "Weihnachtstag", date)));
+		when(recurrenceExpander.recursOn("FR", date)).thenReturn(false);
+		when(recurrenceExpander.recursOn("CN", date)).thenReturn(true);
+		when(counters.multiGet(anyList())).thenReturn(Arrays.asList(null, null));
+		when(valueOperations.get("holiday:CN:0.0:2024")).thenReturn(HolidayYear.of("CN",
+				2024, List.of(holiday("Recurring Day", date))));
+
+		Map<String, Optional<Holiday>> holidays = holidayResolver.findHolidays(date,
+				List.of("US", "GB", "FR", "CN"));
+
+		assertEquals(Set.of("US", "GB", "FR", "CN"), holidays.keySet());
+		assertEquals("Christmas Day", holidays.get("US").orElseThrow().getName());
+		assertEquals("Christmas Day", holidays.get("GB").orElseThrow().getName());
+		assertTrue(holidays.get("FR").isEmpty());
+		assertEquals("Recurring Day", holidays.get("CN").orElseThrow().getName());
+		verify(holidayRepository, times(1)).findByDate(date);
+		verify(holidayRepository, never())
+				.findByCountryCodeAndDateRange(anyString(), any(), any());
+		verify(recurrenceExpander, never()).recursOn("US", date);
+	}
+
+	private static Holiday holiday(String countryCode, String name, LocalDate date) {
+		Country country = new Country();
+		country.setCode(countryCode);
+		Holiday holiday = holiday(name, date);
+		holiday.setCountry(country);
+		return holiday;
+	}
+
+	private static Holiday holiday(String name, LocalDate date) {
+		Holiday holiday = new Holiday();
+		holiday.setName(name);
+		holiday.setDate(date);
+		holiday.setHolidayType(HolidayType.NATIONAL);
+		return holiday;
+	}
+}
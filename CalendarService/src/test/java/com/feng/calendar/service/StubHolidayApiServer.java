@@ -0,0 +1,131 @@
+package com.feng.calendar.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Local stand-in for the external holiday providers, serving canned US, GB and generic
+ * responses so the external client can run without network access.
+ *
+ * Tests start it on a free port; it can also be run on its own and the
+ * {@code calendar-service.external-apis} URLs pointed at it:
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.feng.calendar.service.StubHolidayApiServer -Dexec.args=18089
+ * </pre>
+ */
+public class StubHolidayApiServer implements AutoCloseable {
+
+	static final String US_PATH = "/us/holidays";
+
+	static final String GB_PATH = "/gb/bank-holidays";
+
+	static final String GENERIC_PATH = "/v1/holidays";
+
+	private static final String US_HOLIDAYS = """
+			{"holidays": [
+			  {"date": "2031-01-01", "name": "New Year's Day"},
+			  {"date": "2031-07-04", "name": "Independence Day"},
+			  {"date": "2031-12-25", "name": "Christmas Day"}
+			]}""";
+
+	private static final String GB_HOLIDAYS = """
+			{"england-and-wales": {"division": "england-and-wales", "events": [
+			  {"title": "Christmas Day", "date": "2030-12-25"},
+			  {"title": "New Year's Day", "date": "2031-01-01"},
+			  {"title": "Good Friday", "date": "2031-04-11"},
+			  {"title": "Easter Monday", "date": "2031-04-14"},
+			  {"title": "Christmas Day", "date": "2031-12-25"}
+			]}}""";
+
+	private static final String GENERIC_HOLIDAYS = """
+			{"status": 200, "holidays": [
+			  {"name": "New Year's Day", "date": "2031-01-01", "public": true}
+			]}""";
+
+	private final HttpServer server;
+
+	private final AtomicInteger requests = new AtomicInteger();
+
+	private volatile Duration latency = Duration.ZERO;
+
+	private volatile int status = 200;
+
+	public StubHolidayApiServer(int port) throws IOException {
+		server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+		server.createContext(US_PATH, exchange -> respond(exchange, US_HOLIDAYS));
+		server.createContext(GB_PATH, exchange -> respond(exchange, GB_HOLIDAYS));
+		server.createContext(GENERIC_PATH,
+				exchange -> respond(exchange, GENERIC_HOLIDAYS));
+		server.start();
+	}
+
+	/**
+	 * Start on a free port
+	 */
+	public static StubHolidayApiServer start() throws IOException {
+		return new StubHolidayApiServer(0);
+	}
+
+	public String url(String path) {
+		return "http://localhost:" + server.getAddress().getPort() + path;
+	}
+
+	/**
+	 * Requests served so far
+	 */
+	public int requests() {
+		return requests.get();
+	}
+
+	/**
+	 * Delay every response, to keep a fetch in flight
+	 */
+	public void setLatency(Duration latency) {
+		this.latency = latency;
+	}
+
+	/**
+	 * Answer every request with a status, to simulate an unhealthy provider
+	 */
+	public void setStatus(int status) {
+		this.status = status;
+	}
+
+	private void respond(HttpExchange exchange, String body) throws IOException {
+		requests.incrementAndGet();
+		try {
+			Thread.sleep(latency.toMillis());
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(status, bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+	}
+
+	public static void main(String[] args) throws IOException {
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : 18089;
+		StubHolidayApiServer stub = new StubHolidayApiServer(port);
+		System.out.println("Stub holiday APIs: " + stub.url(US_PATH) + ", " +
+				stub.url(GB_PATH) + ", " + stub.url(""));
+	}
+}
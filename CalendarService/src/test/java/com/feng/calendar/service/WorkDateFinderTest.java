@@ -0,0 +1,122 @@
+package com.feng.calendar.service;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+import com.feng.calendar.engine.WorkDayIndex;
+import com.feng.calendar.exception.CalendarServiceException;
+import com.feng.calendar.model.dto.DateTypeResponse;
+import com.feng.calendar.model.dto.WorkDateResponse;
+import com.feng.calendar.model.enums.DateType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for WorkDateFinder's day-by-day fallback, used when a year cannot be
+ * compiled
+ */
+@ExtendWith(MockitoExtension.class)
+class WorkDateFinderTest {
+
+	private static final LocalDate SHUTDOWN_START = LocalDate.of(2024, 12, 1);
+
+	private static final LocalDate SHUTDOWN_END = LocalDate.of(2025, 2, 28);
+
+	@Mock
+	private DateTypeChecker dateTypeChecker;
+
+	@Mock
+	private WorkDayIndex workDayIndex;
+
+	private WorkDateFinder workDateFinder;
+
+	@BeforeEach
+	void setUp() {
+		workDateFinder = new WorkDateFinder(dateTypeChecker, workDayIndex);
+	}
+
+	@Test
+	void testNextAndPreviousWorkDateAcrossLongShutdown() {
+		// Given a three-month shutdown in years that are not compiled
+		when(workDayIndex.nextWorkDate(any(), eq("US"), isNull()))
+				.thenReturn(Optional.empty());
+		when(workDayIndex.previousWorkDate(any(), eq("US"), isNull()))
+				.thenReturn(Optional.empty());
+		when(dateTypeChecker.checkDateType(any(LocalDate.class), eq("US"), isNull(),
+				anyBoolean()))
+				.thenAnswer(invocation -> dateType(invocation.getArgument(0),
+						date -> date.isBefore(SHUTDOWN_START) ||
+								date.isAfter(SHUTDOWN_END)));
+
+		// When
+		WorkDateResponse next = workDateFinder.findNextWorkDate(
+				SHUTDOWN_START.minusDays(1), "US", null, false);
+		WorkDateResponse previous = workDateFinder.findPreviousWorkDate(
+				SHUTDOWN_END.plusDays(1), "US", null, true);
+
+		// Then
+		assertEquals(LocalDate.of(2025, 3, 1), next.getNextWorkDate());
+		assertEquals(90, next.getDaysSkipped());
+		assertNull(next.getSkippedDates());
+		assertEquals(LocalDate.of(2024, 11, 30), previous.getPreviousWorkDate());
+		assertEquals(90, previous.getSkippedDates().size());
+		assertEquals(SHUTDOWN_END, previous.getSkippedDates().get(0).getDate());
+	}
+
+	@Test
+	void testNextWorkDateGivesUpAfterEmptyYears() {
+		// Given a calendar without work days
+		when(workDayIndex.nextWorkDate(any(), eq("US"), isNull()))
+				.thenReturn(Optional.empty());
+		when(dateTypeChecker.checkDateType(any(LocalDate.class), eq("US"), isNull(),
+				anyBoolean()))
+				.thenAnswer(invocation -> dateType(invocation.getArgument(0),
+						date -> false));
+
+		// When & Then
+		assertThrows(CalendarServiceException.class, () ->
+				workDateFinder.findNextWorkDate(SHUTDOWN_START, "US", null, false));
+	}
+
+	@Test
+	void testWorkDateAfterGivesUpAfterEmptyYears() {
+		// Given a calendar whose work days stop after the shutdown starts
+		when(workDayIndex.addWorkDays(any(), anyInt(), eq("US"), isNull()))
+				.thenReturn(Optional.empty());
+		when(dateTypeChecker.checkDateType(any(LocalDate.class), eq("US"), isNull(),
+				anyBoolean()))
+				.thenAnswer(invocation -> dateType(invocation.getArgument(0),
+						date -> date.isBefore(SHUTDOWN_START)));
+
+		// When & Then
+		assertEquals(LocalDate.of(2024, 11, 30), workDateFinder.findWorkDateAfter(
+				LocalDate.of(2024, 11, 20), 10, "US", null));
+		assertThrows(CalendarServiceException.class, () ->
+				workDateFinder.findWorkDateAfter(LocalDate.of(2024, 11, 20), 11, "US",
+						null));
+	}
+
+	private static DateTypeResponse dateType(LocalDate date,
+			Predicate<LocalDate> isWorkDay) {
+		boolean workDay = isWorkDay.test(date);
+		return DateTypeResponse.builder()
+				.date(date)
+				.dateType(workDay ? DateType.WORK_DAY : DateType.CUSTOM_NON_WORK_DAY)
+				.isWorkDay(workDay)
+				.build();
+	}
+}
@@ -0,0 +1,58 @@
+package com.feng.calendar.web;
+
+import java.time.Duration;
+
+import com.feng.calendar.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for CalendarBulkhead
+ */
+class CalendarBulkheadTest {
+
+	private final MockHttpServletRequest request = new MockHttpServletRequest();
+
+	private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+	private SimpleMeterRegistry meterRegistry;
+
+	private CalendarBulkhead calendarBulkhead;
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		calendarBulkhead = new CalendarBulkhead(meterRegistry, 2, Duration.ofMillis(10));
+	}
+
+	@Test
+	void testRequestsPastTheLimitAreRejected() {
+		assertTrue(calendarBulkhead.preHandle(request, response, null));
+		assertTrue(calendarBulkhead.preHandle(request, response, null));
+		assertEquals(2.0, meterRegistry.get("calendar.requests.active").gauge().value());
+
+		assertThrows(ServiceOverloadedException.class,
+				() -> calendarBulkhead.preHandle(request, response, null));
+		assertEquals(1.0,
+				meterRegistry.get("calendar.requests.rejected").counter().count());
+	}
+
+	@Test
+	void testCompletedRequestsFreeTheirSlot() {
+		calendarBulkhead.preHandle(request, response, null);
+		calendarBulkhead.preHandle(request, response, null);
+		calendarBulkhead.afterCompletion(request, response, null, null);
+
+		assertTrue(calendarBulkhead.preHandle(request, response, null));
+		assertEquals(0.0,
+				meterRegistry.get("calendar.requests.rejected").counter().count());
+	}
+}
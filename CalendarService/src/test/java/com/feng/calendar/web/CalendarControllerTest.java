@@ -1,30 +1,50 @@
 package com.feng.calendar.web;
 
+import java.io.BufferedReader;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.feng.calendar.cache.CalendarDataVersions;
+import com.feng.calendar.exception.ServiceOverloadedException;
 import com.feng.calendar.model.dto.BulkDateRequest;
+import com.feng.calendar.model.dto.BusinessDaysResponse;
+import com.feng.calendar.model.dto.CalendarRangeResponse;
 import com.feng.calendar.model.dto.DateTypeResponse;
+import com.feng.calendar.model.dto.MultiCountryDateRequest;
+import com.feng.calendar.model.dto.MultiCountryDateResponse;
 import com.feng.calendar.model.dto.WorkDateResponse;
+import com.feng.calendar.model.dto.WorkMomentResponse;
 import com.feng.calendar.model.enums.DateType;
 import com.feng.calendar.service.CalendarService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import static org.hamcrest.Matchers.matchesPattern;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
-import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -32,6 +52,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * Integration tests for CalendarController
  */
 @WebMvcTest(CalendarController.class)
+@Import({CalendarCachePolicy.class, RequestCoalescer.class})
 class CalendarControllerTest {
 
 	@Autowired
@@ -40,9 +61,21 @@ class CalendarControllerTest {
 	@MockBean
 	private CalendarService calendarService;
 
+	@MockBean
+	private CalendarDataVersions calendarDataVersions;
+
 	@Autowired
 	private ObjectMapper objectMapper;
 
+	@TestConfiguration
+	static class MetricsConfig {
+
+		@Bean
+		MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+	}
+
 	@Test
 	void testGetDateType() throws Exception {
 		// Given
@@ -55,7 +88,7 @@ class CalendarControllerTest {
 				.country("US")
 				.build();
 
-		when(calendarService.checkDateType(eq(date), eq("US"), anyString()))
+		when(calendarService.checkDateType(eq(date), eq("US"), isNull()))
 				.thenReturn(expectedResponse);
 
 		// When & Then
@@ -71,6 +104,47 @@ class CalendarControllerTest {
 				.andExpect(jsonPath("$.country").value("US"));
 	}
 
+	@Test
+	void testGetWorkMoment() throws Exception {
+		// Given
+		Instant at = Instant.parse("2024-07-05T02:00:00Z"); // July 4 in New York
+		when(calendarService.checkWorkMoment(at, "US", null))
+				.thenReturn(WorkMomentResponse.builder()
+						.country("US")
+						.timezone("America/New_York")
+						.localDate(LocalDate.of(2024, 7, 4))
+						.dateType(DateType.HOLIDAY)
+						.isWorkDay(false)
+						.holidayName("Independence Day")
+						.build());
+
+		// When & Then
+		mockMvc.perform(get("/api/v1/calendar/work-moment")
+						.param("at", "2024-07-05T02:00:00Z")
+						.param("country", "US"))
+				.andExpect(status().isOk())
+				.andExpect(header().string("Cache-Control", "no-cache"))
+				.andExpect(jsonPath("$.localDate").value("2024-07-04"))
+				.andExpect(jsonPath("$.timezone").value("America/New_York"))
+				.andExpect(jsonPath("$.isWorkDay").value(false));
+	}
+
+	@Test
+	void testOverloadedRequestGets503() throws Exception {
+		// Given
+		LocalDate date = LocalDate.of(2024, 7, 4);
+		when(calendarService.checkDateType(eq(date), eq("US"), isNull()))
+				.thenThrow(new ServiceOverloadedException("Too many requests"));
+
+		// When & Then
+		mockMvc.perform(get("/api/v1/calendar/date-type")
+						.param("date", "2024-07-04")
+						.param("country", "US"))
+				.andExpect(status().isServiceUnavailable())
+				.andExpect(header().string("Retry-After", "1"))
+				.andExpect(jsonPath("$.error").value("SERVICE_OVERLOADED"));
+	}
+
 	@Test
 	void testGetNextWorkDate() throws Exception {
 		// Given
@@ -89,8 +163,8 @@ class CalendarControllerTest {
 				))
 				.build();
 
-		when(calendarService.findNextWorkDate(eq(fromDate), eq("US"), anyString(),
-				anyBoolean()))
+		when(calendarService.findNextWorkDate(eq(fromDate), eq("US"), isNull(),
+				anyBoolean(), anyBoolean()))
 				.thenReturn(expectedResponse);
 
 		// When & Then
@@ -107,6 +181,148 @@ class CalendarControllerTest {
 						"Independence Day Holiday"));
 	}
 
+	@Test
+	void testAddBusinessDays() throws Exception {
+		// Given
+		LocalDate fromDate = LocalDate.of(2024, 7, 3);
+		BusinessDaysResponse expectedResponse = BusinessDaysResponse.builder()
+				.fromDate(fromDate)
+				.toDate(LocalDate.of(2024, 7, 9))
+				.businessDays(3)
+				.country("US")
+				.build();
+
+		when(calendarService.addBusinessDays(eq(fromDate), eq(3), eq("US"), isNull()))
+				.thenReturn(expectedResponse);
+
+		// When & Then
+		mockMvc.perform(get("/api/v1/calendar/add-business-days")
+						.param("fromDate", "2024-07-03")
+						.param("days", "3")
+						.param("country", "US"))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON))
+				.andExpect(jsonPath("$.fromDate").value("2024-07-03"))
+				.andExpect(jsonPath("$.toDate").value("2024-07-09"))
+				.andExpect(jsonPath("$.businessDays").value(3));
+	}
+
+	@Test
+	void testGetBusinessDaysBetween() throws Exception {
+		// Given
+		LocalDate fromDate = LocalDate.of(2024, 7, 1);
+		LocalDate toDate = LocalDate.of(2024, 7, 31);
+		BusinessDaysResponse expectedResponse = BusinessDaysResponse.builder()
+				.fromDate(fromDate)
+				.toDate(toDate)
+				.businessDays(21)
+				.country("US")
+				.build();
+
+		when(calendarService.businessDaysBetween(eq(fromDate), eq(toDate), eq("US"),
+				isNull()))
+				.thenReturn(expectedResponse);
+
+		// When & Then
+		mockMvc.perform(get("/api/v1/calendar/business-days-between")
+						.param("fromDate", "2024-07-01")
+						.param("toDate", "2024-07-31")
+						.param("country", "US"))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON))
+				.andExpect(jsonPath("$.businessDays").value(21));
+	}
+
+	@Test
+	void testGetCalendarRange() throws Exception {
+		// Given
+		LocalDate from = LocalDate.of(2024, 7, 1);
+		LocalDate to = LocalDate.of(2024, 7, 7);
+		CalendarRangeResponse expectedResponse = CalendarRangeResponse.builder()
+				.from(from)
+				.to(to)
+				.country("US")
+				.workDays("Fw==")
+				.namedDays(List.of(CalendarRangeResponse.NamedDay.builder()
+						.date(LocalDate.of(2024, 7, 4))
+						.dateType(DateType.HOLIDAY)
+						.name("Independence Day")
+						.build()))
+				.version("0123456789abcdef")
+				.build();
+
+		when(calendarService.getCalendarRange(eq(from), eq(to), eq("US"), isNull()))
+				.thenReturn(expectedResponse);
+
+		// When & Then
+		mockMvc.perform(get("/api/v1/calendar/range")
+						.param("from", "2024-07-01")
+						.param("to", "2024-07-07")
+						.param("country", "US"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.workDays").value("Fw=="))
+				.andExpect(jsonPath("$.namedDays[0].name").value("Independence Day"));
+	}
+
+	@Test
+	void testConditionalGetSkipsUnchangedAnswers() throws Exception {
+		// Given
+		LocalDate date = LocalDate.of(2024, 7, 4);
+		when(calendarDataVersions.version("US", null)).thenReturn("US-1.4");
+		when(calendarService.checkDateType(eq(date), eq("US"), isNull()))
+				.thenReturn(DateTypeResponse.builder()
+						.date(date)
+						.dateType(DateType.HOLIDAY)
+						.build());
+
+		// When & Then: a past date is cached for a day
+		mockMvc.perform(get("/api/v1/calendar/date-type")
+						.param("date", "2024-07-04")
+						.param("country", "US"))
+				.andExpect(status().isOk())
+				.andExpect(header().string("ETag", "\"US-1.4\""))
+				.andExpect(header().string("Cache-Control", "max-age=86400, public"))
+				.andExpect(jsonPath("$.dateType").value("HOLIDAY"));
+
+		mockMvc.perform(get("/api/v1/calendar/date-type")
+						.param("date", "2024-07-04")
+						.param("country", "US")
+						.header("If-None-Match", "\"US-1.4\""))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string("ETag", "\"US-1.4\""))
+				.andExpect(content().string(""));
+
+		verify(calendarService, times(1)).checkDateType(eq(date), eq("US"), isNull());
+	}
+
+	@Test
+	void testNextWorkDateIsCachedByTheDateItReaches() throws Exception {
+		// Given a search from yesterday that ends tomorrow
+		LocalDate yesterday = LocalDate.now().minusDays(1);
+		when(calendarDataVersions.version("US", null)).thenReturn("US-1.4");
+		when(calendarService.findNextWorkDate(eq(yesterday), eq("US"), isNull(),
+				anyBoolean(), anyBoolean()))
+				.thenReturn(WorkDateResponse.builder()
+						.fromDate(yesterday)
+						.nextWorkDate(yesterday.plusDays(2))
+						.daysSkipped(1)
+						.build());
+
+		// When & Then: cached as a near date, not a past one
+		mockMvc.perform(get("/api/v1/calendar/next-work-date")
+						.param("fromDate", yesterday.toString())
+						.param("country", "US"))
+				.andExpect(status().isOk())
+				.andExpect(header().string("Cache-Control", "max-age=300, public"));
+
+		mockMvc.perform(get("/api/v1/calendar/next-work-date")
+						.param("fromDate", yesterday.toString())
+						.param("country", "US")
+						.header("If-None-Match", "\"US-1.4\""))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string("Cache-Control", "max-age=300, public"));
+	}
+
 	@Test
 	void testBulkCheck() throws Exception {
 		// Given
@@ -151,6 +367,81 @@ class CalendarControllerTest {
 				.andExpect(jsonPath("$.dateTypeResults[1].dateType").value("WORK_DAY"));
 	}
 
+	@Test
+	void testMultiCountryCheck() throws Exception {
+		// Given
+		MultiCountryDateRequest request = MultiCountryDateRequest.builder()
+				.dates(List.of("2024-12-25"))
+				.countries(List.of("US", "CN"))
+				.build();
+
+		LocalDate date = LocalDate.of(2024, 12, 25);
+		when(calendarService.processMultiCountryDates(any(MultiCountryDateRequest.class)))
+				.thenReturn(MultiCountryDateResponse.builder()
+						.results(List.of(
+								DateTypeResponse.builder()
+										.date(date)
+										.dateType(DateType.HOLIDAY)
+										.isWorkDay(false)
+										.holidayName("Christmas Day")
+										.country("US")
+										.build(),
+								DateTypeResponse.builder()
+										.date(date)
+										.dateType(DateType.WORK_DAY)
+										.isWorkDay(true)
+										.country("CN")
+										.build()))
+						.totalProcessed(2)
+						.processingTimeMs(5L)
+						.build());
+
+		// When & Then
+		mockMvc.perform(post("/api/v1/calendar/multi-country-check")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(objectMapper.writeValueAsString(request)))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.totalProcessed").value(2))
+				.andExpect(jsonPath("$.results[0].country").value("US"))
+				.andExpect(jsonPath("$.results[0].dateType").value("HOLIDAY"))
+				.andExpect(jsonPath("$.results[1].country").value("CN"))
+				.andExpect(jsonPath("$.results[1].isWorkDay").value(true));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void testBulkCheckStream() throws Exception {
+		// Given
+		doAnswer(invocation -> {
+			BufferedReader reader = invocation.getArgument(0);
+			Consumer<List<DateTypeResponse>> sink = invocation.getArgument(4);
+			String line;
+			while ((line = reader.readLine()) != null) {
+				LocalDate date = LocalDate.parse(line);
+				sink.accept(List.of(DateTypeResponse.builder()
+						.date(date)
+						.dateType(DateType.WORK_DAY)
+						.isWorkDay(true)
+						.country("US")
+						.build()));
+			}
+			return 2L;
+		}).when(calendarService).processBulkDateStream(any(BufferedReader.class),
+				eq("US"), isNull(), eq(true), any(Consumer.class));
+
+		// When & Then
+		mockMvc.perform(post("/api/v1/calendar/bulk-check/stream")
+						.contentType(MediaType.APPLICATION_NDJSON)
+						.accept(MediaType.APPLICATION_NDJSON)
+						.content("2024-07-05\n2024-07-08\n"))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(
+						MediaType.APPLICATION_NDJSON))
+				.andExpect(content().string(matchesPattern(
+						"(?s)\\{.*\"date\":\"2024-07-05\".*}\n" +
+								"\\{.*\"date\":\"2024-07-08\".*}\n")));
+	}
+
 	@Test
 	void testGetCountries() throws Exception {
 		// When & Then
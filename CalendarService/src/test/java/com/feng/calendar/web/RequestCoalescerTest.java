@@ -0,0 +1,121 @@
+package com.feng.calendar.web;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for RequestCoalescer
+ */
+class RequestCoalescerTest {
+
+	private SimpleMeterRegistry meterRegistry;
+
+	private RequestCoalescer requestCoalescer;
+
+	private ExecutorService executor;
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		requestCoalescer = new RequestCoalescer(meterRegistry);
+		executor = Executors.newFixedThreadPool(4);
+	}
+
+	@AfterEach
+	void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	void testConcurrentIdenticalRequestsShareOneComputation() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger computations = new AtomicInteger();
+
+		Future<String> first = executor.submit(() -> requestCoalescer.execute(
+				"next-work-date", List.of("2024-07-04", "US"), () -> {
+					computations.incrementAndGet();
+					started.countDown();
+					await(release);
+					return "2024-07-05";
+				}));
+		started.await(5, TimeUnit.SECONDS);
+		Future<String> second = executor.submit(() -> requestCoalescer.execute(
+				"next-work-date", List.of("2024-07-04", "US"), () -> {
+					computations.incrementAndGet();
+					return "recomputed";
+				}));
+
+		// The second caller joins the first computation while it is in flight
+		while (coalesced() < 1) {
+			Thread.onSpinWait();
+		}
+		release.countDown();
+
+		assertEquals("2024-07-05", first.get(5, TimeUnit.SECONDS));
+		assertEquals("2024-07-05", second.get(5, TimeUnit.SECONDS));
+		assertEquals(1, computations.get());
+		assertEquals(0.5, meterRegistry.get("calendar.requests.coalescing.ratio")
+				.gauge().value());
+	}
+
+	@Test
+	void testCompletedRequestsAreNotReused() {
+		AtomicInteger computations = new AtomicInteger();
+
+		requestCoalescer.execute("date-type", List.of("2024-07-04", "US"),
+				computations::incrementAndGet);
+		requestCoalescer.execute("date-type", List.of("2024-07-04", "US"),
+				computations::incrementAndGet);
+		requestCoalescer.execute("date-type", List.of("2024-07-04", "GB"),
+				computations::incrementAndGet);
+
+		assertEquals(3, computations.get());
+		assertEquals(0.0, meterRegistry.get("calendar.requests.coalescing.ratio")
+				.gauge().value());
+	}
+
+	@Test
+	void testFailuresAreRethrownToTheCaller() {
+		IllegalArgumentException failure = new IllegalArgumentException("unknown");
+
+		assertEquals(failure, assertThrows(IllegalArgumentException.class,
+				() -> requestCoalescer.execute("date-type", List.of("2024-07-04", "XX"),
+						() -> {
+							throw failure;
+						})));
+		// A failed computation is not left in flight
+		assertEquals("answered", requestCoalescer.execute("date-type",
+				List.of("2024-07-04", "XX"), () -> "answered"));
+	}
+
+	private double coalesced() {
+		Counter counter = meterRegistry.find("calendar.requests")
+				.tag("outcome", "coalesced")
+				.counter();
+		return counter != null ? counter.count() : 0;
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}